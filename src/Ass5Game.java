@@ -1,20 +1,97 @@
 // Karam Ganaiem
 
 import gameLogic.Game;
+import gameLogic.HighScoreLog;
+import utilities.BiuoopWindow;
+import utilities.InputLog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * The Ass5Game class contains the main method to start the Arkanoid game.
  */
 public class Ass5Game {
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+
+    /**
+     * The number of steps between the state hashes of a recording: one second of play.
+     */
+    private static final int HASH_INTERVAL = 60;
+
+    /**
+     * The number of best scores kept in memory.
+     */
+    private static final int TOP_SCORES = 10;
+
+    /**
+     * The default high-score log.
+     */
+    private static final String SCORES_FILE = "highscores.log";
+
+    /**
+     * The usage line printed for arguments that are not understood.
+     */
+    private static final String USAGE = "Usage: java Ass5Game [--record file] [--scores file]";
 
     /**
      * The main method to start the Arkanoid game.
+     * With "--record file", the keys of the player are recorded into the file, which can be played back with
+     * ReplayGame. The final score is kept in the high-score log "highscores.log", or in the file given with
+     * "--scores file". Both are attached before the main menu, so they cover the game the player plays. The
+     * recording is written even if the game stops with an error. Any other argument prints a usage line.
+     *
+     * @param args Command line arguments: optionally "--record" and a file name, and "--scores" and a file name.
+     * @throws IOException If the recording or the high-score log cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        String record = null;
+        String scores = SCORES_FILE;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                usage("Missing a file name after " + args[i]);
+            } else if (args[i].equals("--record")) {
+                record = args[i + 1];
+            } else if (args[i].equals("--scores")) {
+                scores = args[i + 1];
+            } else {
+                usage("Unknown argument " + args[i]);
+            }
+        }
+
+        Game game = new Game(new BiuoopWindow("Arkanoid", SCREEN_WIDTH, SCREEN_HEIGHT));
+        InputLog log = null;
+        if (record != null) {
+            log = new InputLog(HASH_INTERVAL);
+            game.recordInput(log);
+        }
+        try (HighScoreLog highScores = new HighScoreLog(Paths.get(scores), TOP_SCORES, 1000)) {
+            game.setHighScores(highScores);
+            game.showMainMenu();
+            game.initialize();
+            game.run();
+        } finally {
+            if (log != null) {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(record)))) {
+                    log.writeTo(out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints what was wrong with the arguments and the usage line, and exits.
      *
-     * @param args Command line arguments (not used).
+     * @param problem What was wrong with the arguments.
      */
-    public static void main(String[] args) {
-        Game game = new Game();
-        game.initialize();
-        game.run();
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println(USAGE);
+        System.exit(2);
     }
 }
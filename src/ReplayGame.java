@@ -0,0 +1,35 @@
+// Karam Ganaiem
+
+import gameLogic.Replay;
+import gameLogic.SimulationResult;
+import utilities.InputLog;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * The ReplayGame class contains the main method to play back a game recorded with "Ass5Game --record file".
+ */
+public class ReplayGame {
+    /**
+     * Plays back a recording without a window, as fast as it can, and prints the result.
+     *
+     * @param args Command line arguments: the name of the recording.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java ReplayGame recording");
+            System.exit(2);
+        }
+        InputLog log;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0])))) {
+            log = InputLog.readFrom(in);
+        }
+        Replay replay = new Replay(log);
+        SimulationResult result = replay.run();
+        System.out.println(result + ", " + replay.getCheckedHashes() + " state hashes matched");
+    }
+}
@@ -0,0 +1,136 @@
+// Karam Ganaiem
+
+package analytics;
+
+import interfaces.AnalyticsHandler;
+
+import java.util.Arrays;
+
+/**
+ * Adds up the events of an analytics pipeline: the hits of every block, the balls lost, the blocks removed and the
+ * score gained. The totals may be read from any thread while the pipeline runs.
+ */
+public class AnalyticsAggregator implements AnalyticsHandler {
+    private long events;
+    private long hits;
+    private int[] blockHits;
+    private long ballsLost;
+    private long blocksRemoved;
+    private long scoreGained;
+    private long lastTick = -1;
+
+    /**
+     * Constructs an aggregator with all the totals at 0.
+     */
+    public AnalyticsAggregator() {
+        this.blockHits = new int[64];
+    }
+
+    /**
+     * Adds an event to the totals.
+     *
+     * @param event      The event.
+     * @param endOfBatch True if it is the last event that is available now.
+     */
+    @Override
+    public synchronized void onEvent(AnalyticsEvent event, boolean endOfBatch) {
+        this.events++;
+        this.lastTick = Math.max(this.lastTick, event.getTick());
+        switch (event.getType()) {
+            case AnalyticsEvent.HIT:
+                this.hits++;
+                if (event.getValue() >= this.blockHits.length) {
+                    this.blockHits = Arrays.copyOf(this.blockHits, Math.max(event.getValue() + 1,
+                            this.blockHits.length * 2));
+                }
+                this.blockHits[event.getValue()]++;
+                break;
+            case AnalyticsEvent.SCORE:
+                this.scoreGained += Math.max(event.getDelta(), 0);
+                break;
+            case AnalyticsEvent.BLOCKS:
+                this.blocksRemoved += Math.max(-event.getDelta(), 0);
+                break;
+            case AnalyticsEvent.BALLS:
+                this.ballsLost += Math.max(-event.getDelta(), 0);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Returns the number of events added up.
+     *
+     * @return The number of events.
+     */
+    public synchronized long getEvents() {
+        return this.events;
+    }
+
+    /**
+     * Returns the number of hits.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of hits of a block.
+     *
+     * @param block The index of the block in Game.getLevelBlocks().
+     * @return The number of hits.
+     */
+    public synchronized int getHits(int block) {
+        return block < this.blockHits.length ? this.blockHits[block] : 0;
+    }
+
+    /**
+     * Returns the number of balls lost.
+     *
+     * @return The number of balls.
+     */
+    public synchronized long getBallsLost() {
+        return this.ballsLost;
+    }
+
+    /**
+     * Returns the number of blocks removed.
+     *
+     * @return The number of blocks.
+     */
+    public synchronized long getBlocksRemoved() {
+        return this.blocksRemoved;
+    }
+
+    /**
+     * Returns the points gained, not counting the score going down, as it does when a game is rewound.
+     *
+     * @return The points.
+     */
+    public synchronized long getScoreGained() {
+        return this.scoreGained;
+    }
+
+    /**
+     * Returns the last tick an event happened in.
+     *
+     * @return The tick, or -1 if there were no events.
+     */
+    public synchronized long getLastTick() {
+        return this.lastTick;
+    }
+
+    /**
+     * Returns the totals as one line of text.
+     *
+     * @return The text.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%d events: %d hits, %d blocks removed, %d balls lost, %d points, last tick %d",
+                this.events, this.hits, this.blocksRemoved, this.ballsLost, this.scoreGained, this.lastTick);
+    }
+}
@@ -0,0 +1,123 @@
+// Karam Ganaiem
+
+package analytics;
+
+/**
+ * One gameplay event of the analytics pipeline: a hit, or a change of the score, the blocks left or the balls
+ * left. Events are slots of an analytics.EventRing that are made once and filled again and again, so logging an
+ * event creates no objects.
+ */
+public class AnalyticsEvent {
+    /**
+     * A ball hit a block. The value is the index of the block in Game.getLevelBlocks(), and x and y are the
+     * center of the ball.
+     */
+    public static final int HIT = 0;
+
+    /**
+     * The score changed. The value is the new score.
+     */
+    public static final int SCORE = 1;
+
+    /**
+     * The number of blocks left changed. The value is the new number.
+     */
+    public static final int BLOCKS = 2;
+
+    /**
+     * The number of balls left changed. The value is the new number.
+     */
+    public static final int BALLS = 3;
+
+    private static final String[] NAMES = {"hit", "score", "blocks", "balls"};
+
+    private int type;
+    private long tick;
+    private int value;
+    private int delta;
+    private double x;
+    private double y;
+
+    /**
+     * Fills the event.
+     *
+     * @param type  HIT, SCORE, BLOCKS or BALLS.
+     * @param tick  The tick the event happened in.
+     * @param value The block that was hit, or the new value of the counter.
+     * @param delta The change of the counter, or 0 for a hit.
+     * @param x     The x-coordinate of the ball of a hit, or 0.
+     * @param y     The y-coordinate of the ball of a hit, or 0.
+     */
+    void set(int type, long tick, int value, int delta, double x, double y) {
+        this.type = type;
+        this.tick = tick;
+        this.value = value;
+        this.delta = delta;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the name of a type of event.
+     *
+     * @param type HIT, SCORE, BLOCKS or BALLS.
+     * @return The name, like "hit".
+     */
+    public static String nameOf(int type) {
+        return NAMES[type];
+    }
+
+    /**
+     * Returns the type of the event.
+     *
+     * @return HIT, SCORE, BLOCKS or BALLS.
+     */
+    public int getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the tick the event happened in.
+     *
+     * @return The tick.
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Returns the block that was hit, or the new value of the counter.
+     *
+     * @return The value.
+     */
+    public int getValue() {
+        return this.value;
+    }
+
+    /**
+     * Returns the change of the counter.
+     *
+     * @return The change, or 0 for a hit.
+     */
+    public int getDelta() {
+        return this.delta;
+    }
+
+    /**
+     * Returns the x-coordinate of the ball of a hit.
+     *
+     * @return The x-coordinate, or 0 for a counter change.
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Returns the y-coordinate of the ball of a hit.
+     *
+     * @return The y-coordinate, or 0 for a counter change.
+     */
+    public double getY() {
+        return this.y;
+    }
+}
@@ -0,0 +1,215 @@
+// Karam Ganaiem
+
+package analytics;
+
+import gameLogic.Game;
+import geometry.Ball;
+import geometry.Block;
+import interfaces.AnalyticsHandler;
+import interfaces.CounterListener;
+import interfaces.HitListener;
+import utilities.Counter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logs the hits and counter changes of a game for analytics, without slowing the game down.
+ * The game thread only fills a slot of an analytics.EventRing per event; one thread per handler takes the events
+ * from there, so slow work like writing a file happens off the game loop. If the handlers fall behind, events are
+ * dropped by the policy of the ring, and counted, instead of making the game wait.
+ * Add the handlers, start the pipeline, and then attach it to a game. The ring has a single producer, so all the
+ * games a pipeline is attached to must be played on the same thread, for example one after the other.
+ */
+public class AnalyticsPipeline implements Closeable {
+    private EventRing ring;
+    private List<EventConsumer> consumers;
+    private List<Thread> threads;
+
+    /**
+     * Constructs a pipeline with no handlers.
+     *
+     * @param capacity     The number of events the ring holds, a power of two.
+     * @param policy       EventRing.DROP or EventRing.WAIT, for when the ring is full.
+     * @param maxWaitNanos The most time the game waits for room with the WAIT policy, in nanoseconds.
+     */
+    public AnalyticsPipeline(int capacity, int policy, long maxWaitNanos) {
+        this.ring = new EventRing(capacity, policy, maxWaitNanos);
+        this.consumers = new ArrayList<>();
+        this.threads = new ArrayList<>();
+    }
+
+    /**
+     * Adds a handler, which gets every event on a thread of its own. Call it before start().
+     *
+     * @param handler The handler.
+     */
+    public void addHandler(AnalyticsHandler handler) {
+        if (!this.threads.isEmpty()) {
+            throw new IllegalStateException("The pipeline was already started");
+        }
+        this.consumers.add(new EventConsumer(this.ring, handler));
+    }
+
+    /**
+     * Starts the threads of the handlers.
+     */
+    public void start() {
+        for (int i = 0; i < this.consumers.size(); i++) {
+            Thread thread = new Thread(this.consumers.get(i), "analytics-" + i);
+            thread.setDaemon(true);
+            this.threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Starts logging the hits of the blocks of a game and the changes of its score, blocks left and balls left.
+     * Call it after Game.initialize(), on the game thread. The listeners the counters had are replaced.
+     *
+     * @param target The game.
+     */
+    public void attach(Game target) {
+        Tap tap = new Tap(target);
+        target.addLevelHitListener(tap);
+        target.getScoreCounter().setListener(tap);
+        target.getBlockCounter().setListener(tap);
+        target.getBallCounter().setListener(tap);
+    }
+
+    /**
+     * Returns the ring of the pipeline.
+     *
+     * @return The ring.
+     */
+    public EventRing getRing() {
+        return this.ring;
+    }
+
+    /**
+     * Returns the number of events published so far.
+     *
+     * @return The number of events.
+     */
+    public long getPublished() {
+        return this.ring.getPublished();
+    }
+
+    /**
+     * Returns the number of events dropped so far because the handlers fell behind.
+     *
+     * @return The number of events.
+     */
+    public long getDropped() {
+        return this.ring.getDropped();
+    }
+
+    /**
+     * Stops taking events, waits for the handlers to finish the ones published, and closes the handlers that can
+     * be closed. Call it on the game thread, after the game stopped.
+     *
+     * @throws IOException If a handler failed or fails to close.
+     */
+    @Override
+    public void close() throws IOException {
+        this.ring.close();
+        boolean interrupted = false;
+        for (Thread thread : this.threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        IOException failure = null;
+        for (EventConsumer consumer : this.consumers) {
+            if (consumer.getFailure() != null && failure == null) {
+                failure = new IOException("An analytics handler failed", consumer.getFailure());
+            }
+            if (consumer.getHandler() instanceof Closeable) {
+                try {
+                    ((Closeable) consumer.getHandler()).close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Turns the hits and counter changes of the game into events on the ring.
+     */
+    private class Tap implements HitListener, CounterListener {
+        private final Game game;
+        private final Map<Block, Integer> blockIndexes;
+        private final Counter score;
+        private final Counter blocks;
+        private final Counter balls;
+
+        /**
+         * Constructs a tap for a game.
+         *
+         * @param game The game.
+         */
+        Tap(Game game) {
+            this.game = game;
+            this.blockIndexes = new IdentityHashMap<>();
+            List<Block> levelBlocks = game.getLevelBlocks();
+            for (int i = 0; i < levelBlocks.size(); i++) {
+                this.blockIndexes.put(levelBlocks.get(i), i);
+            }
+            this.score = game.getScoreCounter();
+            this.blocks = game.getBlockCounter();
+            this.balls = game.getBallCounter();
+        }
+
+        /**
+         * Publishes a hit.
+         *
+         * @param beingHit The block that was hit.
+         * @param hitter   The ball that hit it.
+         */
+        @Override
+        public void hitEvent(Block beingHit, Ball hitter) {
+            ring.publish(AnalyticsEvent.HIT, this.game.getTicks(), this.blockIndexes.get(beingHit), 0,
+                    hitter.getCenter().getX(), hitter.getCenter().getY());
+        }
+
+        /**
+         * Publishes a change of the score, the blocks left or the balls left.
+         *
+         * @param counter  The counter.
+         * @param oldValue The value before the change.
+         * @param newValue The value after the change.
+         */
+        @Override
+        public void counterChanged(Counter counter, int oldValue, int newValue) {
+            int type;
+            if (counter == this.score) {
+                type = AnalyticsEvent.SCORE;
+            } else if (counter == this.blocks) {
+                type = AnalyticsEvent.BLOCKS;
+            } else if (counter == this.balls) {
+                type = AnalyticsEvent.BALLS;
+            } else {
+                return;
+            }
+            ring.publish(type, this.game.getTicks(), newValue, newValue - oldValue, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+// Karam Ganaiem
+
+package analytics;
+
+import interfaces.AnalyticsHandler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one handler of an analytics pipeline on a thread of its own, passing it every event of the ring in order.
+ * The consumer takes all the events that are available at once, and moves its sequence only after the batch, so
+ * the producer sees one shared write per batch and not per event. When there is nothing to do it sleeps a little.
+ */
+public class EventConsumer implements Runnable {
+    private static final long IDLE_NANOS = 100_000;
+
+    private EventRing ring;
+    private AnalyticsHandler handler;
+    private AtomicLong sequence;
+    private volatile Throwable failure;
+
+    /**
+     * Constructs a consumer and adds its sequence to the ring. Call it before the first event is published.
+     *
+     * @param ring    The ring.
+     * @param handler The handler.
+     */
+    public EventConsumer(EventRing ring, AnalyticsHandler handler) {
+        this.ring = ring;
+        this.handler = handler;
+        this.sequence = ring.newGate();
+    }
+
+    /**
+     * Passes the events to the handler until the ring is closed and every event was handled.
+     * If the handler fails, the consumer stops and no longer holds the producer back.
+     */
+    @Override
+    public void run() {
+        try {
+            long next = this.sequence.get() + 1;
+            while (true) {
+                long available = this.ring.getCursor();
+                if (available >= next) {
+                    for (long s = next; s <= available; s++) {
+                        this.handler.onEvent(this.ring.get(s), s == available);
+                    }
+                    this.sequence.lazySet(available);
+                    next = available + 1;
+                } else if (this.ring.isClosed()) {
+                    // Events published before the ring was closed are seen by this second look
+                    if (this.ring.getCursor() < next) {
+                        return;
+                    }
+                } else {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            this.failure = e;
+            this.sequence.set(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Returns the handler of the consumer.
+     *
+     * @return The handler.
+     */
+    public AnalyticsHandler getHandler() {
+        return this.handler;
+    }
+
+    /**
+     * Returns the error that stopped the handler.
+     *
+     * @return The error, or null if the handler did not fail.
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+}
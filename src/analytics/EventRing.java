@@ -0,0 +1,207 @@
+// Karam Ganaiem
+
+package analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A ring buffer of analytics events with one producer, the game thread, and any number of consumers, which all see
+ * every event. The slots are made once, up front; the producer fills a slot in place and then publishes it by
+ * moving a cursor, and every consumer moves a sequence of its own as it finishes events. Nothing is locked: the
+ * cursor and the sequences are the only shared writes.
+ * The producer never waits for long. When the slowest consumer is a whole ring behind, the policy decides: DROP
+ * gives up on the event at once, and WAIT spins for a bounded time for room and then gives up. Either way the
+ * event is counted as dropped.
+ */
+public class EventRing {
+    /**
+     * Give up on an event at once when the ring is full.
+     */
+    public static final int DROP = 0;
+
+    /**
+     * Spin for room for a bounded time when the ring is full, and then give up on the event.
+     */
+    public static final int WAIT = 1;
+
+    private final AnalyticsEvent[] slots;
+    private final int mask;
+    private final int policy;
+    private final long maxWaitNanos;
+    private final AtomicLong cursor;     // The last published sequence
+    private volatile AtomicLong[] gates; // The sequences of the consumers
+    private long next;                   // The next sequence to claim, used by the producer only
+    private long cachedGate;             // The slowest consumer sequence the producer saw last
+    private volatile long dropped;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a ring.
+     *
+     * @param capacity     The number of slots, a power of two.
+     * @param policy       DROP or WAIT.
+     * @param maxWaitNanos The most time the producer waits for room with the WAIT policy, in nanoseconds.
+     * @throws IllegalArgumentException If the capacity is not a power of two or the policy is unknown.
+     */
+    public EventRing(int capacity, int policy, long maxWaitNanos) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two, not " + capacity);
+        }
+        if (policy != DROP && policy != WAIT) {
+            throw new IllegalArgumentException("Unknown overflow policy " + policy);
+        }
+        this.slots = new AnalyticsEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = new AnalyticsEvent();
+        }
+        this.mask = capacity - 1;
+        this.policy = policy;
+        this.maxWaitNanos = maxWaitNanos;
+        this.cursor = new AtomicLong(-1);
+        this.gates = new AtomicLong[0];
+        this.cachedGate = -1;
+    }
+
+    /**
+     * Adds the sequence of a consumer, so the producer never overwrites an event the consumer did not finish.
+     * Call it before the first event is published.
+     *
+     * @return The sequence, to be moved by the consumer to the last event it finished.
+     */
+    public synchronized AtomicLong newGate() {
+        AtomicLong gate = new AtomicLong(this.cursor.get());
+        AtomicLong[] grown = new AtomicLong[this.gates.length + 1];
+        System.arraycopy(this.gates, 0, grown, 0, this.gates.length);
+        grown[this.gates.length] = gate;
+        this.gates = grown;
+        return gate;
+    }
+
+    /**
+     * Publishes an event. Called by the producer only.
+     *
+     * @param type  The type of the event.
+     * @param tick  The tick the event happened in.
+     * @param value The value of the event.
+     * @param delta The change of the counter of the event.
+     * @param x     The x-coordinate of the event.
+     * @param y     The y-coordinate of the event.
+     * @return True if the event was published, false if it was dropped because the ring was full.
+     */
+    public boolean publish(int type, long tick, int value, int delta, double x, double y) {
+        long sequence = this.next;
+        if (!hasRoom(sequence)) {
+            this.dropped++;
+            return false;
+        }
+        this.slots[(int) sequence & this.mask].set(type, tick, value, delta, x, y);
+        this.next = sequence + 1;
+        this.cursor.lazySet(sequence);
+        return true;
+    }
+
+    /**
+     * Checks if a sequence can be claimed without overwriting an event a consumer did not finish, waiting for room
+     * if the policy says so.
+     *
+     * @param sequence The sequence.
+     * @return True if there is room, false if the event should be dropped.
+     */
+    private boolean hasRoom(long sequence) {
+        long wrapPoint = sequence - this.slots.length;
+        if (wrapPoint <= this.cachedGate) {
+            return true;
+        }
+        this.cachedGate = slowestGate();
+        if (wrapPoint <= this.cachedGate) {
+            return true;
+        }
+        if (this.policy == DROP) {
+            return false;
+        }
+        long deadline = System.nanoTime() + this.maxWaitNanos;
+        while (wrapPoint > this.cachedGate) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.yield();
+            this.cachedGate = slowestGate();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the sequence of the slowest consumer.
+     *
+     * @return The sequence, or the cursor if there are no consumers.
+     */
+    private long slowestGate() {
+        long slowest = this.cursor.get();
+        for (AtomicLong gate : this.gates) {
+            slowest = Math.min(slowest, gate.get());
+        }
+        return slowest;
+    }
+
+    /**
+     * Returns the event of a published sequence.
+     *
+     * @param sequence The sequence.
+     * @return The event.
+     */
+    public AnalyticsEvent get(long sequence) {
+        return this.slots[(int) sequence & this.mask];
+    }
+
+    /**
+     * Returns the last published sequence.
+     *
+     * @return The sequence, or -1 if nothing was published yet.
+     */
+    public long getCursor() {
+        return this.cursor.get();
+    }
+
+    /**
+     * Marks that no more events will be published, so the consumers stop when they finish the ones left.
+     */
+    public void close() {
+        this.closed = true;
+    }
+
+    /**
+     * Checks if no more events will be published.
+     *
+     * @return True if the ring was closed, false otherwise.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return this.slots.length;
+    }
+
+    /**
+     * Returns the number of events published so far.
+     *
+     * @return The number of events.
+     */
+    public long getPublished() {
+        return this.cursor.get() + 1;
+    }
+
+    /**
+     * Returns the number of events dropped so far because the ring was full.
+     *
+     * @return The number of events.
+     */
+    public long getDropped() {
+        return this.dropped;
+    }
+}
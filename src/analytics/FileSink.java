@@ -0,0 +1,92 @@
+// Karam Ganaiem
+
+package analytics;
+
+import interfaces.AnalyticsHandler;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the events of an analytics pipeline to a file, one line of comma separated values per event:
+ * tick, type, value, delta, x, y. The lines are buffered and written when the buffer fills up or the sink is
+ * closed.
+ * A write that fails stops the sink; the error is thrown when it is closed, and the game goes on either way.
+ */
+public class FileSink implements AnalyticsHandler, Closeable {
+    private BufferedWriter writer;
+    private StringBuilder line;
+    private long lines;
+    private IOException failure;
+
+    /**
+     * Constructs a sink that writes a new file, replacing it if it exists.
+     *
+     * @param path The path of the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public FileSink(Path path) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path),
+                StandardCharsets.UTF_8), 1 << 16);
+        this.line = new StringBuilder(64);
+        this.writer.write("tick,type,value,delta,x,y");
+        this.writer.newLine();
+    }
+
+    /**
+     * Writes the line of an event.
+     *
+     * @param event      The event.
+     * @param endOfBatch True if it is the last event that is available now.
+     */
+    @Override
+    public void onEvent(AnalyticsEvent event, boolean endOfBatch) {
+        if (this.failure != null) {
+            return;
+        }
+        this.line.setLength(0);
+        this.line.append(event.getTick()).append(',').append(AnalyticsEvent.nameOf(event.getType())).append(',')
+                .append(event.getValue()).append(',').append(event.getDelta()).append(',')
+                .append((float) event.getX()).append(',').append((float) event.getY());
+        try {
+            this.writer.append(this.line);
+            this.writer.newLine();
+            this.lines++;
+        } catch (IOException e) {
+            this.failure = e;
+        }
+    }
+
+    /**
+     * Returns the number of lines written, not counting the header.
+     *
+     * @return The number of lines.
+     */
+    public long getLines() {
+        return this.lines;
+    }
+
+    /**
+     * Writes what is left in the buffer and closes the file.
+     *
+     * @throws IOException If a write failed or the file fails to close.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            if (this.failure == null) {
+                this.failure = e;
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import analytics.AnalyticsAggregator;
+import analytics.AnalyticsEvent;
+import analytics.AnalyticsPipeline;
+import analytics.EventRing;
+import analytics.FileSink;
+import gameLogic.GameSession;
+import utilities.FollowBallPolicy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures what the analytics pipeline costs the game thread.
+ * First it plays the same games with and without a pipeline that feeds an aggregator and a file sink. Then it
+ * publishes a long burst of events as fast as it can, far faster than a game makes them, to show how many are
+ * dropped when the handlers fall behind and how long a publish takes.
+ * Run with: java benchmarks.AnalyticsBenchmark [games] [capacity] [drop|wait] [burst]
+ */
+public class AnalyticsBenchmark {
+    private static final long MAX_TICKS = 36_000;
+    private static final long MAX_WAIT_NANOS = 50_000;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of games, the ring capacity, the overflow policy and the burst size, all optional.
+     * @throws IOException If the file sink fails.
+     */
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 12;
+        int policy = args.length > 2 && args[2].equals("wait") ? EventRing.WAIT : EventRing.DROP;
+        int burst = args.length > 3 ? Integer.parseInt(args[3]) : 5_000_000;
+        Path file = Files.createTempFile("analytics", ".csv");
+
+        // Warm up, so the measured games run compiled code
+        playGames(Math.min(games, 20), null);
+        playGames(Math.min(games, 20), newPipeline(capacity, policy, file, new AnalyticsAggregator()));
+
+        long plainNanos = playGames(games, null);
+        AnalyticsAggregator aggregator = new AnalyticsAggregator();
+        AnalyticsPipeline pipeline = newPipeline(capacity, policy, file, aggregator);
+        long loggedNanos = playGames(games, pipeline);
+        System.out.printf("%d games: %.1f ms without analytics, %.1f ms with (%+.1f%%)%n", games, plainNanos / 1e6,
+                loggedNanos / 1e6, (loggedNanos - plainNanos) * 100.0 / plainNanos);
+        System.out.printf("published %d, dropped %d; %s%n", pipeline.getPublished(), pipeline.getDropped(),
+                aggregator);
+
+        AnalyticsAggregator burstAggregator = new AnalyticsAggregator();
+        AnalyticsPipeline burstPipeline = newPipeline(capacity, policy, file, burstAggregator);
+        EventRing ring = burstPipeline.getRing();
+        long start = System.nanoTime();
+        for (int i = 0; i < burst; i++) {
+            ring.publish(AnalyticsEvent.HIT, i, i & 63, 0, i, i);
+        }
+        long burstNanos = System.nanoTime() - start;
+        burstPipeline.close();
+        System.out.printf("burst of %d events, ring of %d, %s: %.1f ns per publish, %d published, %d dropped "
+                        + "(%.1f%%), %d handled%n", burst, capacity, policy == EventRing.WAIT ? "wait" : "drop",
+                (double) burstNanos / burst, ring.getPublished(), ring.getDropped(),
+                ring.getDropped() * 100.0 / burst, burstAggregator.getEvents());
+        Files.delete(file);
+    }
+
+    /**
+     * Makes and starts a pipeline with an aggregator and a file sink.
+     *
+     * @param capacity   The ring capacity.
+     * @param policy     The overflow policy.
+     * @param file       The file of the sink.
+     * @param aggregator The aggregator.
+     * @return The pipeline.
+     * @throws IOException If the file cannot be opened.
+     */
+    private static AnalyticsPipeline newPipeline(int capacity, int policy, Path file, AnalyticsAggregator aggregator)
+            throws IOException {
+        AnalyticsPipeline pipeline = new AnalyticsPipeline(capacity, policy, MAX_WAIT_NANOS);
+        pipeline.addHandler(aggregator);
+        pipeline.addHandler(new FileSink(file));
+        pipeline.start();
+        return pipeline;
+    }
+
+    /**
+     * Plays games one after the other, all logged to the same pipeline if there is one, and closes it.
+     *
+     * @param games    The number of games.
+     * @param pipeline The pipeline, or null to play without analytics.
+     * @return The time the games took, in nanoseconds.
+     * @throws IOException If the pipeline fails.
+     */
+    private static long playGames(int games, AnalyticsPipeline pipeline) throws IOException {
+        long nanos = 0;
+        for (int i = 0; i < games; i++) {
+            GameSession session = new GameSession(new FollowBallPolicy(), MAX_TICKS);
+            if (pipeline != null) {
+                pipeline.attach(session.getGame());
+            }
+            long start = System.nanoTime();
+            session.advance(MAX_TICKS);
+            nanos += System.nanoTime() - start;
+        }
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,150 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import biuoop.DrawSurface;
+import geometry.Block;
+import geometry.Point;
+import geometry.Rectangle;
+import utilities.NullDrawSurface;
+
+import java.awt.Color;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated per frame when drawing a large brick field, with the darker colors computed on
+ * every draw as blocks used to do, and with the colors taken from the shared palette as they do now.
+ * Run with: java benchmarks.ColorAllocationBenchmark [bricks] [frames]
+ */
+public class ColorAllocationBenchmark {
+    private static final int DARKENING_FACTOR = 75;
+
+    /**
+     * A surface that keeps the last color set on it, like the surfaces of the GUI do.
+     * Without it the JIT can see the colors are never used and skip creating them.
+     */
+    private static class ColorKeepingSurface extends NullDrawSurface {
+        private Color color;
+
+        /**
+         * Constructs a surface of the given size.
+         *
+         * @param width  The width of the surface.
+         * @param height The height of the surface.
+         */
+        ColorKeepingSurface(int width, int height) {
+            super(width, height);
+        }
+
+        /**
+         * Keeps the color.
+         *
+         * @param c The color.
+         */
+        @Override
+        public void setColor(Color c) {
+            this.color = c;
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of bricks and the number of measured frames, both optional.
+     */
+    public static void main(String[] args) {
+        int bricks = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        if (threads == null) {
+            System.out.println("This JVM cannot count allocated bytes per thread.");
+            return;
+        }
+
+        Color[] colors = {Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.CYAN, Color.BLUE};
+        Block[] blocks = new Block[bricks];
+        Color[] baseColors = new Color[bricks];
+        for (int i = 0; i < bricks; i++) {
+            baseColors[i] = colors[i % colors.length];
+            blocks[i] = new Block(new Rectangle(new Point((i % 100) * 8, (i / 100) * 4), 8, 4), baseColors[i]);
+        }
+        DrawSurface surface = new ColorKeepingSurface(800, 600);
+
+        // Warm up both paths, so the measured frames run compiled code
+        for (int frame = 0; frame < frames; frame++) {
+            drawComputed(blocks, baseColors, surface);
+            drawPalette(blocks, surface);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int frame = 0; frame < frames; frame++) {
+            drawComputed(blocks, baseColors, surface);
+        }
+        long computed = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int frame = 0; frame < frames; frame++) {
+            drawPalette(blocks, surface);
+        }
+        long palette = threads.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.println(bricks + " bricks, " + frames + " frames");
+        System.out.printf("computed colors: %.1f bytes per frame%n", (double) computed / frames);
+        System.out.printf("shared palette:  %.1f bytes per frame%n", (double) palette / frames);
+    }
+
+    /**
+     * Draws the bricks the way blocks used to, creating a darker color for every brick.
+     *
+     * @param blocks     The bricks.
+     * @param baseColors The color of each brick.
+     * @param surface    The surface to draw on.
+     */
+    private static void drawComputed(Block[] blocks, Color[] baseColors, DrawSurface surface) {
+        for (int i = 0; i < blocks.length; i++) {
+            Color color = baseColors[i];
+            int darkerRed = Math.max(0, color.getRed() - DARKENING_FACTOR);
+            int darkerGreen = Math.max(0, color.getGreen() - DARKENING_FACTOR);
+            int darkerBlue = Math.max(0, color.getBlue() - DARKENING_FACTOR);
+            surface.setColor(new Color(darkerRed, darkerGreen, darkerBlue));
+
+            Rectangle shape = blocks[i].getCollisionRectangle();
+            int x = (int) shape.getUpperLeft().getX();
+            int y = (int) shape.getUpperLeft().getY();
+            surface.fillRectangle(x, y, (int) shape.getWidth(), (int) shape.getHeight());
+            surface.setColor(Color.black);
+            surface.drawRectangle(x, y, (int) shape.getWidth(), (int) shape.getHeight());
+        }
+    }
+
+    /**
+     * Draws the bricks with their own drawOn method, which takes its color from the shared palette.
+     *
+     * @param blocks  The bricks.
+     * @param surface The surface to draw on.
+     */
+    private static void drawPalette(Block[] blocks, DrawSurface surface) {
+        for (Block block : blocks) {
+            block.drawOn(surface);
+        }
+    }
+
+    /**
+     * Returns the thread bean of the JVM if it can count the bytes allocated by a thread.
+     *
+     * @return The thread bean, or null if allocation counting is not supported.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
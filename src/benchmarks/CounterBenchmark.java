@@ -0,0 +1,92 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import utilities.AtomicCounter;
+import utilities.Counter;
+import utilities.StripedCounter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Compares the counters when several threads increase the same counter at once: how many increases per second
+ * they take, and whether any were lost. The plain utilities.Counter is only there to show the lost updates.
+ * Run with: java benchmarks.CounterBenchmark [threads] [increasesPerThread] [rounds]
+ */
+public class CounterBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of threads, the increases per thread and the measured rounds, all optional.
+     * @throws InterruptedException If the benchmark is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int increases = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        System.out.printf("%d threads, %d increases each, %d processors%n", threads, increases,
+                Runtime.getRuntime().availableProcessors());
+
+        measure("Counter", Counter::new, threads, increases, rounds);
+        measure("AtomicCounter", AtomicCounter::new, threads, increases, rounds);
+        measure("StripedCounter", StripedCounter::new, threads, increases, rounds);
+    }
+
+    /**
+     * Measures one kind of counter, after a warm up round, and prints the best round.
+     *
+     * @param name      The name of the counter.
+     * @param counters  Makes a new counter of the kind.
+     * @param threads   The number of threads.
+     * @param increases The increases per thread.
+     * @param rounds    The measured rounds.
+     * @throws InterruptedException If the benchmark is interrupted.
+     */
+    private static void measure(String name, Supplier<Counter> counters, int threads, int increases, int rounds)
+            throws InterruptedException {
+        round(counters.get(), threads, increases);
+        long best = Long.MAX_VALUE;
+        long lost = 0;
+        for (int i = 0; i < rounds; i++) {
+            Counter counter = counters.get();
+            best = Math.min(best, round(counter, threads, increases));
+            lost += (long) threads * increases - counter.getValue();
+        }
+        System.out.printf("%-15s %8.1f M increases/s, %.2f ns each, %d increases lost%n", name,
+                (double) threads * increases * 1e3 / best, (double) best / ((double) threads * increases), lost);
+    }
+
+    /**
+     * Lets all the threads increase the same counter at once.
+     *
+     * @param counter   The counter.
+     * @param threads   The number of threads.
+     * @param increases The increases per thread.
+     * @return The time from the start until the last thread finished, in nanoseconds.
+     * @throws InterruptedException If the benchmark is interrupted.
+     */
+    private static long round(Counter counter, int threads, int increases) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < increases; j++) {
+                    counter.increase(1);
+                }
+            });
+            workers[i].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
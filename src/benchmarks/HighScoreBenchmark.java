@@ -0,0 +1,98 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import gameLogic.GameSession;
+import gameLogic.HighScoreLog;
+import gameLogic.ScoreEntry;
+import gameLogic.SessionHost;
+import gameLogic.SimulationResult;
+import utilities.FollowBallPolicy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the high-score log the way a host of many sessions uses it.
+ * It plays a batch of sessions on a session host and logs their results, then has several threads append results
+ * as fast as they can, and finally opens the log again to check that the scan finds every record and rebuilds the
+ * same leaderboard.
+ * Run with: java benchmarks.HighScoreBenchmark [threads] [recordsPerThread] [forceIntervalMillis]
+ */
+public class HighScoreBenchmark {
+    private static final int TOP_SCORES = 10;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of threads, the records per thread and the force interval, all optional.
+     * @throws Exception If the log fails or the benchmark is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int records = args.length > 1 ? Integer.parseInt(args[1]) : 250_000;
+        long forceMillis = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        Path file = Files.createTempFile("highscores", ".log");
+        Files.delete(file);
+
+        HighScoreLog log = new HighScoreLog(file, TOP_SCORES, forceMillis);
+        List<GameSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            sessions.add(new GameSession(new FollowBallPolicy(), 36_000));
+        }
+        SessionHost host = new SessionHost();
+        for (SimulationResult result : host.runAll(sessions)) {
+            log.record(result.getScore(), result.getTicks());
+        }
+        host.shutdown();
+
+        Thread[] writers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            Random random = new Random(i);
+            writers[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < records; j++) {
+                        log.record(random.nextInt(100_000), random.nextInt(36_000));
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        long nanos = System.nanoTime() - start;
+        List<ScoreEntry> top = log.getTop();
+        long size = log.size();
+        long forces = log.getForces();
+        log.close();
+        System.out.printf("%d threads appended %d records in %.1f ms: %.0f records/s, %d forces every %d ms%n",
+                threads, (long) threads * records, nanos / 1e6, threads * (double) records * 1e9 / nanos, forces,
+                forceMillis);
+
+        start = System.nanoTime();
+        HighScoreLog reopened = new HighScoreLog(file, TOP_SCORES, forceMillis);
+        nanos = System.nanoTime() - start;
+        boolean same = reopened.size() == size && reopened.getTop().size() == top.size();
+        for (int i = 0; same && i < top.size(); i++) {
+            same = reopened.getTop().get(i).getSequence() == top.get(i).getSequence();
+        }
+        System.out.printf("recovered %d of %d records (%d bytes) in %.1f ms, leaderboard %s%n", reopened.size(),
+                size, Files.size(file), nanos / 1e6, same ? "matches" : "DIFFERS");
+        System.out.println("best: " + reopened.getTop().get(0));
+        reopened.close();
+        Files.delete(file);
+        if (!same) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import biuoop.KeyboardSensor;
+import network.GameClient;
+import network.GameServer;
+import network.WorldView;
+import utilities.InputLog;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs a game server on the loopback interface with many simulated clients, and reports how many bytes the
+ * state stream takes per tick per client.
+ * The clients share one thread and one selector. Each one acknowledges every state it gets and moves its paddle
+ * under the lowest ball it sees, so the games last.
+ * Run with: java benchmarks.NetworkBenchmark [clients] [seconds] [tickRate]
+ */
+public class NetworkBenchmark {
+    private static final int LEFT = InputLog.bitOf(KeyboardSensor.LEFT_KEY);
+    private static final int RIGHT = InputLog.bitOf(KeyboardSensor.RIGHT_KEY);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of clients, how long to run, and the ticks per second, all optional.
+     * @throws Exception If the server or a client fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+        double tickRate = args.length > 2 ? Double.parseDouble(args[2]) : 60;
+
+        GameServer server = new GameServer(new InetSocketAddress("127.0.0.1", 0), tickRate);
+        Thread serverThread = new Thread(() -> {
+            try {
+                // Start the games only once everyone is connected
+                while (server.getClientCount() < clientCount) {
+                    server.poll(10);
+                }
+                server.serve(Long.MAX_VALUE);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "server");
+        serverThread.start();
+
+        Selector selector = Selector.open();
+        List<GameClient> clients = new ArrayList<>();
+        for (int i = 0; i < clientCount; i++) {
+            GameClient client = GameClient.connect(new InetSocketAddress("127.0.0.1", server.getPort()));
+            client.getChannel().register(selector, SelectionKey.OP_READ, client);
+            clients.add(client);
+        }
+
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        while (System.nanoTime() < end) {
+            selector.select(5);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                GameClient client = (GameClient) key.attachment();
+                if (client.read() > 0) {
+                    client.sendInput(chooseKeys(client));
+                }
+            }
+        }
+        server.stop();
+        serverThread.join();
+
+        long received = 0;
+        long states = 0;
+        for (GameClient client : clients) {
+            received += client.getBytesReceived();
+            states += client.getStatesReceived();
+            client.close();
+        }
+        long ticks = server.getTicks();
+        System.out.printf("%d clients, %d ticks at %.0f ticks/s%n", clientCount, ticks, tickRate);
+        System.out.printf("states sent: %d (%d full, %d skipped for slow clients), received: %d%n",
+                server.getStatesSent(), server.getFullStatesSent(), server.getStatesSkipped(), states);
+        System.out.printf("bytes sent: %d, %.1f bytes per state, %.1f bytes per tick per client%n",
+                server.getBytesSent(), (double) server.getBytesSent() / server.getStatesSent(),
+                (double) server.getBytesSent() / ((double) ticks * clientCount));
+        System.out.printf("bytes received by the clients: %d%n", received);
+        server.close();
+        selector.close();
+    }
+
+    /**
+     * Chooses the keys of a simulated player: move the paddle under the lowest ball.
+     *
+     * @param client The client.
+     * @return The bits of the keys to hold down.
+     */
+    private static int chooseKeys(GameClient client) {
+        WorldView view = client.getView();
+        int lowest = -1;
+        for (int i = 0; i < view.getBallCount(); i++) {
+            if (view.isBallAlive(i) && (lowest < 0 || view.getBallY(i) > view.getBallY(lowest))) {
+                lowest = i;
+            }
+        }
+        if (lowest < 0) {
+            return 0;
+        }
+        float offset = view.getBallX(lowest) - (view.getPaddleX() + client.getLayout().getPaddleWidth() / 2f);
+        if (offset < -7) {
+            return LEFT;
+        }
+        return offset > 7 ? RIGHT : 0;
+    }
+}
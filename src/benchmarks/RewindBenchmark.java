@@ -0,0 +1,81 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import gameLogic.Game;
+import gameLogic.GameSession;
+import gameLogic.RewindBuffer;
+import utilities.FollowBallPolicy;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the cost of the rewind buffer: the time and the bytes allocated to capture one tick, and the time to
+ * go back a number of ticks.
+ * Run with: java benchmarks.RewindBenchmark [capacity] [captures]
+ */
+public class RewindBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of ticks kept and the number of measured captures, both optional.
+     */
+    public static void main(String[] args) {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+        int captures = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        GameSession session = new GameSession(new FollowBallPolicy(), Long.MAX_VALUE);
+        Game game = session.getGame();
+        game.enableRewind(capacity);
+        session.advance(capacity * 2);
+        RewindBuffer buffer = new RewindBuffer(capacity, game.getLevelBlocks().size(), game.getLevelBalls().size(),
+                game.getPaddles().size());
+
+        // Warm up, so the measured captures run compiled code
+        for (int i = 0; i < captures / 10; i++) {
+            buffer.record(game);
+        }
+
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads == null ? 0 : threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < captures; i++) {
+            buffer.record(game);
+        }
+        long captureNanos = System.nanoTime() - start;
+        long allocated = threads == null ? -1 : threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Go back the whole buffer and play it again, many times
+        int rewinds = 200;
+        long rewindNanos = 0;
+        for (int i = 0; i < rewinds; i++) {
+            long before = System.nanoTime();
+            game.rewind(capacity - 1);
+            rewindNanos += System.nanoTime() - before;
+            session.advance(capacity - 1);
+        }
+
+        System.out.printf("%d ticks kept, %d captures%n", capacity, captures);
+        System.out.printf("capture: %.2f us per tick, %s bytes allocated per tick%n", captureNanos / 1e3 / captures,
+                allocated < 0 ? "unknown" : String.format("%.2f", (double) allocated / captures));
+        System.out.printf("rewind of %d ticks: %.2f us%n", capacity - 1, rewindNanos / 1e3 / rewinds);
+    }
+
+    /**
+     * Returns the thread bean of the JVM if it can count the bytes allocated by a thread.
+     *
+     * @return The thread bean, or null if allocation counting is not supported.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
@@ -0,0 +1,114 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import biuoop.KeyboardSensor;
+import interfaces.InputPolicy;
+import network.RollbackPeer;
+import utilities.FollowBallPolicy;
+import utilities.InputLog;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays a two player game between two rollback peers over the loopback interface, with every message held back
+ * for a while as if the peers were far apart, and reports how often and how deep the peers rolled back.
+ * Each peer runs on its own thread at a fixed tick rate, and moves its paddle under the lowest ball it sees.
+ * At the end both peers heard all the keys, so their games must hash the same.
+ * Run with: java benchmarks.RollbackBenchmark [latencyMs] [ticks] [tickRate] [window]
+ */
+public class RollbackBenchmark {
+    private static final int LEFT = InputLog.bitOf(KeyboardSensor.LEFT_KEY);
+    private static final int RIGHT = InputLog.bitOf(KeyboardSensor.RIGHT_KEY);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The latency, the number of ticks, the ticks per second and the rollback window, all optional.
+     * @throws Exception If a peer fails.
+     */
+    public static void main(String[] args) throws Exception {
+        double latencyMs = args.length > 0 ? Double.parseDouble(args[0]) : 50;
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 600;
+        double tickRate = args.length > 2 ? Double.parseDouble(args[2]) : 60;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("127.0.0.1", 0));
+        SocketChannel first = SocketChannel.open(server.getLocalAddress());
+        SocketChannel second = server.accept();
+        server.close();
+        for (SocketChannel channel : new SocketChannel[] {first, second}) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+        }
+
+        long latencyNanos = (long) (latencyMs * 1e6);
+        RollbackPeer[] peers = {
+                new RollbackPeer(0, first, latencyNanos, window, ticks),
+                new RollbackPeer(1, second, latencyNanos, window, ticks)
+        };
+        long tickNanos = (long) (1e9 / tickRate);
+        CountDownLatch finished = new CountDownLatch(2);
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < 2; i++) {
+            RollbackPeer peer = peers[i];
+            threads[i] = new Thread(() -> play(peer, tickNanos, finished), "peer-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("%.0f ms latency, %d ticks at %.0f ticks/s, window of %d ticks%n", latencyMs, ticks,
+                tickRate, window);
+        for (RollbackPeer peer : peers) {
+            System.out.printf("peer %d: %s, %d bytes sent%n", peer.getPlayer(), peer.getMetrics(),
+                    peer.getBytesSent());
+        }
+        int hash0 = peers[0].getGame().getStateHash();
+        int hash1 = peers[1].getGame().getStateHash();
+        System.out.printf("final tick %d / %d, state hashes %08x / %08x: %s%n", peers[0].getGame().getTicks(),
+                peers[1].getGame().getTicks(), hash0, hash1, hash0 == hash1 ? "in sync" : "OUT OF SYNC");
+        for (RollbackPeer peer : peers) {
+            peer.close();
+        }
+        if (hash0 != hash1) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a peer at a fixed rate until both peers finished. A peer that finished goes on sending what it still
+     * holds back, until the other one finished too.
+     *
+     * @param peer      The peer.
+     * @param tickNanos The time between frames, in nanoseconds.
+     * @param finished  Counted down once by every peer when it finishes.
+     */
+    private static void play(RollbackPeer peer, long tickNanos, CountDownLatch finished) {
+        InputPolicy policy = new FollowBallPolicy(peer.getPlayer());
+        boolean done = false;
+        long next = System.nanoTime();
+        try {
+            while (finished.getCount() > 0) {
+                int direction = policy.chooseDirection(peer.getGame(), peer.getGame().getTicks());
+                peer.advance(direction == InputPolicy.LEFT ? LEFT : direction == InputPolicy.RIGHT ? RIGHT : 0);
+                if (!done && peer.isFinished()) {
+                    done = true;
+                    finished.countDown();
+                }
+                next += tickNanos;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
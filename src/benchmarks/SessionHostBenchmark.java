@@ -0,0 +1,68 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import gameLogic.GameSession;
+import gameLogic.SessionHost;
+import utilities.FollowBallPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays growing numbers of game sessions at once on a session host, and reports the total steps played per
+ * second (sessions times ticks per second) for each number of sessions.
+ * Run with: java benchmarks.SessionHostBenchmark [threads] [ticksPerSession] [maxSessions]
+ */
+public class SessionHostBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of worker threads, the steps per session, and the most sessions, all optional.
+     * @throws InterruptedException If the benchmark is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 3_600;
+        int maxSessions = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+
+        SessionHost host = new SessionHost(threads);
+        FollowBallPolicy policy = new FollowBallPolicy();
+
+        // Warm up, so the measured sessions run compiled code
+        host.runAll(createSessions(64, policy, ticks));
+
+        System.out.printf("%d worker threads, up to %d steps per session%n", threads, ticks);
+        System.out.println("sessions    total ticks/s    ticks/s per session");
+        for (int sessions = 1; sessions <= maxSessions; sessions *= 4) {
+            List<GameSession> batch = createSessions(sessions, policy, ticks);
+            long start = System.nanoTime();
+            host.runAll(batch);
+            long nanos = System.nanoTime() - start;
+
+            long played = 0;
+            for (GameSession session : batch) {
+                played += session.getTicks();
+            }
+            double perSecond = played * 1e9 / nanos;
+            System.out.printf("%8d %16.0f %22.0f%n", sessions, perSecond, perSecond / sessions);
+        }
+        host.shutdown();
+    }
+
+    /**
+     * Creates new sessions.
+     *
+     * @param count  The number of sessions.
+     * @param policy The policy that moves the paddles.
+     * @param ticks  The most steps per session.
+     * @return The sessions.
+     */
+    private static List<GameSession> createSessions(int count, FollowBallPolicy policy, long ticks) {
+        List<GameSession> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sessions.add(new GameSession(policy, ticks));
+        }
+        return sessions;
+    }
+}
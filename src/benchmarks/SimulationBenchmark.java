@@ -0,0 +1,47 @@
+// Karam Ganaiem
+
+package benchmarks;
+
+import gameLogic.Simulation;
+import gameLogic.SimulationResult;
+import utilities.FollowBallPolicy;
+
+/**
+ * Plays many games in a row with the batch simulation, and reports how fast they ran and how they ended.
+ * Run with: java benchmarks.SimulationBenchmark [games] [maxTicks]
+ */
+public class SimulationBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of games and the most steps per game, both optional.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long maxTicks = args.length > 1 ? Long.parseLong(args[1]) : 36_000; // Ten minutes of play at 60 steps/s
+
+        Simulation simulation = new Simulation(new FollowBallPolicy(), maxTicks);
+
+        // Warm up, so the measured games run compiled code
+        for (int i = 0; i < Math.min(games, 20); i++) {
+            simulation.run();
+        }
+
+        long ticks = 0;
+        long scores = 0;
+        long start = System.nanoTime();
+        SimulationResult last = null;
+        for (int i = 0; i < games; i++) {
+            last = simulation.run();
+            ticks += last.getTicks();
+            scores += last.getScore();
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("%d games in %.1f s: %.0f games/min, %.0f ticks/s, average score %.1f%n",
+                games, nanos / 1e9, games * 60e9 / nanos, ticks * 1e9 / nanos, (double) scores / games);
+        if (last != null) {
+            System.out.println("Last game: " + last);
+        }
+    }
+}
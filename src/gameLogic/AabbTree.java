@@ -0,0 +1,414 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import geometry.Rectangle;
+import interfaces.BroadPhase;
+import interfaces.Collidable;
+import utilities.CandidateCache;
+import utilities.RayHit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The gameLogic.AabbTree class is a broad phase that keeps the collidables in a dynamic bounding volume tree.
+ * Every leaf holds one collidable, and every inner node holds the box that bounds both of its children,
+ * so collidables of very different sizes can live in the same tree.
+ * A collidable that moves is refit in place: its leaf gets the new box and only its ancestors are updated.
+ * After a change, every ancestor whose children differ in height by more than one is rotated, so the tree stays
+ * balanced whatever the order the collidables were added in, and far subtrees are skipped early.
+ */
+public class AabbTree implements BroadPhase {
+    /**
+     * Extra space around each box, so trajectories that touch a box exactly are not pruned.
+     */
+    private static final double PADDING = 1e-7;
+
+    private Node root;
+    private Map<Collidable, Node> leaves;
+    private int nextOrder;
+
+    /**
+     * A node of the tree. Leaves have a collidable and no children.
+     */
+    private static class Node {
+        private double minX;
+        private double minY;
+        private double maxX;
+        private double maxY;
+        private Node parent;
+        private Node left;
+        private Node right;
+        private Collidable collidable;
+        private int order;
+        private int height; // 0 for a leaf
+
+        /**
+         * Checks if this node is a leaf.
+         *
+         * @return True if the node holds a collidable, false otherwise.
+         */
+        private boolean isLeaf() {
+            return this.left == null;
+        }
+
+        /**
+         * Sets the box of this node to the box that bounds both of its children.
+         */
+        private void fitChildren() {
+            this.minX = Math.min(this.left.minX, this.right.minX);
+            this.minY = Math.min(this.left.minY, this.right.minY);
+            this.maxX = Math.max(this.left.maxX, this.right.maxX);
+            this.maxY = Math.max(this.left.maxY, this.right.maxY);
+            this.height = 1 + Math.max(this.left.height, this.right.height);
+        }
+
+        /**
+         * Sets the box of this leaf to the current collision rectangle of its collidable.
+         */
+        private void fitCollidable() {
+            Rectangle rectangle = this.collidable.getCollisionRectangle();
+            this.minX = rectangle.getUpperLeft().getX() - PADDING;
+            this.minY = rectangle.getUpperLeft().getY() - PADDING;
+            this.maxX = rectangle.getUpperLeft().getX() + rectangle.getWidth() + PADDING;
+            this.maxY = rectangle.getUpperLeft().getY() + rectangle.getHeight() + PADDING;
+        }
+    }
+
+    /**
+     * Constructs an empty tree.
+     */
+    public AabbTree() {
+        this.leaves = new HashMap<>();
+    }
+
+    /**
+     * Adds a collidable to the tree, next to the subtree whose box grows the least.
+     *
+     * @param collidable The collidable to be added.
+     */
+    @Override
+    public void add(Collidable collidable) {
+        Node leaf = new Node();
+        leaf.collidable = collidable;
+        leaf.order = this.nextOrder++;
+        leaf.fitCollidable();
+        this.leaves.put(collidable, leaf);
+
+        if (this.root == null) {
+            this.root = leaf;
+            return;
+        }
+
+        // Walk down to the best sibling for the new leaf
+        Node sibling = this.root;
+        while (!sibling.isLeaf()) {
+            double leftCost = growth(sibling.left, leaf);
+            double rightCost = growth(sibling.right, leaf);
+            sibling = leftCost <= rightCost ? sibling.left : sibling.right;
+        }
+
+        // Put a new parent in the place of the sibling
+        Node parent = new Node();
+        parent.parent = sibling.parent;
+        parent.left = sibling;
+        parent.right = leaf;
+        if (sibling.parent == null) {
+            this.root = parent;
+        } else if (sibling.parent.left == sibling) {
+            sibling.parent.left = parent;
+        } else {
+            sibling.parent.right = parent;
+        }
+        sibling.parent = parent;
+        leaf.parent = parent;
+        refit(parent);
+    }
+
+    /**
+     * Removes a collidable from the tree. Its sibling takes the place of their parent.
+     *
+     * @param collidable The collidable to be removed.
+     */
+    @Override
+    public void remove(Collidable collidable) {
+        Node leaf = this.leaves.remove(collidable);
+        if (leaf == null) {
+            return;
+        }
+        Node parent = leaf.parent;
+        if (parent == null) {
+            this.root = null;
+            return;
+        }
+
+        Node sibling = parent.left == leaf ? parent.right : parent.left;
+        Node grandParent = parent.parent;
+        sibling.parent = grandParent;
+        if (grandParent == null) {
+            this.root = sibling;
+        } else {
+            if (grandParent.left == parent) {
+                grandParent.left = sibling;
+            } else {
+                grandParent.right = sibling;
+            }
+            refit(grandParent);
+        }
+    }
+
+    /**
+     * Refits the leaf of a moved collidable in place, and then the boxes of its ancestors.
+     *
+     * @param collidable The collidable that moved.
+     */
+    @Override
+    public void update(Collidable collidable) {
+        Node leaf = this.leaves.get(collidable);
+        if (leaf != null) {
+            leaf.fitCollidable();
+            refit(leaf.parent);
+        }
+    }
+
+    /**
+     * Checks if the index refits a moved collidable in place.
+     * The tree refits the leaf and its ancestors, so it can hold collidables that move.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean refitsInPlace() {
+        return true;
+    }
+
+    /**
+     * Finds the closest collision of a circle moving from (x0, y0) to (x0 + dx, y0 + dy), without creating objects.
+     * Subtrees whose box, grown by the radius, is entered later than the best hit so far are skipped.
+     *
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @param hit    The closest hit so far, filled with a closer collision if one is found.
+     * @return True if a collision was found, false otherwise.
+     */
+    @Override
+    public boolean closestHit(double x0, double y0, double dx, double dy, double radius, RayHit hit) {
+        if (this.root != null && isCloser(entryTime(this.root, x0, y0, dx, dy, radius), hit)) {
+            search(this.root, x0, y0, dx, dy, radius, hit);
+        }
+        return hit.isHit();
+    }
+
+    /**
+     * Adds every collidable whose box overlaps the given box to the cache.
+     *
+     * @param minX  The left edge of the box.
+     * @param minY  The upper edge of the box.
+     * @param maxX  The right edge of the box.
+     * @param maxY  The lower edge of the box.
+     * @param cache The cache to fill.
+     */
+    @Override
+    public void collectOverlapping(double minX, double minY, double maxX, double maxY, CandidateCache cache) {
+        if (this.root != null) {
+            collect(this.root, minX, minY, maxX, maxY, cache);
+        }
+    }
+
+    /**
+     * Adds the collidables of a subtree whose boxes overlap the given box to the cache.
+     *
+     * @param node  The root of the subtree.
+     * @param minX  The left edge of the box.
+     * @param minY  The upper edge of the box.
+     * @param maxX  The right edge of the box.
+     * @param maxY  The lower edge of the box.
+     * @param cache The cache to fill.
+     */
+    private static void collect(Node node, double minX, double minY, double maxX, double maxY, CandidateCache cache) {
+        if (node.minX > maxX || node.maxX < minX || node.minY > maxY || node.maxY < minY) {
+            return;
+        }
+        if (node.isLeaf()) {
+            cache.add(node.collidable, node.order);
+            return;
+        }
+        collect(node.left, minX, minY, maxX, maxY, cache);
+        collect(node.right, minX, minY, maxX, maxY, cache);
+    }
+
+    /**
+     * Searches a subtree for hits closer than the best one found so far, nearer child first.
+     *
+     * @param node   The root of the subtree, already known to be on the segment.
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @param hit    The closest hit so far.
+     */
+    private static void search(Node node, double x0, double y0, double dx, double dy, double radius, RayHit hit) {
+        if (node.isLeaf()) {
+            Rectangle rectangle = node.collidable.getCollisionRectangle();
+            if (rectangle.sweepCircle(x0, y0, dx, dy, radius, node.order < hit.getOrder(), hit)) {
+                hit.setCollidable(node.collidable, node.order);
+            }
+            return;
+        }
+
+        double leftEntry = entryTime(node.left, x0, y0, dx, dy, radius);
+        double rightEntry = entryTime(node.right, x0, y0, dx, dy, radius);
+        if (rightEntry < leftEntry) {
+            if (isCloser(rightEntry, hit)) {
+                search(node.right, x0, y0, dx, dy, radius, hit);
+            }
+            if (isCloser(leftEntry, hit)) {
+                search(node.left, x0, y0, dx, dy, radius, hit);
+            }
+        } else {
+            if (isCloser(leftEntry, hit)) {
+                search(node.left, x0, y0, dx, dy, radius, hit);
+            }
+            if (isCloser(rightEntry, hit)) {
+                search(node.right, x0, y0, dx, dy, radius, hit);
+            }
+        }
+    }
+
+    /**
+     * Checks if a box entered at the given time may hold a hit closer than the best one so far.
+     *
+     * @param entry The time at which the segment enters the box, or infinity if it misses it.
+     * @param hit   The closest hit so far.
+     * @return True if the box has to be searched, false otherwise.
+     */
+    private static boolean isCloser(double entry, RayHit hit) {
+        return entry <= 1 && entry <= hit.getTime();
+    }
+
+    /**
+     * Returns the time at which the segment enters the box of a node, grown by the given radius.
+     *
+     * @param node   The node to check.
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @return The fraction of the segment before the box, 0 if it starts inside, or infinity if it misses the box.
+     */
+    private static double entryTime(Node node, double x0, double y0, double dx, double dy, double radius) {
+        double minX = node.minX - radius;
+        double minY = node.minY - radius;
+        double maxX = node.maxX + radius;
+        double maxY = node.maxY + radius;
+        double enter = 0;
+        double exit = 1;
+        if (dx == 0) {
+            if (x0 < minX || x0 > maxX) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (minX - x0) / dx;
+            double t2 = (maxX - x0) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (y0 < minY || y0 > maxY) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (minY - y0) / dy;
+            double t2 = (maxY - y0) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return enter <= exit ? enter : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns how much the perimeter of a node's box grows when a leaf is added under it.
+     *
+     * @param node The candidate node.
+     * @param leaf The leaf being added.
+     * @return The growth of the perimeter.
+     */
+    private static double growth(Node node, Node leaf) {
+        double width = Math.max(node.maxX, leaf.maxX) - Math.min(node.minX, leaf.minX);
+        double height = Math.max(node.maxY, leaf.maxY) - Math.min(node.minY, leaf.minY);
+        return (width + height) - ((node.maxX - node.minX) + (node.maxY - node.minY));
+    }
+
+    /**
+     * Refits the boxes of a node and all of its ancestors, balancing each of them on the way up.
+     *
+     * @param node The first node to refit, may be null.
+     */
+    private void refit(Node node) {
+        while (node != null) {
+            node = balance(node);
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Rotates the taller child of a node up in its place if the children differ in height by more than one.
+     *
+     * @param node An inner node whose children are fitted.
+     * @return The node now in the place of the given one, fitted.
+     */
+    private Node balance(Node node) {
+        node.fitChildren();
+        if (node.right.height - node.left.height > 1) {
+            return rotateUp(node, node.right);
+        }
+        if (node.left.height - node.right.height > 1) {
+            return rotateUp(node, node.left);
+        }
+        return node;
+    }
+
+    /**
+     * Moves a child up in the place of its parent. The parent becomes a child of it, and takes the shorter of its
+     * two children, so the taller one stays one level higher.
+     *
+     * @param node  The parent.
+     * @param child The taller child of the parent, an inner node.
+     * @return The child, now in the place of the parent.
+     */
+    private Node rotateUp(Node node, Node child) {
+        Node taller = child.left.height > child.right.height ? child.left : child.right;
+        Node shorter = taller == child.left ? child.right : child.left;
+
+        // The child takes the place of the parent
+        child.parent = node.parent;
+        if (node.parent == null) {
+            this.root = child;
+        } else if (node.parent.left == node) {
+            node.parent.left = child;
+        } else {
+            node.parent.right = child;
+        }
+
+        // The parent takes the shorter grandchild in the place of the child
+        if (node.left == child) {
+            node.left = shorter;
+        } else {
+            node.right = shorter;
+        }
+        shorter.parent = node;
+        child.left = node;
+        child.right = taller;
+        node.parent = child;
+
+        node.fitChildren();
+        child.fitChildren();
+        return child;
+    }
+}
@@ -35,12 +35,17 @@ public class BallRemover implements HitListener {
 
     /**
      * Removes the ball from the game when it hits a block and updates the remaining balls count.
+     * A ball that hit more than one such block in a tick is removed and counted once.
      *
      * @param beingHit The block being hit.
      * @param hitter   The ball that hit the block.
      */
     @Override
     public void hitEvent(Block beingHit, Ball hitter) {
+        if (!game.hasBall(hitter)) {
+            return;
+        }
+
         // Remove the ball from the game
         hitter.removeFromGame(game);
 
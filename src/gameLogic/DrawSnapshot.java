@@ -0,0 +1,380 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * The gameLogic.DrawSnapshot class records everything drawn on it during one frame, so the frame can be drawn
+ * later on another surface, from another thread. Drawing only writes numbers and references into arrays that
+ * are reused from frame to frame. Colors and strings never change once created, and polygons are copied,
+ * so a recorded frame does not depend on the sprites that drew it.
+ */
+public class DrawSnapshot implements DrawSurface {
+    private static final int SET_COLOR = 0;
+    private static final int DRAW_LINE = 1;
+    private static final int DRAW_OVAL = 2;
+    private static final int FILL_OVAL = 3;
+    private static final int DRAW_RECTANGLE = 4;
+    private static final int FILL_RECTANGLE = 5;
+    private static final int DRAW_IMAGE = 6;
+    private static final int DRAW_CIRCLE = 7;
+    private static final int FILL_CIRCLE = 8;
+    private static final int DRAW_TEXT = 9;
+    private static final int DRAW_POLYGON = 10;
+    private static final int FILL_POLYGON = 11;
+
+    private int width;
+    private int height;
+    private int[] commands;
+    private int commandCount;
+    private int[] numbers;     // The number arguments of all the commands, in order
+    private int numberCount;
+    private Object[] objects;  // The color, image, text or polygon arguments of all the commands, in order
+    private int objectCount;
+
+    /**
+     * Constructs an empty snapshot of a surface of the given size.
+     *
+     * @param width  The width of the surface.
+     * @param height The height of the surface.
+     */
+    public DrawSnapshot(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.commands = new int[256];
+        this.numbers = new int[1024];
+        this.objects = new Object[256];
+    }
+
+    /**
+     * Forgets the recorded frame, so a new one can be recorded.
+     */
+    public void clear() {
+        for (int i = 0; i < this.objectCount; i++) {
+            this.objects[i] = null;
+        }
+        this.commandCount = 0;
+        this.numberCount = 0;
+        this.objectCount = 0;
+    }
+
+    /**
+     * Draws the recorded frame on another surface.
+     *
+     * @param d The surface to draw on.
+     */
+    public void replay(DrawSurface d) {
+        int n = 0;
+        int o = 0;
+        for (int i = 0; i < this.commandCount; i++) {
+            switch (this.commands[i]) {
+                case SET_COLOR:
+                    d.setColor((Color) this.objects[o++]);
+                    break;
+                case DRAW_LINE:
+                    d.drawLine(this.numbers[n], this.numbers[n + 1], this.numbers[n + 2], this.numbers[n + 3]);
+                    n += 4;
+                    break;
+                case DRAW_OVAL:
+                    d.drawOval(this.numbers[n], this.numbers[n + 1], this.numbers[n + 2], this.numbers[n + 3]);
+                    n += 4;
+                    break;
+                case FILL_OVAL:
+                    d.fillOval(this.numbers[n], this.numbers[n + 1], this.numbers[n + 2], this.numbers[n + 3]);
+                    n += 4;
+                    break;
+                case DRAW_RECTANGLE:
+                    d.drawRectangle(this.numbers[n], this.numbers[n + 1], this.numbers[n + 2], this.numbers[n + 3]);
+                    n += 4;
+                    break;
+                case FILL_RECTANGLE:
+                    d.fillRectangle(this.numbers[n], this.numbers[n + 1], this.numbers[n + 2], this.numbers[n + 3]);
+                    n += 4;
+                    break;
+                case DRAW_IMAGE:
+                    d.drawImage(this.numbers[n], this.numbers[n + 1], (Image) this.objects[o++]);
+                    n += 2;
+                    break;
+                case DRAW_CIRCLE:
+                    d.drawCircle(this.numbers[n], this.numbers[n + 1], this.numbers[n + 2]);
+                    n += 3;
+                    break;
+                case FILL_CIRCLE:
+                    d.fillCircle(this.numbers[n], this.numbers[n + 1], this.numbers[n + 2]);
+                    n += 3;
+                    break;
+                case DRAW_TEXT:
+                    d.drawText(this.numbers[n], this.numbers[n + 1], (String) this.objects[o++], this.numbers[n + 2]);
+                    n += 3;
+                    break;
+                case DRAW_POLYGON:
+                    d.drawPolygon((Polygon) this.objects[o++]);
+                    break;
+                case FILL_POLYGON:
+                    d.fillPolygon((Polygon) this.objects[o++]);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown draw command " + this.commands[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the width of the surface.
+     *
+     * @return The width in pixels.
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the height of the surface.
+     *
+     * @return The height in pixels.
+     */
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Records a change of color.
+     *
+     * @param color The color.
+     */
+    @Override
+    public void setColor(Color color) {
+        addCommand(SET_COLOR);
+        addObject(color);
+    }
+
+    /**
+     * Records a line.
+     *
+     * @param x1 The x-coordinate of the start.
+     * @param y1 The y-coordinate of the start.
+     * @param x2 The x-coordinate of the end.
+     * @param y2 The y-coordinate of the end.
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        addCommand(DRAW_LINE);
+        int n = reserveNumbers(4);
+        this.numbers[n] = x1;
+        this.numbers[n + 1] = y1;
+        this.numbers[n + 2] = x2;
+        this.numbers[n + 3] = y2;
+    }
+
+    /**
+     * Records the outline of an oval.
+     *
+     * @param x The x-coordinate of the upper left corner.
+     * @param y The y-coordinate of the upper left corner.
+     * @param w The width of the oval.
+     * @param h The height of the oval.
+     */
+    @Override
+    public void drawOval(int x, int y, int w, int h) {
+        addCommand(DRAW_OVAL);
+        int n = reserveNumbers(4);
+        this.numbers[n] = x;
+        this.numbers[n + 1] = y;
+        this.numbers[n + 2] = w;
+        this.numbers[n + 3] = h;
+    }
+
+    /**
+     * Records a filled oval.
+     *
+     * @param x The x-coordinate of the upper left corner.
+     * @param y The y-coordinate of the upper left corner.
+     * @param w The width of the oval.
+     * @param h The height of the oval.
+     */
+    @Override
+    public void fillOval(int x, int y, int w, int h) {
+        addCommand(FILL_OVAL);
+        int n = reserveNumbers(4);
+        this.numbers[n] = x;
+        this.numbers[n + 1] = y;
+        this.numbers[n + 2] = w;
+        this.numbers[n + 3] = h;
+    }
+
+    /**
+     * Records the outline of a rectangle.
+     *
+     * @param x The x-coordinate of the upper left corner.
+     * @param y The y-coordinate of the upper left corner.
+     * @param w The width of the rectangle.
+     * @param h The height of the rectangle.
+     */
+    @Override
+    public void drawRectangle(int x, int y, int w, int h) {
+        addCommand(DRAW_RECTANGLE);
+        int n = reserveNumbers(4);
+        this.numbers[n] = x;
+        this.numbers[n + 1] = y;
+        this.numbers[n + 2] = w;
+        this.numbers[n + 3] = h;
+    }
+
+    /**
+     * Records a filled rectangle.
+     *
+     * @param x The x-coordinate of the upper left corner.
+     * @param y The y-coordinate of the upper left corner.
+     * @param w The width of the rectangle.
+     * @param h The height of the rectangle.
+     */
+    @Override
+    public void fillRectangle(int x, int y, int w, int h) {
+        addCommand(FILL_RECTANGLE);
+        int n = reserveNumbers(4);
+        this.numbers[n] = x;
+        this.numbers[n + 1] = y;
+        this.numbers[n + 2] = w;
+        this.numbers[n + 3] = h;
+    }
+
+    /**
+     * Records an image. The image itself is not copied, so it should not change after it is drawn.
+     *
+     * @param x   The x-coordinate of the upper left corner.
+     * @param y   The y-coordinate of the upper left corner.
+     * @param img The image.
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        addCommand(DRAW_IMAGE);
+        int n = reserveNumbers(2);
+        this.numbers[n] = x;
+        this.numbers[n + 1] = y;
+        addObject(img);
+    }
+
+    /**
+     * Records the outline of a circle.
+     *
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param r The radius.
+     */
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        addCommand(DRAW_CIRCLE);
+        int n = reserveNumbers(3);
+        this.numbers[n] = x;
+        this.numbers[n + 1] = y;
+        this.numbers[n + 2] = r;
+    }
+
+    /**
+     * Records a filled circle.
+     *
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param r The radius.
+     */
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        addCommand(FILL_CIRCLE);
+        int n = reserveNumbers(3);
+        this.numbers[n] = x;
+        this.numbers[n + 1] = y;
+        this.numbers[n + 2] = r;
+    }
+
+    /**
+     * Records a line of text.
+     *
+     * @param x        The x-coordinate of the start of the baseline.
+     * @param y        The y-coordinate of the baseline.
+     * @param text     The text.
+     * @param fontSize The size of the font.
+     */
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        addCommand(DRAW_TEXT);
+        int n = reserveNumbers(3);
+        this.numbers[n] = x;
+        this.numbers[n + 1] = y;
+        this.numbers[n + 2] = fontSize;
+        addObject(text);
+    }
+
+    /**
+     * Records the outline of a copy of a polygon.
+     *
+     * @param p The polygon.
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        addCommand(DRAW_POLYGON);
+        addObject(new Polygon(p.xpoints, p.ypoints, p.npoints));
+    }
+
+    /**
+     * Records a filled copy of a polygon.
+     *
+     * @param p The polygon.
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        addCommand(FILL_POLYGON);
+        addObject(new Polygon(p.xpoints, p.ypoints, p.npoints));
+    }
+
+    /**
+     * Appends a command, growing the array if needed.
+     *
+     * @param command The command code.
+     */
+    private void addCommand(int command) {
+        if (this.commandCount == this.commands.length) {
+            int[] grown = new int[this.commandCount * 2];
+            System.arraycopy(this.commands, 0, grown, 0, this.commandCount);
+            this.commands = grown;
+        }
+        this.commands[this.commandCount++] = command;
+    }
+
+    /**
+     * Makes room for the number arguments of a command, growing the array if needed.
+     *
+     * @param count The number of arguments.
+     * @return The index of the first argument.
+     */
+    private int reserveNumbers(int count) {
+        if (this.numberCount + count > this.numbers.length) {
+            int[] grown = new int[this.numbers.length * 2];
+            System.arraycopy(this.numbers, 0, grown, 0, this.numberCount);
+            this.numbers = grown;
+        }
+        int start = this.numberCount;
+        this.numberCount += count;
+        return start;
+    }
+
+    /**
+     * Appends an object argument, growing the array if needed.
+     *
+     * @param value The argument.
+     */
+    private void addObject(Object value) {
+        if (this.objectCount == this.objects.length) {
+            Object[] grown = new Object[this.objectCount * 2];
+            System.arraycopy(this.objects, 0, grown, 0, this.objectCount);
+            this.objects = grown;
+        }
+        this.objects[this.objectCount++] = value;
+    }
+}
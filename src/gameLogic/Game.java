@@ -3,21 +3,35 @@
 package gameLogic;
 
 import biuoop.DrawSurface;
-import biuoop.GUI;
 import biuoop.KeyboardSensor;
-import biuoop.Sleeper;
 import geometry.Ball;
 import geometry.Block;
 import geometry.Point;
 import interfaces.Collidable;
+import interfaces.GameWindow;
+import interfaces.HitListener;
 import interfaces.Sprite;
+import interfaces.TickListener;
+import utilities.BiuoopWindow;
 import utilities.Counter;
+import utilities.InputLog;
+import utilities.InputRecorder;
 import utilities.Paddle;
+import utilities.ReplayKeyboard;
 import utilities.ScoreIndicator;
+import utilities.Velocity;
 import geometry.Rectangle;
 
 
 import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
 
 
 /**
@@ -29,35 +43,87 @@ public class Game {
     // Constants for screen dimensions
     private static final int SCREEN_WIDTH = 800;
     private static final int SCREEN_HEIGHT = 600;
+    private static final long MENU_POLL_NANOS = 10_000_000; // How often the main menu checks for the 'P' key
 
     // Instance variables
     private SpriteCollection sprites;
+    private SpriteCollection staticSprites;
+    private LayeredRenderer renderer;
+    private boolean threadedRendering;
+    private TripleBuffer<DrawSnapshot> frames;
+    private RenderLoop renderLoop;
     private GameEnvironment environment;
-    private GUI gui;
-    private Sleeper sleeper;
+    private GameWindow window;
     private Counter blockCounter;
     private Counter ballCounter;
     private ScoreIndicator gameScore;
-    private Counter gameScore2;
+    private SweepAndPrune ballCollisions;
+    private boolean ballCollisionsEnabled;
+    private List<Ball> balls;
+    private Paddle paddle;            // The paddle of the first player
+    private List<Paddle> paddles;
+    private long ticks;               // The physics steps made so far
+    private KeyboardSensor input;     // The keyboard of the paddle, if not the keyboard of the window
+    private KeyboardSensor secondInput; // The keyboard of the second player, if there is one
+    private List<TickListener> tickListeners;
+    private HitEventQueue hitEvents;  // The hits of the current tick, told to the listeners when it ends
+    private GameState hashState;      // Reused by getStateHash()
+    private ByteBuffer hashBuffer;
+    private CRC32 crc;
+    private RewindBuffer rewindBuffer;
+    private HighScoreLog highScores;  // Where the final score is kept, if anywhere
+
+    // The objects made by initialize(), in the order they were made, for saving and restoring the game
+    private List<Block> rosterBlocks;
+    private List<List<HitListener>> rosterListeners;
+    private List<Ball> rosterBalls;
+    private List<Color> colors;
+    private Map<Color, Integer> colorIndexes;
+    private Counter remainingBlocks;  // The counter of the block remover
+    private Counter remainingBalls;   // The counter of the ball remover
+    private ParallelPhysics parallelPhysics;
+    private double physicsRate = 60;  // Physics steps per second
+    private double renderRate = 60;   // Frames drawn per second
+    private int maxCatchUpSteps = 5;  // The most extra steps made to catch up before a frame
 
 
     /**
-     * Constructs a new instance of the gameLogic.Game class.
-     * Initializes the sprite collection, game environment, GUI, and sleeper.
+     * Constructs a new instance of the gameLogic.Game class in a window on the screen, and shows the main menu
+     * until the player presses 'P'. Call initialize() and then run() to play it.
      */
     public Game() {
+        this(new BiuoopWindow("Arkanoid", SCREEN_WIDTH, SCREEN_HEIGHT));
+
+        // Show the main menu
+        showMainMenu();
+    }
+
+    /**
+     * Constructs a new instance of the gameLogic.Game class in the given window, without a main menu.
+     * Call initialize() and then run() to play it. With a utilities.HeadlessWindow the game runs without a display.
+     *
+     * @param window The window the game is shown in and gets its input from.
+     */
+    public Game(GameWindow window) {
         // Initialize instance variables
         this.sprites = new SpriteCollection();
+        this.staticSprites = new SpriteCollection();
         this.environment = new GameEnvironment();
-        this.gui = new GUI("Arkanoid", SCREEN_WIDTH, SCREEN_HEIGHT);
-        this.sleeper = new Sleeper();
+        this.window = window;
 
         this.blockCounter = new Counter();
         this.ballCounter = new Counter();
         this.gameScore = new ScoreIndicator();
-
-        // Show the main menu
-        showMainMenu();
+        this.ballCollisions = new SweepAndPrune();
+        this.balls = new ArrayList<>();
+        this.paddles = new ArrayList<>();
+        this.rosterBlocks = new ArrayList<>();
+        this.rosterListeners = new ArrayList<>();
+        this.rosterBalls = new ArrayList<>();
+        this.colors = new ArrayList<>();
+        this.colorIndexes = new IdentityHashMap<>();
+        this.tickListeners = new ArrayList<>();
+        this.hitEvents = new HitEventQueue();
     }
 
     /**
@@ -69,6 +135,15 @@ public class Game {
         this.environment.addCollidable(c);
     }
 
+    /**
+     * Adds a collidable object that moves to the game environment.
+     *
+     * @param c The collidable object to be added.
+     */
+    public void addDynamicCollidable(Collidable c) {
+        this.environment.addDynamicCollidable(c);
+    }
+
     /**
      * Adds a sprite to the sprite collection.
      *
@@ -79,13 +154,125 @@ public class Game {
         this.sprites.addSprite(s);
     }
 
+    /**
+     * Adds a sprite that never moves or changes, like a block, to the game.
+     * Static sprites are drawn under the other sprites.
+     *
+     * @param s The sprite to be added.
+     */
+    public void addStaticSprite(Sprite s) {
+        this.staticSprites.addSprite(s);
+        if (this.renderer != null) {
+            this.renderer.invalidate(s);
+        }
+    }
+
+    /**
+     * Turns the cached rendering mode on or off.
+     * In this mode the background and the static sprites are drawn once into a cached layer, and every frame
+     * only the regions touched by the other sprites are drawn again.
+     *
+     * @param enabled True to cache the static content, false to draw everything on every frame.
+     */
+    public void setCachedRendering(boolean enabled) {
+        if (!enabled) {
+            this.renderer = null;
+        } else if (this.renderer == null) {
+            this.renderer = new LayeredRenderer(SCREEN_WIDTH, SCREEN_HEIGHT, this::drawStaticContent);
+        }
+    }
+
+    /**
+     * Turns the threaded rendering mode on or off, before the game runs.
+     * In this mode every frame is recorded into a snapshot and drawn on the screen by a separate render thread,
+     * so a slow screen does not slow the game down. The cached rendering mode is not used in this mode.
+     *
+     * @param enabled True to draw the frames on a render thread, false to draw them on the game thread.
+     */
+    public void setThreadedRendering(boolean enabled) {
+        this.threadedRendering = enabled;
+    }
+
+    /**
+     * Sets how many physics steps the game makes every second. The game plays at the same speed on every
+     * machine, whatever the rate of the frames.
+     *
+     * @param stepsPerSecond The number of physics steps per second.
+     * @throws IllegalArgumentException If the rate is not a positive number.
+     */
+    public void setPhysicsRate(double stepsPerSecond) {
+        if (!(stepsPerSecond > 0) || Double.isInfinite(stepsPerSecond)) {
+            throw new IllegalArgumentException("The physics rate must be positive, not " + stepsPerSecond);
+        }
+        this.physicsRate = stepsPerSecond;
+    }
+
+    /**
+     * Sets how many frames the game draws every second.
+     *
+     * @param framesPerSecond The number of frames per second.
+     * @throws IllegalArgumentException If the rate is not a positive number.
+     */
+    public void setRenderRate(double framesPerSecond) {
+        if (!(framesPerSecond > 0) || Double.isInfinite(framesPerSecond)) {
+            throw new IllegalArgumentException("The render rate must be positive, not " + framesPerSecond);
+        }
+        this.renderRate = framesPerSecond;
+    }
+
+    /**
+     * Sets the most physics steps made to catch up before a frame is drawn, on top of the steps a frame takes at
+     * the set rates. When the machine falls further behind, the rest of the missed time is dropped and the game
+     * slows down instead of freezing.
+     *
+     * @param steps The most extra steps per frame.
+     * @throws IllegalArgumentException If the number of steps is not positive.
+     */
+    public void setMaxCatchUpSteps(int steps) {
+        if (steps <= 0) {
+            throw new IllegalArgumentException("The catch-up steps must be positive, not " + steps);
+        }
+        this.maxCatchUpSteps = steps;
+    }
+
+    /**
+     * Adds a ball to the balls that can bounce off each other.
+     *
+     * @param b The ball to be added.
+     */
+    public void addBall(Ball b) {
+        this.balls.add(b);
+        this.ballCollisions.addBall(b);
+    }
+
+    /**
+     * Turns the multi-ball mode, in which balls bounce off each other, on or off.
+     *
+     * @param enabled True if balls should collide with each other, false otherwise.
+     */
+    public void setBallCollisions(boolean enabled) {
+        this.ballCollisionsEnabled = enabled;
+    }
+
+    /**
+     * Sets the pool used to run the collision queries of the balls in parallel.
+     * The game plays the same with or without it.
+     *
+     * @param physics The parallel physics to use, or null to make every query on the game thread.
+     */
+    public void setParallelPhysics(ParallelPhysics physics) {
+        this.parallelPhysics = physics;
+    }
+
     /**
      * Initializes the game: creates blocks, balls, and a paddle.
      */
     public void initialize() {
 
-        BlockRemover blockRemover = new BlockRemover(this, new Counter(42));
-        BallRemover ballRemover = new BallRemover(this, new Counter(3));
+        this.remainingBlocks = new Counter();
+        this.remainingBalls = new Counter(3);
+        BlockRemover blockRemover = new BlockRemover(this, this.remainingBlocks);
+        BallRemover ballRemover = new BallRemover(this, this.remainingBalls);
 
         // all the block edges in gray color
         Block[] borders = new Block[9];
@@ -110,10 +297,12 @@ public class Game {
         // We add it blocks game
         for (Block block : borders) {
             block.addToGame(this);
+            this.rosterBlocks.add(block);
         }
 
         int width = 45, height = 20;
         Color[] blockColors = {Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.CYAN, Color.BLUE};
+        int bricks = 0;
 
         for (int i = 0; i < 6; i++) {
             for (int j = i; j < 12; j++) {
@@ -124,6 +313,8 @@ public class Game {
                 blov.addToGame(this);
                 blov.addHitListener(blockRemover);
                 blov.addHitListener(this.gameScore.getCurrentScore());
+                this.rosterBlocks.add(blov);
+                bricks++;
             }
         }
         // Ball2 initialization logic
@@ -131,18 +322,21 @@ public class Game {
         Ball firstBall = new Ball(ballCeneter, 5, Color.black, environment);
         firstBall.setVelocity(0, 4);
         firstBall.addToGame(this);
+        this.rosterBalls.add(firstBall);
 
         // Ball2 initialization logic
         geometry.Point ballCeneter2 = new geometry.Point(400, 270);
         Ball secondBall = new Ball(ballCeneter2, 5, Color.black, environment);
         secondBall.setVelocity(0, 4);
         secondBall.addToGame(this);
+        this.rosterBalls.add(secondBall);
 
         // Ball3 initialization logic
         geometry.Point ballCeneter3 = new geometry.Point(425, 340);
         Ball thirdBall = new Ball(ballCeneter3, 5, Color.black, environment);
         thirdBall.setVelocity(0, 4);
         thirdBall.addToGame(this);
+        this.rosterBalls.add(thirdBall);
 
         Block deathRegion = new Block(
                 new Rectangle(
@@ -151,6 +345,7 @@ public class Game {
                 Color.pink);
         deathRegion.addToGame(this);
         deathRegion.addHitListener(ballRemover);
+        this.rosterBlocks.add(deathRegion);
 
         Block deathRegionExtra = new Block(new
                 Rectangle(
@@ -158,116 +353,247 @@ public class Game {
                         80, 350), 45, 20), Color.pink);
         deathRegionExtra.addToGame(this);
         deathRegionExtra.addHitListener(ballRemover);
+        this.rosterBlocks.add(deathRegionExtra);
 
         // utilities.Paddle initialization logic
+        // With a second player, the two paddles share the bottom of the field, one on each side
         Rectangle paddleShape = new Rectangle(
-                new geometry.Point(355, 560), 90, 15);
-        KeyboardSensor movement = gui.getKeyboardSensor();
+                new geometry.Point(this.secondInput == null ? 355 : 205, 560), 90, 15);
+        KeyboardSensor movement = this.input != null ? this.input : this.window.getKeyboardSensor();
         Paddle player = new Paddle(movement, paddleShape, Color.black, 5);
         player.addToGame(this);
+        this.paddle = player;
+        this.paddles.add(player);
+        if (this.secondInput != null) {
+            Paddle second = new Paddle(this.secondInput, new Rectangle(new geometry.Point(505, 560), 90, 15),
+                    Color.darkGray, 5);
+            second.addToGame(this);
+            this.paddles.add(second);
+        }
 
         this.addSprite(this.gameScore);
         this.ballCounter.increase(3);
-        this.blockCounter.increase(42);
+        this.blockCounter.increase(bricks);
+        this.remainingBlocks.increase(bricks);
+
+        // Remember the listeners and colors of the level, to put them back when a saved game is restored
+        for (Block block : this.rosterBlocks) {
+            this.rosterListeners.add(new ArrayList<>(block.getHitListeners()));
+        }
+        for (Ball ball : this.rosterBalls) {
+            colorIndex(ball.getColor());
+        }
+        for (Color color : blockColors) {
+            colorIndex(color);
+        }
+        colorIndex(Color.gray);
+        colorIndex(Color.white);
+        colorIndex(Color.pink);
     }
 
     /**
      * Runs the game's animation loop.
+     * The physics run in fixed steps at the physics rate: the time that passed is added up, and a step is made for
+     * every whole step of time. Frames are drawn at the render rate, with the moving sprites drawn between their
+     * last two steps according to the time left over.
      */
     public void run() {
+        long stepNanos = (long) (1_000_000_000 / this.physicsRate);
+        long frameNanos = (long) (1_000_000_000 / this.renderRate);
+        // The steps a frame takes at the set rates, and the steps it may add to catch up
+        int maxSteps = (int) Math.ceil(this.physicsRate / this.renderRate) + this.maxCatchUpSteps;
+        if (this.threadedRendering) {
+            startRenderLoop();
+        }
 
-        int framesPerSecond = 60;
-        int millisecondsPerFrame = 1000 / framesPerSecond;
+        long previousTime = this.window.nanoTime();
+        long nextFrame = previousTime;
+        long accumulator = 0;
         while (true) {
-            long startTime = System.currentTimeMillis(); // timing
+            long now = this.window.nanoTime();
+            accumulator += now - previousTime;
+            previousTime = now;
 
-            DrawSurface d = gui.getDrawSurface();
-            d.setColor(Color.gray);
-            d.fillRectangle(0, 0, 800, 600);
+            int steps = 0;
+            while (accumulator >= stepNanos && steps < maxSteps) {
+                tick();
+                accumulator -= stepNanos;
+                steps++;
+            }
+            if (accumulator >= stepNanos) {
+                accumulator %= stepNanos; // Too far behind: drop the missed time
+            }
 
-            d.setColor(Color.black);
-            d.fillRectangle(80, 350, 45, 20);
-            d.setColor(Color.white);
-            d.drawText(80, 365, "Ball Killer", 11);
+            if (this.ballCounter.getValue() == 0) {
+                showGameOver();
+                return;
+            }
 
+            double alpha = (double) accumulator / stepNanos;
+            if (this.renderLoop != null) {
+                publishFrame(alpha);
+            } else {
+                DrawSurface d = this.window.getDrawSurface();
+                drawFrame(d, alpha);
+                this.window.show(d);
+            }
 
-            this.sprites.drawAllOn(d);
-            this.sprites.notifyAllTimePassed();
-            gui.show(d);
+            // Wait for the next frame; after a long stall, start counting frames from now
+            nextFrame += frameNanos;
+            if (this.window.nanoTime() - nextFrame > frameNanos) {
+                nextFrame = this.window.nanoTime();
+            }
+            this.window.sleepUntil(nextFrame);
+        }
+    }
 
-            // timing
-            long usedTime = System.currentTimeMillis() - startTime;
-            long milliSecondLeftToSleep = millisecondsPerFrame - usedTime;
-            if (milliSecondLeftToSleep > 0) {
-                sleeper.sleepFor(milliSecondLeftToSleep);
+    /**
+     * Closes the game window and shows the final score in a new window for 5 seconds, with the best score of the
+     * high-score log if there is one.
+     */
+    private void showGameOver() {
+        int best = getScore();
+        if (this.highScores != null) {
+            try {
+                this.highScores.record(getScore(), this.ticks);
+                best = this.highScores.getTop().isEmpty() ? best : this.highScores.getTop().get(0).getScore();
+            } catch (IOException e) {
+                System.err.println("The score could not be saved: " + e.getMessage());
             }
+        }
 
-            if (this.ballCounter.getValue() == 0) {
-                // Close the old GUI
-                this.gui.close();
-
-                // Create a new GUI for the "Game Over" screen
-                GUI newGui = new GUI("New Game Over Screen", SCREEN_WIDTH, SCREEN_HEIGHT);
-                DrawSurface d2 = newGui.getDrawSurface();  // Use the new GUI for the DrawSurface
-                d2.setColor(Color.WHITE);
-                d2.fillRectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
-
-                // Display the final score
-                d2.setColor(Color.BLACK);
-                d2.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2 - 50, "Game Over!", 32);
-                d2.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2, "Final Score: " + gameScore2.getValue(), 24);
-
-                // Show the new GUI with the final score
-                newGui.show(d2);
-
-                // Wait for 5 seconds before closing the new GUI
-                long startTime2 = System.currentTimeMillis();
-                while (System.currentTimeMillis() - startTime2 < 5000) {
-                    // Keep the "Game Over" screen visible for 5 seconds
-                }
+        // Close the old window
+        stopRenderLoop();
+        this.window.close();
 
-                // Close the new GUI after 5 seconds
-                newGui.close();
-                return;
-            }
+        // Create a new window for the "Game Over" screen
+        GameWindow newWindow = this.window.open("New Game Over Screen");
+        DrawSurface d2 = newWindow.getDrawSurface();  // Use the new window for the DrawSurface
+        d2.setColor(Color.WHITE);
+        d2.fillRectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
 
-            if (this.ballCounter.getValue() == 0) {
-                // Close the old GUI
-                this.gui.close();
-
-                // Create a new GUI for the "Game Over" screen
-                GUI newGui = new GUI("New Game Over Screen", SCREEN_WIDTH, SCREEN_HEIGHT);
-                DrawSurface d2 = newGui.getDrawSurface();  // Use the new GUI for the DrawSurface
-                d2.setColor(Color.WHITE);
-                d2.fillRectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
-
-                // Display the final score
-                d2.setColor(Color.BLACK);
-                d2.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2 - 50, "Game Over!", 32);
-                d2.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2, "Final Score: " + gameScore2.getValue(), 24);
-
-                // Show the new GUI with the final score
-                newGui.show(d2);
-
-                // Wait for 5 seconds before closing the new GUI
-                long startTime2 = System.currentTimeMillis();
-                while (System.currentTimeMillis() - startTime2 < 5000) {
-                    // Keep the "Game Over" screen visible for 5 seconds
-                }
+        // Display the final score
+        d2.setColor(Color.BLACK);
+        d2.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2 - 50, "Game Over!", 32);
+        d2.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2, "Final Score: " + getScore(), 24);
+        if (this.highScores != null) {
+            d2.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2 + 40, "High Score: " + best, 24);
+        }
 
-                // Close the new GUI after 5 seconds
-                newGui.close();
-                return;
-            }
+        // Show the new window with the final score, for 5 seconds
+        newWindow.show(d2);
+        newWindow.sleepFor(5000);
+
+        // Close the new window after 5 seconds
+        newWindow.close();
+    }
+
+    /**
+     * Starts the render thread, with three snapshots to pass the frames through.
+     */
+    private void startRenderLoop() {
+        this.frames = new TripleBuffer<>(new DrawSnapshot(SCREEN_WIDTH, SCREEN_HEIGHT),
+                new DrawSnapshot(SCREEN_WIDTH, SCREEN_HEIGHT), new DrawSnapshot(SCREEN_WIDTH, SCREEN_HEIGHT));
+        this.renderLoop = new RenderLoop(this.window, this.frames);
+        this.renderLoop.start();
+    }
+
+    /**
+     * Stops the render thread, if it is running.
+     */
+    private void stopRenderLoop() {
+        if (this.renderLoop != null) {
+            this.renderLoop.stop();
+            this.renderLoop = null;
+        }
+    }
+
+    /**
+     * Records the current frame into the back snapshot and hands it to the render thread.
+     *
+     * @param alpha The fraction of the way from the previous positions of the sprites to the current ones.
+     */
+    private void publishFrame(double alpha) {
+        DrawSnapshot frame = this.frames.back();
+        frame.clear();
+        drawStaticContent(frame);
+        this.sprites.drawAllOn(frame, alpha);
+        this.frames.publish();
+    }
+
+    /**
+     * Draws the current frame: the background, then the static sprites, then the other sprites.
+     *
+     * @param d     The surface to draw the frame on.
+     * @param alpha The fraction of the way from the previous positions of the sprites to the current ones.
+     */
+    private void drawFrame(DrawSurface d, double alpha) {
+        if (this.renderer != null) {
+            this.renderer.render(d, this.sprites, alpha);
+            return;
+        }
+        drawStaticContent(d);
+        this.sprites.drawAllOn(d, alpha);
+    }
+
+    /**
+     * Draws the content of the game that does not change from frame to frame.
+     *
+     * @param d The surface to draw on.
+     */
+    private void drawStaticContent(DrawSurface d) {
+        drawBackground(d);
+        this.staticSprites.drawAllOn(d);
+    }
+
+    /**
+     * Draws the background of the game and the "Ball Killer" box.
+     *
+     * @param d The surface to draw on.
+     */
+    private void drawBackground(DrawSurface d) {
+        d.setColor(Color.gray);
+        d.fillRectangle(0, 0, 800, 600);
+
+        d.setColor(Color.black);
+        d.fillRectangle(80, 350, 45, 20);
+        d.setColor(Color.white);
+        d.drawText(80, 365, "Ball Killer", 11);
+    }
+
+    /**
+     * Advances the game by one physics step: moves all the sprites, then lets the balls bounce off each other.
+     * With parallel physics, the balls first plan their steps on the worker threads.
+     * The game loop calls this at the physics rate; a game without a loop, like a simulated session, can call it
+     * directly as often as it likes.
+     */
+    public void tick() {
+        long tick = this.ticks;
+        for (int i = 0; i < this.tickListeners.size(); i++) {
+            this.tickListeners.get(i).beginTick(this, tick);
+        }
+        if (this.parallelPhysics != null) {
+            this.parallelPhysics.planSteps(this.balls);
+        }
+        this.staticSprites.notifyAllTimePassed();
+        this.sprites.notifyAllTimePassed();
+        if (this.ballCollisionsEnabled) {
+            this.ballCollisions.resolveCollisions();
+        }
+        this.hitEvents.flush();
+        this.ticks++;
+        for (int i = 0; i < this.tickListeners.size(); i++) {
+            this.tickListeners.get(i).endTick(this, tick);
         }
     }
 
     /**
-     * Displays the main menu with the "Play" button.
+     * Displays the main menu with the "Play" button, and waits until the player presses 'P'.
+     * The game itself is not started; call initialize() and then run() to play it.
      */
-    private void showMainMenu() {
+    public void showMainMenu() {
         // Get the draw surface
-        DrawSurface d = gui.getDrawSurface();
+        DrawSurface d = this.window.getDrawSurface();
         d.setColor(Color.WHITE);
         d.fillRectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
 
@@ -277,35 +603,31 @@ public class Game {
         d.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2, "Press 'P' to Play", 24);
 
         // Show the menu
-        gui.show(d);
+        this.window.show(d);
 
         // Wait for the player to press 'P' to start the game
-        KeyboardSensor sensor = gui.getKeyboardSensor();
-        while (true) {
-            if (sensor.isPressed("p")) {
-                initialize();  // Initialize the game
-                run();         // Run the game
-                break;         // Exit the loop and start the game
-            }
+        KeyboardSensor sensor = this.window.getKeyboardSensor();
+        while (!sensor.isPressed("p")) {
+            this.window.sleepUntil(this.window.nanoTime() + MENU_POLL_NANOS);
         }
     }
 
     private void showEndScreen() {
-        DrawSurface d = gui.getDrawSurface();
+        DrawSurface d = this.window.getDrawSurface();
         d.setColor(Color.WHITE);
         d.fillRectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
 
         // Display final score
         d.setColor(Color.BLACK);
         d.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2 - 50, "Game Over!", 32);
-        d.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2, "Final Score: " + gameScore2.getValue(), 24);
+        d.drawText(SCREEN_WIDTH / 3, SCREEN_HEIGHT / 2, "Final Score: " + getScore(), 24);
 
-        gui.show(d);
+        this.window.show(d);
 
         // Wait for the player to close the window
         while (true) {
-            if (gui.getKeyboardSensor().isPressed("q")) {  // Press 'q' to close the game
-                gui.close();
+            if (this.window.getKeyboardSensor().isPressed("q")) {  // Press 'q' to close the game
+                this.window.close();
                 break;
             }
         }
@@ -320,6 +642,15 @@ public class Game {
         this.environment.removeCollidable(c);
     }
 
+    /**
+     * Updates the game environment after the collision rectangle of a collidable has changed.
+     *
+     * @param c The collidable object that moved.
+     */
+    public void updateCollidable(Collidable c) {
+        this.environment.updateCollidable(c);
+    }
+
     /**
      * Removes a sprite from the sprite collection.
      *
@@ -329,6 +660,489 @@ public class Game {
         this.sprites.removeSprite(s);
     }
 
+    /**
+     * Removes a static sprite from the game.
+     *
+     * @param s The sprite to be removed.
+     */
+    public void removeStaticSprite(Sprite s) {
+        this.staticSprites.removeSprite(s);
+        if (this.renderer != null) {
+            this.renderer.invalidate(s);
+        }
+    }
+
+    /**
+     * Removes a ball from the balls that can bounce off each other.
+     *
+     * @param b The ball to be removed.
+     */
+    public void removeBall(Ball b) {
+        this.balls.remove(b);
+        this.ballCollisions.removeBall(b);
+    }
+
+    /**
+     * Returns the score of the player so far.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return this.gameScore.getCurrentScore().getValue();
+    }
+
+    /**
+     * Returns the number of physics steps made so far.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Sets the keyboard the paddle is moved with, instead of the keyboard of the window.
+     * Call it before initialize().
+     *
+     * @param keyboard The keyboard.
+     */
+    public void setKeyboardSensor(KeyboardSensor keyboard) {
+        this.input = keyboard;
+    }
+
+    /**
+     * Adds a second paddle to the level, moved with the given keyboard. Both players share the field, the balls
+     * and the score. Call it before initialize().
+     *
+     * @param keyboard The keyboard of the second player.
+     */
+    public void setSecondPlayer(KeyboardSensor keyboard) {
+        this.secondInput = keyboard;
+    }
+
+    /**
+     * Sets the high-score log the final score is added to when the game is over.
+     *
+     * @param log The log, or null to not keep the score.
+     */
+    public void setHighScores(HighScoreLog log) {
+        this.highScores = log;
+    }
+
+    /**
+     * Adds a listener that is told when every physics step starts and ends.
+     *
+     * @param listener The listener.
+     */
+    public void addTickListener(TickListener listener) {
+        this.tickListeners.add(listener);
+    }
+
+    /**
+     * Removes a tick listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeTickListener(TickListener listener) {
+        this.tickListeners.remove(listener);
+    }
+
+    /**
+     * Records the keys of the player in every physics step into a log, with a state hash every few steps.
+     * Call it before initialize().
+     *
+     * @param log The log to record into.
+     * @return The recorder.
+     */
+    public InputRecorder recordInput(InputLog log) {
+        KeyboardSensor live = this.input != null ? this.input : this.window.getKeyboardSensor();
+        InputRecorder recorder = new InputRecorder(live, log);
+        setKeyboardSensor(recorder);
+        addTickListener(recorder);
+        return recorder;
+    }
+
+    /**
+     * Moves the paddle with the keys of a recorded log instead of a keyboard, and checks the game against the
+     * state hashes of the log. Call it before initialize().
+     *
+     * @param log The recorded log.
+     * @return The keyboard that plays the log back.
+     */
+    public ReplayKeyboard replayInput(InputLog log) {
+        ReplayKeyboard replay = new ReplayKeyboard(log);
+        setKeyboardSensor(replay);
+        addTickListener(replay);
+        return replay;
+    }
+
+    /**
+     * Starts keeping the state of every tick, for the given number of ticks back, so the game can be rewound.
+     * Call it after initialize(). The memory for all the ticks is taken at once, and recording a tick creates
+     * no objects.
+     *
+     * @param ticks The number of ticks to keep, for example 600 for ten seconds at 60 steps per second.
+     * @throws IllegalArgumentException If the number of ticks is less than 1.
+     */
+    public void enableRewind(int ticks) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("The number of ticks must be at least 1, not " + ticks);
+        }
+        if (this.paddle == null) {
+            throw new IllegalStateException("The game was not initialized");
+        }
+        if (this.rewindBuffer != null) {
+            removeTickListener(this.rewindBuffer);
+        }
+        this.rewindBuffer = new RewindBuffer(ticks, this.rosterBlocks.size(), this.rosterBalls.size(),
+                this.paddles.size());
+        this.rewindBuffer.record(this);
+        addTickListener(this.rewindBuffer);
+    }
+
+    /**
+     * Puts the game back a number of ticks, as far as the rewind buffer reaches, to go on from there.
+     * The ticks after it are forgotten.
+     *
+     * @param ticks The number of ticks to go back.
+     * @return The number of ticks the game actually went back.
+     * @throws IllegalStateException If rewinding was not enabled.
+     */
+    public long rewind(long ticks) {
+        if (this.rewindBuffer == null) {
+            throw new IllegalStateException("Rewinding is not enabled");
+        }
+        long from = this.ticks;
+        long target = Math.max(from - Math.max(ticks, 0), this.rewindBuffer.getOldestTick());
+        restoreState(this.rewindBuffer.get(target));
+        this.rewindBuffer.truncate(target);
+        return from - target;
+    }
+
+    /**
+     * Returns a hash of the full state of the game: the CRC32 of its binary snapshot.
+     * Two games that hash the same after the same step are, as far as anyone can tell, in the same state.
+     *
+     * @return The hash.
+     */
+    public int getStateHash() {
+        if (this.hashState == null) {
+            this.hashState = new GameState();
+            this.crc = new CRC32();
+        }
+        saveState(this.hashState);
+        int size = GameStateCodec.encodedSize(this.hashState);
+        if (this.hashBuffer == null || this.hashBuffer.capacity() < size) {
+            this.hashBuffer = ByteBuffer.allocate(size);
+        }
+        this.hashBuffer.clear();
+        GameStateCodec.encode(this.hashState, this.hashBuffer);
+        this.hashBuffer.flip();
+        this.crc.reset();
+        this.crc.update(this.hashBuffer);
+        return (int) this.crc.getValue();
+    }
+
+    /**
+     * Saves the full state of the game into the given state, between ticks.
+     * The state can be written with a gameLogic.GameStateCodec, and restored into this game or into another game
+     * of the same level.
+     *
+     * @param state The state to fill. Its arrays are reused when they are large enough.
+     */
+    public void saveState(GameState state) {
+        if (this.paddle == null) {
+            throw new IllegalStateException("The game was not initialized");
+        }
+        state.setCounts(this.rosterBlocks.size(), this.rosterBalls.size(), this.paddles.size());
+        state.setCounters(this.ticks, getScore(), this.blockCounter.getValue(), this.ballCounter.getValue(),
+                this.remainingBlocks.getValue(), this.remainingBalls.getValue());
+        for (int i = 0; i < this.paddles.size(); i++) {
+            Paddle player = this.paddles.get(i);
+            state.setPaddle(i, player.getCollisionRectangle().getUpperLeft().getX(), player.getPreviousX());
+        }
+        for (int i = 0; i < this.rosterBlocks.size(); i++) {
+            state.setBlock(i, this.staticSprites.contains(this.rosterBlocks.get(i)));
+        }
+        for (int i = 0; i < this.rosterBalls.size(); i++) {
+            Ball ball = this.rosterBalls.get(i);
+            Point center = ball.getCenter();
+            Velocity velocity = ball.getVelocity();
+            state.setBall(i, this.sprites.contains(ball), colorIndex(ball.getColor()), center.getX(),
+                    center.getY(), ball.getPreviousX(), ball.getPreviousY(), velocity.getDx(), velocity.getDy());
+        }
+    }
+
+    /**
+     * Puts the game back in a saved state, between ticks.
+     * When the blocks or balls in the game differ from the saved ones, the sprites, the collidables and the
+     * balls are added again in the order initialize() added them, and the blocks get back the hit listeners
+     * they started with, so the game goes on exactly as it did from the saved state.
+     *
+     * @param state The state to restore.
+     * @throws IllegalArgumentException If the state was saved from a different level.
+     */
+    public void restoreState(GameState state) {
+        if (this.paddle == null) {
+            throw new IllegalStateException("The game was not initialized");
+        }
+        if (state.getBlockCount() != this.rosterBlocks.size() || state.getBallCount() != this.rosterBalls.size()
+                || state.getPaddleCount() != this.paddles.size()) {
+            throw new IllegalArgumentException("The state was saved from a different level");
+        }
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (state.getBallColor(i) >= this.colors.size()) {
+                throw new IllegalArgumentException("Unknown ball color " + state.getBallColor(i));
+            }
+        }
+
+        if (!sameMembers(state)) {
+            rebuild(state);
+        }
+        for (int i = 0; i < this.rosterBalls.size(); i++) {
+            this.rosterBalls.get(i).restore(state.getBallX(i), state.getBallY(i), state.getBallPreviousX(i),
+                    state.getBallPreviousY(i), state.getBallDx(i), state.getBallDy(i),
+                    this.colors.get(state.getBallColor(i)));
+        }
+        for (int i = 0; i < this.paddles.size(); i++) {
+            this.paddles.get(i).restore(state.getPaddleX(i), state.getPaddlePreviousX(i));
+        }
+
+        this.ticks = state.getTicks();
+        this.gameScore.getCurrentScore().setValue(state.getScore());
+        this.blockCounter.setValue(state.getBlocksLeft());
+        this.ballCounter.setValue(state.getBallsLeft());
+        this.remainingBlocks.setValue(state.getRemainingBlocks());
+        this.remainingBalls.setValue(state.getRemainingBalls());
+    }
+
+    /**
+     * Checks if the blocks and balls in the game are the ones in a saved state.
+     *
+     * @param state The saved state.
+     * @return True if the same blocks and balls are in the game, false otherwise.
+     */
+    private boolean sameMembers(GameState state) {
+        for (int i = 0; i < this.rosterBlocks.size(); i++) {
+            if (state.isBlockAlive(i) != this.staticSprites.contains(this.rosterBlocks.get(i))) {
+                return false;
+            }
+        }
+        for (int i = 0; i < this.rosterBalls.size(); i++) {
+            if (state.isBallAlive(i) != this.sprites.contains(this.rosterBalls.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes everything made by initialize() out of the game, and adds back what is in a saved state,
+     * in the order initialize() added it.
+     *
+     * @param state The saved state.
+     */
+    private void rebuild(GameState state) {
+        for (Block block : this.rosterBlocks) {
+            block.removeFromGame(this);
+        }
+        for (Ball ball : this.rosterBalls) {
+            ball.removeFromGame(this);
+        }
+        for (Paddle player : this.paddles) {
+            removeSprite(player);
+            removeCollidable(player);
+        }
+        removeSprite(this.gameScore);
+
+        for (int i = 0; i < this.rosterBlocks.size(); i++) {
+            Block block = this.rosterBlocks.get(i);
+            List<HitListener> listeners = this.rosterListeners.get(i);
+            if (!block.getHitListeners().equals(listeners)) {
+                for (HitListener listener : new ArrayList<>(block.getHitListeners())) {
+                    block.removeHitListener(listener);
+                }
+                for (HitListener listener : listeners) {
+                    block.addHitListener(listener);
+                }
+            }
+            if (state.isBlockAlive(i)) {
+                block.addToGame(this);
+            }
+        }
+        for (int i = 0; i < this.rosterBalls.size(); i++) {
+            if (state.isBallAlive(i)) {
+                this.rosterBalls.get(i).addToGame(this);
+            }
+        }
+        for (Paddle player : this.paddles) {
+            player.addToGame(this);
+        }
+        this.addSprite(this.gameScore);
+    }
+
+    /**
+     * Returns the index of a color in the color table of the game, adding the color if it is new.
+     *
+     * @param color The color.
+     * @return The index of the color.
+     */
+    private int colorIndex(Color color) {
+        Integer index = this.colorIndexes.get(color);
+        if (index == null) {
+            index = this.colors.size();
+            this.colors.add(color);
+            this.colorIndexes.put(color, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns all the blocks made by initialize(), including the ones that were removed since, in the order they
+     * were made. The indexes of the blocks in a gameLogic.GameState follow this order.
+     *
+     * @return A read-only view of the blocks.
+     */
+    public List<Block> getLevelBlocks() {
+        return Collections.unmodifiableList(this.rosterBlocks);
+    }
+
+    /**
+     * Returns all the balls made by initialize(), including the ones that were lost since, in the order they
+     * were made. The indexes of the balls in a gameLogic.GameState follow this order.
+     *
+     * @return A read-only view of the balls.
+     */
+    public List<Ball> getLevelBalls() {
+        return Collections.unmodifiableList(this.rosterBalls);
+    }
+
+    /**
+     * Returns a color of the color table the ball colors of a gameLogic.GameState refer to.
+     *
+     * @param index The index of the color.
+     * @return The color.
+     */
+    public Color getColorAt(int index) {
+        return this.colors.get(index);
+    }
+
+    /**
+     * Returns the paddle of the player.
+     *
+     * @return The paddle, or null if the game was not initialized yet.
+     */
+    public Paddle getPaddle() {
+        return this.paddle;
+    }
+
+    /**
+     * Adds a listener to the hits of every block of the level. Unlike a listener added to a block itself, it stays
+     * when a saved game is restored. Call it after initialize().
+     *
+     * @param listener The listener.
+     */
+    public void addLevelHitListener(HitListener listener) {
+        if (this.paddle == null) {
+            throw new IllegalStateException("The game was not initialized");
+        }
+        for (int i = 0; i < this.rosterBlocks.size(); i++) {
+            this.rosterBlocks.get(i).addHitListener(listener);
+            this.rosterListeners.get(i).add(listener);
+        }
+    }
+
+    /**
+     * Returns the counter of the score.
+     *
+     * @return The counter.
+     */
+    public Counter getScoreCounter() {
+        return this.gameScore.getCurrentScore().getCounter();
+    }
+
+    /**
+     * Returns the counter of the blocks left.
+     *
+     * @return The counter.
+     */
+    public Counter getBlockCounter() {
+        return this.blockCounter;
+    }
+
+    /**
+     * Returns the counter of the balls left.
+     *
+     * @return The counter.
+     */
+    public Counter getBallCounter() {
+        return this.ballCounter;
+    }
+
+    /**
+     * Returns the queue the hits of the blocks in the game wait in until the tick ends.
+     *
+     * @return The queue.
+     */
+    public HitEventQueue getHitEvents() {
+        return this.hitEvents;
+    }
+
+    /**
+     * Checks if a ball is still in the game.
+     *
+     * @param ball The ball.
+     * @return True if the ball is in the game, false if it was removed.
+     */
+    public boolean hasBall(Ball ball) {
+        return this.sprites.contains(ball);
+    }
+
+    /**
+     * Returns the paddles of all the players, the first player first.
+     *
+     * @return A read-only view of the paddles.
+     */
+    public List<Paddle> getPaddles() {
+        return Collections.unmodifiableList(this.paddles);
+    }
+
+    /**
+     * Returns the balls that are still in the game.
+     *
+     * @return A read-only view of the balls.
+     */
+    public List<Ball> getBalls() {
+        return Collections.unmodifiableList(this.balls);
+    }
+
+    /**
+     * Returns the number of balls still in the game.
+     *
+     * @return The number of balls.
+     */
+    public int getBallsLeft() {
+        return this.ballCounter.getValue();
+    }
+
+    /**
+     * Returns the number of bricks still in the game.
+     *
+     * @return The number of bricks.
+     */
+    public int getBlocksLeft() {
+        return this.blockCounter.getValue();
+    }
+
+    /**
+     * Checks if the game is over: all the balls were lost, or all the bricks were removed.
+     *
+     * @return True if the game is over, false otherwise.
+     */
+    public boolean isOver() {
+        return this.ballCounter.getValue() <= 0 || this.blockCounter.getValue() <= 0;
+    }
+
     /**
      * Decreases the count of blocks by 1.
      */
@@ -5,32 +5,86 @@ package gameLogic;
 import geometry.Line;
 import geometry.Point;
 import geometry.Rectangle;
+import interfaces.BroadPhase;
 import interfaces.Collidable;
+import utilities.CandidateCache;
 import utilities.CollisionInfo;
+import utilities.RayHit;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The gameLogic.GameEnvironment class represents the environment of the game, containing collidable objects.
+ * The collidables are split into two layers. Collidables that never move, like borders and blocks, go to the
+ * static layer, an interfaces.BroadPhase that by default is a gameLogic.StaticLayer built once for the level.
+ * The few collidables that move, like the paddle, go to a small dynamic layer that is simply scanned, unless
+ * the broad phase refits moved collidables in place, like a gameLogic.AabbTree; then they go to the broad phase too.
+ * Queries do not change the environment, so many threads may query it at once while nothing is added,
+ * removed or moved.
  */
 public class GameEnvironment {
-    private List<Collidable> gameCollidables;
+    /**
+     * The order given to hits on dynamic collidables, after every static collidable.
+     */
+    private static final int DYNAMIC_ORDER = 1 << 30;
+
+    /**
+     * How far around a ball's path the candidate cache of the ball reaches, in pixels.
+     */
+    private static final double CACHE_MARGIN = 32;
+
+    private BroadPhase gameCollidables;
+    private List<Collidable> dynamicCollidables;
+    private long version; // Changes whenever a collidable is added, removed or moved
+    private long staticVersion; // Changes whenever the static layer changes
+    private LongAdder cacheHits;
+    private LongAdder cacheMisses;
 
     /**
      * Constructs a new gameLogic.GameEnvironment with an empty list of collidables.
      */
     public GameEnvironment() {
-        this.gameCollidables = new LinkedList<>();
+        this(new StaticLayer());
     }
 
     /**
-     * Adds the given collidable to the environment.
+     * Constructs a new gameLogic.GameEnvironment that keeps its static collidables in the given broad phase.
+     *
+     * @param broadPhase An empty broad phase, for example a gameLogic.StaticLayer or a gameLogic.AabbTree.
+     */
+    public GameEnvironment(BroadPhase broadPhase) {
+        this.gameCollidables = broadPhase;
+        this.dynamicCollidables = new ArrayList<>();
+        this.cacheHits = new LongAdder();
+        this.cacheMisses = new LongAdder();
+    }
+
+    /**
+     * Adds the given collidable to the environment, as a collidable that does not move.
      *
      * @param collidable The collidable to be added.
      */
     public void addCollidable(Collidable collidable) {
         this.gameCollidables.add(collidable);
+        this.version++;
+        this.staticVersion++;
+    }
+
+    /**
+     * Adds the given collidable to the environment, as a collidable that moves. It goes to the broad phase if the
+     * broad phase refits moved collidables in place, and to the dynamic layer otherwise.
+     *
+     * @param collidable The collidable to be added.
+     */
+    public void addDynamicCollidable(Collidable collidable) {
+        if (this.gameCollidables.refitsInPlace()) {
+            addCollidable(collidable);
+            return;
+        }
+        this.dynamicCollidables.add(collidable);
+        this.version++;
     }
 
     /**
@@ -39,50 +93,174 @@ public class GameEnvironment {
      * @param collidable the collidable object to be removed
      */
     public void removeCollidable(Collidable collidable) {
-        this.gameCollidables.remove(collidable);
+        if (!this.dynamicCollidables.remove(collidable)) {
+            this.gameCollidables.remove(collidable);
+            this.staticVersion++;
+        }
+        this.version++;
     }
 
+    /**
+     * Updates the environment after the collision rectangle of a collidable has changed.
+     * A collidable of a broad phase that refits in place is refitted there; a collidable of a broad phase that is
+     * built once is moved to the dynamic layer.
+     *
+     * @param collidable the collidable object that moved
+     */
+    public void updateCollidable(Collidable collidable) {
+        if (!this.dynamicCollidables.contains(collidable)) {
+            if (this.gameCollidables.refitsInPlace()) {
+                this.gameCollidables.update(collidable);
+            } else {
+                this.gameCollidables.remove(collidable);
+                this.dynamicCollidables.add(collidable);
+            }
+            this.staticVersion++;
+        }
+        this.version++;
+    }
 
     /**
-     * Finds the closest collision point along the given trajectory.
+     * Returns the version of the environment. Queries made at the same version give the same answers,
+     * so a result computed earlier can be reused as long as the version has not changed.
      *
-     * @param trajectory The trajectory to find collisions on.
-     * @return The utilities.CollisionInfo of the closest collision point, or null if no collisions were found.
+     * @return The number of changes made to the environment so far.
      */
-    public CollisionInfo getClosestCollision(Line trajectory) {
-        List<CollisionInfo> collisionInfos = new LinkedList<>();
+    public long getVersion() {
+        return this.version;
+    }
 
-        // Find all collision points along the trajectory
-        for (Collidable collidable : gameCollidables) {
-            Rectangle collidableRectangle = collidable.getCollisionRectangle();
-            Point collisionPoint = trajectory.closestIntersectionToStartOfLine(collidableRectangle);
+    /**
+     * Finds the closest collision of the segment from (x0, y0) to (x0 + dx, y0 + dy).
+     * This query does not create any objects, so it can be called for every ball on every frame.
+     *
+     * @param x0  The x-coordinate of the start of the segment.
+     * @param y0  The y-coordinate of the start of the segment.
+     * @param dx  The change in x along the segment.
+     * @param dy  The change in y along the segment.
+     * @param hit The result to fill with the closest collision, reused between calls.
+     * @return True if a collision was found, false otherwise.
+     */
+    public boolean getClosestHit(double x0, double y0, double dx, double dy, RayHit hit) {
+        return getClosestHit(x0, y0, dx, dy, 0, hit);
+    }
 
-            if (collisionPoint != null) {
-                CollisionInfo collisionInfo = new CollisionInfo(collisionPoint, collidable);
-                collisionInfos.add(collisionInfo);
-            }
-        }
+    /**
+     * Finds the closest collision of a circle whose center moves from (x0, y0) to (x0 + dx, y0 + dy).
+     * The time of the hit is the exact time of impact, and the hit point is where the circle touches the collidable.
+     *
+     * @param x0     The x-coordinate of the center at the start of the step.
+     * @param y0     The y-coordinate of the center at the start of the step.
+     * @param dx     The change in x of the center along the step.
+     * @param dy     The change in y of the center along the step.
+     * @param radius The radius of the circle.
+     * @param hit    The result to fill with the closest collision, reused between calls.
+     * @return True if a collision was found, false otherwise.
+     */
+    public boolean getClosestHit(double x0, double y0, double dx, double dy, double radius, RayHit hit) {
+        hit.reset();
 
-        // If no collision points were found, return null
-        if (collisionInfos.isEmpty()) {
-            return null;
+        // The few moving collidables first, so their closest hit prunes the search of the static layer
+        sweepDynamic(x0, y0, dx, dy, radius, hit);
+        return this.gameCollidables.closestHit(x0, y0, dx, dy, radius, hit);
+    }
+
+    /**
+     * Finds the closest collision of a circle whose center moves from (x0, y0) to (x0 + dx, y0 + dy),
+     * testing only the static collidables kept in the given cache.
+     * The cache is filled again when the path leaves the region it covers, or when a static collidable
+     * was added or removed since it was filled. The moving collidables are always tested.
+     *
+     * @param x0     The x-coordinate of the center at the start of the step.
+     * @param y0     The y-coordinate of the center at the start of the step.
+     * @param dx     The change in x of the center along the step.
+     * @param dy     The change in y of the center along the step.
+     * @param radius The radius of the circle.
+     * @param hit    The result to fill with the closest collision, reused between calls.
+     * @param cache  The candidate cache of the moving ball.
+     * @return True if a collision was found, false otherwise.
+     */
+    public boolean getClosestHit(double x0, double y0, double dx, double dy, double radius, RayHit hit,
+                                 CandidateCache cache) {
+        hit.reset();
+        sweepDynamic(x0, y0, dx, dy, radius, hit);
+
+        // Every collidable the circle can touch overlaps the box around its path
+        double minX = Math.min(x0, x0 + dx) - radius;
+        double minY = Math.min(y0, y0 + dy) - radius;
+        double maxX = Math.max(x0, x0 + dx) + radius;
+        double maxY = Math.max(y0, y0 + dy) + radius;
+        if (cache.covers(minX, minY, maxX, maxY, this.staticVersion)) {
+            this.cacheHits.increment();
+        } else {
+            this.cacheMisses.increment();
+            double margin = CACHE_MARGIN + Math.abs(dx) + Math.abs(dy);
+            cache.reset(minX - margin, minY - margin, maxX + margin, maxY + margin, this.staticVersion);
+            this.gameCollidables.collectOverlapping(minX - margin, minY - margin, maxX + margin, maxY + margin,
+                    cache);
         }
 
-        // Find the closest collision point
-        Point start = trajectory.start();
-        CollisionInfo closestCollision = collisionInfos.get(0);
-        double closestDistance = closestCollision.collisionPoint().distance(start);
-
-        for (CollisionInfo collision : collisionInfos) {
-            double currentDistance = collision.collisionPoint().distance(start);
-            if (currentDistance < closestDistance) {
-                closestCollision = collision;
-                closestDistance = currentDistance;
+        for (int i = 0; i < cache.size(); i++) {
+            Collidable collidable = cache.getCollidable(i);
+            int order = cache.getOrder(i);
+            if (collidable.getCollisionRectangle().sweepCircle(x0, y0, dx, dy, radius, order < hit.getOrder(), hit)) {
+                hit.setCollidable(collidable, order);
             }
         }
+        return hit.isHit();
+    }
 
-        return closestCollision;
+    /**
+     * Returns the number of cached queries that were answered from the candidate cache.
+     *
+     * @return The number of cache hits so far.
+     */
+    public long getCacheHits() {
+        return this.cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of cached queries that had to fill the candidate cache again.
+     *
+     * @return The number of cache misses so far.
+     */
+    public long getCacheMisses() {
+        return this.cacheMisses.sum();
     }
 
+    /**
+     * Tests the moving collidables against a circle moving along a segment.
+     *
+     * @param x0     The x-coordinate of the center at the start of the step.
+     * @param y0     The y-coordinate of the center at the start of the step.
+     * @param dx     The change in x of the center along the step.
+     * @param dy     The change in y of the center along the step.
+     * @param radius The radius of the circle.
+     * @param hit    The closest hit so far.
+     */
+    private void sweepDynamic(double x0, double y0, double dx, double dy, double radius, RayHit hit) {
+        for (int i = 0; i < this.dynamicCollidables.size(); i++) {
+            Collidable collidable = this.dynamicCollidables.get(i);
+            Rectangle rectangle = collidable.getCollisionRectangle();
+            if (rectangle.sweepCircle(x0, y0, dx, dy, radius, DYNAMIC_ORDER + i < hit.getOrder(), hit)) {
+                hit.setCollidable(collidable, DYNAMIC_ORDER + i);
+            }
+        }
+    }
 
+    /**
+     * Finds the closest collision point along the given trajectory.
+     *
+     * @param trajectory The trajectory to find collisions on.
+     * @return The utilities.CollisionInfo of the closest collision point, or null if no collisions were found.
+     */
+    public CollisionInfo getClosestCollision(Line trajectory) {
+        Point start = trajectory.start();
+        Point end = trajectory.end();
+        RayHit hit = new RayHit();
+        if (!getClosestHit(start.getX(), start.getY(), end.getX() - start.getX(), end.getY() - start.getY(), hit)) {
+            return null;
+        }
+        return new CollisionInfo(new Point(hit.getX(), hit.getY()), hit.getCollidable());
+    }
 }
@@ -0,0 +1,125 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import biuoop.KeyboardSensor;
+import interfaces.InputPolicy;
+import utilities.HeadlessWindow;
+import utilities.ScriptedKeyboard;
+
+/**
+ * One game of Game.initialize() that is played without a window and advanced by its owner, a few steps at a
+ * time, instead of by a game loop.
+ * Every session has its own game, with its own sprites, environment and counters, and shares nothing with other
+ * sessions, so many sessions can be played in one process. A session is advanced by one thread at a time.
+ */
+public class GameSession {
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+
+    private Game game;
+    private ScriptedKeyboard keyboard;
+    private InputPolicy policy;
+    private long maxTicks;
+    private long nanos; // The time spent advancing the session so far
+
+    /**
+     * Constructs a session and sets up its game.
+     *
+     * @param policy   The policy that moves the paddle.
+     * @param maxTicks The most physics steps to play.
+     */
+    public GameSession(InputPolicy policy, long maxTicks) {
+        this.keyboard = new ScriptedKeyboard();
+        this.game = new Game(new HeadlessWindow(SCREEN_WIDTH, SCREEN_HEIGHT, this.keyboard, false));
+        this.game.initialize();
+        this.policy = policy;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Plays up to the given number of physics steps, stopping early if the session finishes.
+     *
+     * @param steps The most steps to play.
+     * @return True if the session can still be advanced, false if it finished.
+     */
+    public boolean advance(long steps) {
+        long start = System.nanoTime();
+        long end = Math.min(this.maxTicks, this.game.getTicks() + steps);
+        while (this.game.getTicks() < end && !this.game.isOver()) {
+            press(this.policy.chooseDirection(this.game, this.game.getTicks()));
+            this.game.tick();
+        }
+        this.nanos += System.nanoTime() - start;
+        return !isFinished();
+    }
+
+    /**
+     * Checks if the session finished: the game is over, or all its steps were played.
+     *
+     * @return True if the session finished, false otherwise.
+     */
+    public boolean isFinished() {
+        return this.game.getTicks() >= this.maxTicks || this.game.isOver();
+    }
+
+    /**
+     * Returns the game of the session.
+     *
+     * @return The game.
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * Returns the number of physics steps played so far.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return this.game.getTicks();
+    }
+
+    /**
+     * Starts a new session from the current state of this one, with the same policy and step limit.
+     * The two sessions share nothing, so they can go on differently, for example to try what-if moves.
+     *
+     * @return The new session.
+     */
+    public GameSession fork() {
+        GameState state = new GameState();
+        this.game.saveState(state);
+        GameSession copy = new GameSession(this.policy, this.maxTicks);
+        copy.game.restoreState(state);
+        return copy;
+    }
+
+    /**
+     * Returns the result of the session so far.
+     *
+     * @return The result.
+     */
+    public SimulationResult getResult() {
+        return new SimulationResult(this.game.getTicks(), this.nanos, this.game.getScore(), this.game.getBallsLeft(),
+                this.game.getBlocksLeft());
+    }
+
+    /**
+     * Holds down the arrow key of a direction, and releases the other one.
+     *
+     * @param direction InputPolicy.LEFT, STAY or RIGHT.
+     */
+    private void press(int direction) {
+        if (direction == InputPolicy.LEFT) {
+            this.keyboard.press(KeyboardSensor.LEFT_KEY);
+        } else {
+            this.keyboard.release(KeyboardSensor.LEFT_KEY);
+        }
+        if (direction == InputPolicy.RIGHT) {
+            this.keyboard.press(KeyboardSensor.RIGHT_KEY);
+        } else {
+            this.keyboard.release(KeyboardSensor.RIGHT_KEY);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+/**
+ * The full state of a game of Game.initialize() at the end of a tick, kept in primitive arrays.
+ * The blocks and balls are listed in the order Game.initialize() creates them, and colors are kept as indexes
+ * into the color table of the game, because the game compares colors by identity.
+ * A state can be filled again and again by Game#saveState without creating new arrays, so saving every frame
+ * creates no garbage once the arrays are large enough.
+ */
+public class GameState {
+    private long ticks;
+    private int score;
+    private int blocksLeft;
+    private int ballsLeft;
+    private int remainingBlocks; // The counter of the block remover
+    private int remainingBalls;  // The counter of the ball remover
+    private int paddleCount;
+    private double[] paddleX;
+    private double[] paddlePreviousX;
+    private int blockCount;
+    private boolean[] blockAlive;
+    private int ballCount;
+    private boolean[] ballAlive;
+    private int[] ballColor;
+    private double[] ballX;
+    private double[] ballY;
+    private double[] ballPreviousX;
+    private double[] ballPreviousY;
+    private double[] ballDx;
+    private double[] ballDy;
+
+    /**
+     * Constructs an empty state.
+     */
+    public GameState() {
+        this.blockAlive = new boolean[0];
+        this.paddleX = new double[0];
+        this.paddlePreviousX = new double[0];
+        resizeBalls(0);
+    }
+
+    /**
+     * Sets the number of blocks, balls and paddles in the state, growing the arrays if needed.
+     *
+     * @param blocks  The number of blocks.
+     * @param balls   The number of balls.
+     * @param paddles The number of paddles.
+     */
+    void setCounts(int blocks, int balls, int paddles) {
+        if (this.blockAlive.length < blocks) {
+            this.blockAlive = new boolean[blocks];
+        }
+        if (this.ballAlive.length < balls) {
+            resizeBalls(balls);
+        }
+        if (this.paddleX.length < paddles) {
+            this.paddleX = new double[paddles];
+            this.paddlePreviousX = new double[paddles];
+        }
+        this.blockCount = blocks;
+        this.ballCount = balls;
+        this.paddleCount = paddles;
+    }
+
+    /**
+     * Creates the arrays of the balls.
+     *
+     * @param balls The number of balls the arrays hold.
+     */
+    private void resizeBalls(int balls) {
+        this.ballAlive = new boolean[balls];
+        this.ballColor = new int[balls];
+        this.ballX = new double[balls];
+        this.ballY = new double[balls];
+        this.ballPreviousX = new double[balls];
+        this.ballPreviousY = new double[balls];
+        this.ballDx = new double[balls];
+        this.ballDy = new double[balls];
+    }
+
+    /**
+     * Copies another state into this one.
+     *
+     * @param other The state to copy.
+     */
+    public void copyFrom(GameState other) {
+        setCounts(other.blockCount, other.ballCount, other.paddleCount);
+        setCounters(other.ticks, other.score, other.blocksLeft, other.ballsLeft, other.remainingBlocks,
+                other.remainingBalls);
+        for (int i = 0; i < other.paddleCount; i++) {
+            setPaddle(i, other.paddleX[i], other.paddlePreviousX[i]);
+        }
+        System.arraycopy(other.blockAlive, 0, this.blockAlive, 0, other.blockCount);
+        for (int i = 0; i < other.ballCount; i++) {
+            setBall(i, other.ballAlive[i], other.ballColor[i], other.ballX[i], other.ballY[i],
+                    other.ballPreviousX[i], other.ballPreviousY[i], other.ballDx[i], other.ballDy[i]);
+        }
+    }
+
+    /**
+     * Sets the counters of the state.
+     *
+     * @param ticks           The number of ticks played.
+     * @param score           The score.
+     * @param blocksLeft      The number of bricks left.
+     * @param ballsLeft       The number of balls left.
+     * @param remainingBlocks The counter of the block remover.
+     * @param remainingBalls  The counter of the ball remover.
+     */
+    void setCounters(long ticks, int score, int blocksLeft, int ballsLeft, int remainingBlocks, int remainingBalls) {
+        this.ticks = ticks;
+        this.score = score;
+        this.blocksLeft = blocksLeft;
+        this.ballsLeft = ballsLeft;
+        this.remainingBlocks = remainingBlocks;
+        this.remainingBalls = remainingBalls;
+    }
+
+    /**
+     * Sets the position of a paddle.
+     *
+     * @param i         The index of the paddle.
+     * @param x         The x-coordinate of the left edge of the paddle.
+     * @param previousX The left edge before the last tick.
+     */
+    void setPaddle(int i, double x, double previousX) {
+        this.paddleX[i] = x;
+        this.paddlePreviousX[i] = previousX;
+    }
+
+    /**
+     * Sets if a block is in the game.
+     *
+     * @param i     The index of the block.
+     * @param alive True if the block is in the game.
+     */
+    void setBlock(int i, boolean alive) {
+        this.blockAlive[i] = alive;
+    }
+
+    /**
+     * Sets the state of a ball.
+     *
+     * @param i         The index of the ball.
+     * @param alive     True if the ball is in the game.
+     * @param color     The index of the color of the ball in the color table.
+     * @param x         The x-coordinate of the center.
+     * @param y         The y-coordinate of the center.
+     * @param previousX The x-coordinate of the center before the last tick.
+     * @param previousY The y-coordinate of the center before the last tick.
+     * @param dx        The horizontal velocity.
+     * @param dy        The vertical velocity.
+     */
+    void setBall(int i, boolean alive, int color, double x, double y, double previousX, double previousY,
+                 double dx, double dy) {
+        this.ballAlive[i] = alive;
+        this.ballColor[i] = color;
+        this.ballX[i] = x;
+        this.ballY[i] = y;
+        this.ballPreviousX[i] = previousX;
+        this.ballPreviousY[i] = previousY;
+        this.ballDx[i] = dx;
+        this.ballDy[i] = dy;
+    }
+
+    /**
+     * Returns the number of ticks played.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Returns the score.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Returns the number of bricks left.
+     *
+     * @return The number of bricks.
+     */
+    public int getBlocksLeft() {
+        return this.blocksLeft;
+    }
+
+    /**
+     * Returns the number of balls left.
+     *
+     * @return The number of balls.
+     */
+    public int getBallsLeft() {
+        return this.ballsLeft;
+    }
+
+    /**
+     * Returns the counter of the block remover.
+     *
+     * @return The counter value.
+     */
+    int getRemainingBlocks() {
+        return this.remainingBlocks;
+    }
+
+    /**
+     * Returns the counter of the ball remover.
+     *
+     * @return The counter value.
+     */
+    int getRemainingBalls() {
+        return this.remainingBalls;
+    }
+
+    /**
+     * Returns the x-coordinate of the left edge of the paddle of the first player.
+     *
+     * @return The x-coordinate.
+     */
+    public double getPaddleX() {
+        return this.paddleX[0];
+    }
+
+    /**
+     * Returns the number of paddles in the state.
+     *
+     * @return The number of paddles.
+     */
+    public int getPaddleCount() {
+        return this.paddleCount;
+    }
+
+    /**
+     * Returns the x-coordinate of the left edge of a paddle.
+     *
+     * @param i The index of the paddle.
+     * @return The x-coordinate.
+     */
+    public double getPaddleX(int i) {
+        return this.paddleX[i];
+    }
+
+    /**
+     * Returns the left edge of a paddle before the last tick.
+     *
+     * @param i The index of the paddle.
+     * @return The x-coordinate.
+     */
+    double getPaddlePreviousX(int i) {
+        return this.paddlePreviousX[i];
+    }
+
+    /**
+     * Returns the number of blocks in the state.
+     *
+     * @return The number of blocks.
+     */
+    public int getBlockCount() {
+        return this.blockCount;
+    }
+
+    /**
+     * Checks if a block is in the game.
+     *
+     * @param i The index of the block.
+     * @return True if the block is in the game.
+     */
+    public boolean isBlockAlive(int i) {
+        return this.blockAlive[i];
+    }
+
+    /**
+     * Returns the number of balls in the state.
+     *
+     * @return The number of balls.
+     */
+    public int getBallCount() {
+        return this.ballCount;
+    }
+
+    /**
+     * Checks if a ball is in the game.
+     *
+     * @param i The index of the ball.
+     * @return True if the ball is in the game.
+     */
+    public boolean isBallAlive(int i) {
+        return this.ballAlive[i];
+    }
+
+    /**
+     * Returns the color of a ball.
+     *
+     * @param i The index of the ball.
+     * @return The index of the color in the color table of the game.
+     */
+    public int getBallColor(int i) {
+        return this.ballColor[i];
+    }
+
+    /**
+     * Returns the x-coordinate of the center of a ball.
+     *
+     * @param i The index of the ball.
+     * @return The x-coordinate.
+     */
+    public double getBallX(int i) {
+        return this.ballX[i];
+    }
+
+    /**
+     * Returns the y-coordinate of the center of a ball.
+     *
+     * @param i The index of the ball.
+     * @return The y-coordinate.
+     */
+    public double getBallY(int i) {
+        return this.ballY[i];
+    }
+
+    /**
+     * Returns the x-coordinate of the center of a ball before the last tick.
+     *
+     * @param i The index of the ball.
+     * @return The x-coordinate.
+     */
+    double getBallPreviousX(int i) {
+        return this.ballPreviousX[i];
+    }
+
+    /**
+     * Returns the y-coordinate of the center of a ball before the last tick.
+     *
+     * @param i The index of the ball.
+     * @return The y-coordinate.
+     */
+    double getBallPreviousY(int i) {
+        return this.ballPreviousY[i];
+    }
+
+    /**
+     * Returns the horizontal velocity of a ball.
+     *
+     * @param i The index of the ball.
+     * @return The horizontal velocity.
+     */
+    public double getBallDx(int i) {
+        return this.ballDx[i];
+    }
+
+    /**
+     * Returns the vertical velocity of a ball.
+     *
+     * @param i The index of the ball.
+     * @return The vertical velocity.
+     */
+    public double getBallDy(int i) {
+        return this.ballDy[i];
+    }
+}
@@ -0,0 +1,172 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The gameLogic.GameStateCodec class writes game states in a compact binary format and reads them back.
+ * A snapshot starts with a magic number and a format version, so old snapshots are recognized and rejected
+ * instead of being read wrong. Version 2 is laid out as:
+ * <pre>
+ *   int magic, short version, long ticks,
+ *   int score, blocksLeft, ballsLeft, remainingBlocks, remainingBalls,
+ *   short blockCount, short ballCount, byte paddleCount,
+ *   for every paddle: double x, previousX, then one bit per block (1 if it is in the game),
+ *   and for every ball: byte alive, byte color, double x, y, previousX, previousY, dx, dy.
+ * </pre>
+ * Version 1 held a single paddle, written before the counts; it can still be read.
+ * A one player level of Game.initialize() takes about 200 bytes.
+ */
+public class GameStateCodec {
+    /**
+     * The first bytes of every snapshot: "ARKS".
+     */
+    public static final int MAGIC = 0x41524B53;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final short VERSION = 2;
+
+    /**
+     * Returns the number of bytes a state takes when written.
+     *
+     * @param state The state.
+     * @return The size in bytes.
+     */
+    public static int encodedSize(GameState state) {
+        return 4 + 2 + 8 + 5 * 4 + 1 + state.getPaddleCount() * 2 * 8 + 2 + 2 + (state.getBlockCount() + 7) / 8
+                + state.getBallCount() * (2 + 6 * 8);
+    }
+
+    /**
+     * Writes a state into a buffer, starting at its position.
+     *
+     * @param state  The state to write.
+     * @param buffer The buffer, with at least encodedSize(state) bytes remaining.
+     * @throws BufferOverflowException If the buffer is too small.
+     */
+    public static void encode(GameState state, ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(state.getTicks());
+        buffer.putInt(state.getScore());
+        buffer.putInt(state.getBlocksLeft());
+        buffer.putInt(state.getBallsLeft());
+        buffer.putInt(state.getRemainingBlocks());
+        buffer.putInt(state.getRemainingBalls());
+
+        int blocks = state.getBlockCount();
+        int balls = state.getBallCount();
+        buffer.putShort((short) blocks);
+        buffer.putShort((short) balls);
+        buffer.put((byte) state.getPaddleCount());
+        for (int i = 0; i < state.getPaddleCount(); i++) {
+            buffer.putDouble(state.getPaddleX(i));
+            buffer.putDouble(state.getPaddlePreviousX(i));
+        }
+        for (int i = 0; i < blocks; i += 8) {
+            int bits = 0;
+            for (int j = i; j < Math.min(blocks, i + 8); j++) {
+                if (state.isBlockAlive(j)) {
+                    bits |= 1 << (j - i);
+                }
+            }
+            buffer.put((byte) bits);
+        }
+
+        for (int i = 0; i < balls; i++) {
+            buffer.put((byte) (state.isBallAlive(i) ? 1 : 0));
+            buffer.put((byte) state.getBallColor(i));
+            buffer.putDouble(state.getBallX(i));
+            buffer.putDouble(state.getBallY(i));
+            buffer.putDouble(state.getBallPreviousX(i));
+            buffer.putDouble(state.getBallPreviousY(i));
+            buffer.putDouble(state.getBallDx(i));
+            buffer.putDouble(state.getBallDy(i));
+        }
+    }
+
+    /**
+     * Reads a state from a buffer, starting at its position, into an existing state.
+     *
+     * @param buffer The buffer.
+     * @param state  The state to fill.
+     * @throws IllegalArgumentException If the buffer does not hold a snapshot of a known version.
+     */
+    public static void decode(ByteBuffer buffer, GameState state) {
+        try {
+            int magic = buffer.getInt();
+            if (magic != MAGIC) {
+                throw new IllegalArgumentException("Not a game snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != 1 && version != VERSION) {
+                throw new IllegalArgumentException("Unknown snapshot version " + version);
+            }
+            long ticks = buffer.getLong();
+            int score = buffer.getInt();
+            int blocksLeft = buffer.getInt();
+            int ballsLeft = buffer.getInt();
+            int remainingBlocks = buffer.getInt();
+            int remainingBalls = buffer.getInt();
+            if (version == 1) {
+                double paddleX = buffer.getDouble();
+                double paddlePreviousX = buffer.getDouble();
+                state.setCounts(buffer.getShort() & 0xFFFF, buffer.getShort() & 0xFFFF, 1);
+                state.setPaddle(0, paddleX, paddlePreviousX);
+            } else {
+                state.setCounts(buffer.getShort() & 0xFFFF, buffer.getShort() & 0xFFFF, buffer.get() & 0xFF);
+                for (int i = 0; i < state.getPaddleCount(); i++) {
+                    state.setPaddle(i, buffer.getDouble(), buffer.getDouble());
+                }
+            }
+            int blocks = state.getBlockCount();
+            int balls = state.getBallCount();
+            state.setCounters(ticks, score, blocksLeft, ballsLeft, remainingBlocks, remainingBalls);
+            int bits = 0;
+            for (int i = 0; i < blocks; i++) {
+                if (i % 8 == 0) {
+                    bits = buffer.get();
+                }
+                state.setBlock(i, (bits & (1 << (i % 8))) != 0);
+            }
+            for (int i = 0; i < balls; i++) {
+                boolean alive = buffer.get() != 0;
+                int color = buffer.get() & 0xFF;
+                state.setBall(i, alive, color, buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                        buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The snapshot is cut short", e);
+        }
+    }
+
+    /**
+     * Writes a state into a new array.
+     *
+     * @param state The state to write.
+     * @return The snapshot.
+     */
+    public static byte[] toBytes(GameState state) {
+        byte[] bytes = new byte[encodedSize(state)];
+        encode(state, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Reads a state from an array.
+     *
+     * @param bytes The snapshot.
+     * @return The state.
+     * @throws IllegalArgumentException If the array does not hold a snapshot of a known version.
+     */
+    public static GameState fromBytes(byte[] bytes) {
+        GameState state = new GameState();
+        decode(ByteBuffer.wrap(bytes), state);
+        return state;
+    }
+}
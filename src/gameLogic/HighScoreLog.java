@@ -0,0 +1,361 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * The gameLogic.HighScoreLog class keeps the results of finished games in a file, and the best of them in memory.
+ * The file is an append-only log of fixed-size records, written through memory-mapped regions of the file, so an
+ * append is a few stores into memory and no system call. The operating system writes the pages out on its own;
+ * the log also forces them to the disk at a set interval, from a thread of its own when no more records come, so a
+ * crash loses at most that much. When a log is opened, it is scanned from the start to rebuild the leaderboard and
+ * to find where to go on appending.
+ * <pre>
+ *   header: int magic, short version, short record size, long reserved
+ *   record: long sequence (starting from 1), long time (ms since the epoch), long ticks, int score,
+ *           int CRC32 of the first 28 bytes of the record
+ * </pre>
+ * The scan stops at the first record whose sequence or checksum is wrong, which is where a crash cut the log short.
+ * Appending is safe from several threads at once, and reading the leaderboard never waits for an append.
+ */
+public class HighScoreLog implements Closeable {
+    /**
+     * The first bytes of a log: "ARKH".
+     */
+    public static final int MAGIC = 0x41524B48;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The size of the header at the start of the file.
+     */
+    public static final int HEADER_SIZE = 16;
+
+    /**
+     * The size of a record.
+     */
+    public static final int RECORD_SIZE = 32;
+
+    private static final int REGION_RECORDS = 1 << 15; // The records of one mapped region: 1 MiB
+
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionIndex;
+    private long count;              // The number of records in the log
+    private ByteBuffer record;       // Reused to build a record before it is copied into the region
+    private CRC32 crc;
+    private int capacity;
+    private ScoreEntry[] top;        // The best entries, best first; replaced, never changed
+    private volatile List<ScoreEntry> leaderboard;
+    private long forceIntervalNanos;
+    private long lastForce;
+    private long forces;
+    private long forcedCount;        // The number of records already forced to the disk
+    private ScheduledExecutorService flusher;
+    private boolean closed;
+
+    /**
+     * Opens a log, creating the file if it does not exist, and scans it to rebuild the leaderboard.
+     *
+     * @param path                The path of the file.
+     * @param capacity            The number of best results kept in memory.
+     * @param forceIntervalMillis The most time appended records may wait before they are forced to the disk, in
+     *                            milliseconds. 0 forces every record.
+     * @throws IOException If the file cannot be opened, or it is not a high-score log of a known version.
+     */
+    public HighScoreLog(Path path, int capacity, long forceIntervalMillis) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.record = ByteBuffer.allocate(RECORD_SIZE);
+        this.crc = new CRC32();
+        this.capacity = capacity;
+        this.top = new ScoreEntry[0];
+        this.leaderboard = Collections.emptyList();
+        this.forceIntervalNanos = forceIntervalMillis * 1_000_000;
+        try {
+            readHeader();
+            recover();
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+        this.lastForce = System.nanoTime();
+        this.forcedCount = this.count;
+        if (forceIntervalMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "high-score-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.flusher.scheduleWithFixedDelay(this::flushIfDue, forceIntervalMillis, forceIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the header of a new file, or checks the header of an existing one.
+     *
+     * @throws IOException If the file cannot be read or written, or it is not a high-score log of a known version.
+     */
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (this.channel.size() == 0) {
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(0);
+            header.flip();
+            while (header.hasRemaining()) {
+                this.channel.write(header, header.position());
+            }
+            this.channel.force(true);
+            return;
+        }
+        while (header.hasRemaining()) {
+            if (this.channel.read(header, header.position()) < 0) {
+                throw new IOException("Not a high-score log");
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a high-score log");
+        }
+        short version = header.getShort();
+        if (version != VERSION || header.getShort() != RECORD_SIZE) {
+            throw new IOException("Unknown high-score log version " + version);
+        }
+    }
+
+    /**
+     * Scans the records from the start, rebuilding the leaderboard, and clears what follows the last good record.
+     *
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void recover() throws IOException {
+        mapRegion(0);
+        while (true) {
+            if (slot() == REGION_RECORDS) {
+                mapRegion(this.regionIndex + 1);
+            }
+            int at = slot() * RECORD_SIZE;
+            long sequence = this.region.getLong(at);
+            if (sequence != this.count + 1 || !checksumMatches(at)) {
+                break;
+            }
+            this.count++;
+            offer(sequence, this.region.getLong(at + 8), this.region.getLong(at + 16), this.region.getInt(at + 24));
+        }
+
+        // A crash may have left part of a record, or old records past it; they must not be read as new ones
+        long end = regionOffset(this.regionIndex + 1);
+        if (this.channel.size() > end) {
+            this.channel.truncate(end);
+        }
+        for (int at = slot() * RECORD_SIZE; at < REGION_RECORDS * RECORD_SIZE; at += 8) {
+            if (this.region.getLong(at) != 0) {
+                this.region.putLong(at, 0);
+            }
+        }
+        this.region.force();
+    }
+
+    /**
+     * Checks the checksum of a record of the current region.
+     *
+     * @param at The position of the record in the region.
+     * @return True if the checksum matches, false otherwise.
+     */
+    private boolean checksumMatches(int at) {
+        this.record.clear();
+        for (int i = 0; i < RECORD_SIZE; i++) {
+            this.record.put(i, this.region.get(at + i));
+        }
+        this.crc.reset();
+        this.crc.update(this.record.array(), 0, RECORD_SIZE - 4);
+        return (int) this.crc.getValue() == this.record.getInt(RECORD_SIZE - 4);
+    }
+
+    /**
+     * Appends the result of a game to the log, and to the leaderboard if it is good enough.
+     *
+     * @param score The final score.
+     * @param ticks The number of physics steps the game lasted.
+     * @return The sequence of the new record, starting from 1.
+     * @throws IOException If the file cannot be extended.
+     */
+    public synchronized long record(int score, long ticks) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException("The high-score log is closed");
+        }
+        if (slot() == REGION_RECORDS) {
+            this.region.force();
+            mapRegion(this.regionIndex + 1);
+        }
+        long sequence = this.count + 1;
+        long timeMillis = System.currentTimeMillis();
+        this.record.clear();
+        this.record.putLong(sequence).putLong(timeMillis).putLong(ticks).putInt(score);
+        this.crc.reset();
+        this.crc.update(this.record.array(), 0, RECORD_SIZE - 4);
+        this.record.putInt((int) this.crc.getValue());
+        this.record.flip();
+        this.region.position(slot() * RECORD_SIZE);
+        this.region.put(this.record);
+        this.count = sequence;
+
+        offer(sequence, timeMillis, ticks, score);
+        long now = System.nanoTime();
+        if (now - this.lastForce >= this.forceIntervalNanos) {
+            force(now);
+        }
+        return sequence;
+    }
+
+    /**
+     * Forces all the appended records to the disk now.
+     */
+    public synchronized void flush() {
+        if (!this.closed) {
+            force(System.nanoTime());
+        }
+    }
+
+    /**
+     * Forces the appended records to the disk if some were not forced yet. Called by the flusher thread once every
+     * interval, so the last records of a log that gets no more appends are forced too.
+     */
+    private synchronized void flushIfDue() {
+        if (!this.closed && this.forcedCount < this.count) {
+            force(System.nanoTime());
+        }
+    }
+
+    /**
+     * Returns the best results, best first: a higher score first, and for equal scores the earlier result.
+     *
+     * @return A read-only list of at most the capacity of the leaderboard.
+     */
+    public List<ScoreEntry> getTop() {
+        return this.leaderboard;
+    }
+
+    /**
+     * Returns the number of records in the log.
+     *
+     * @return The number of records.
+     */
+    public synchronized long size() {
+        return this.count;
+    }
+
+    /**
+     * Returns the number of times the records were forced to the disk since the log was opened.
+     *
+     * @return The number of forces.
+     */
+    public synchronized long getForces() {
+        return this.forces;
+    }
+
+    /**
+     * Forces the appended records to the disk and closes the file.
+     *
+     * @throws IOException If the file fails to close.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        if (this.flusher != null) {
+            this.flusher.shutdown();
+        }
+        force(System.nanoTime());
+        this.closed = true;
+        this.channel.close();
+    }
+
+    /**
+     * Adds a result to the leaderboard if it ranks among the best ones.
+     *
+     * @param sequence   The sequence of the record.
+     * @param timeMillis The time the game ended.
+     * @param ticks      The number of physics steps the game lasted.
+     * @param score      The final score.
+     */
+    private void offer(long sequence, long timeMillis, long ticks, int score) {
+        int size = this.top.length;
+        // A later result only ranks above the last one with a higher score
+        if (this.capacity <= 0 || size == this.capacity && score <= this.top[size - 1].getScore()) {
+            return;
+        }
+        ScoreEntry entry = new ScoreEntry(sequence, timeMillis, ticks, score);
+        int at = size;
+        while (at > 0 && entry.ranksAbove(this.top[at - 1])) {
+            at--;
+        }
+        ScoreEntry[] next = new ScoreEntry[Math.min(size + 1, this.capacity)];
+        System.arraycopy(this.top, 0, next, 0, at);
+        next[at] = entry;
+        System.arraycopy(this.top, at, next, at + 1, next.length - at - 1);
+        this.top = next;
+        this.leaderboard = Collections.unmodifiableList(Arrays.asList(next));
+    }
+
+    /**
+     * Forces the current region to the disk.
+     *
+     * @param now The current time, from System.nanoTime().
+     */
+    private void force(long now) {
+        this.region.force();
+        this.lastForce = now;
+        this.forcedCount = this.count;
+        this.forces++;
+    }
+
+    /**
+     * Maps a region of the file, extending the file if needed.
+     *
+     * @param index The index of the region.
+     * @throws IOException If the region cannot be mapped.
+     */
+    private void mapRegion(long index) throws IOException {
+        this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, regionOffset(index),
+                (long) REGION_RECORDS * RECORD_SIZE);
+        this.regionIndex = index;
+    }
+
+    /**
+     * Returns the place in the file where a region starts.
+     *
+     * @param index The index of the region.
+     * @return The offset in bytes.
+     */
+    private static long regionOffset(long index) {
+        return HEADER_SIZE + index * REGION_RECORDS * RECORD_SIZE;
+    }
+
+    /**
+     * Returns the place of the next record in the current region.
+     *
+     * @return The index of the record in the region, REGION_RECORDS if the region is full.
+     */
+    private int slot() {
+        return (int) (this.count - this.regionIndex * REGION_RECORDS);
+    }
+}
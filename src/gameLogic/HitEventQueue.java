@@ -0,0 +1,119 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import geometry.Ball;
+import geometry.Block;
+
+/**
+ * The gameLogic.HitEventQueue class holds the hits of a tick until the balls finished moving, and then tells the
+ * hit blocks about them, in the order they happened.
+ * Listeners like the block remover and the ball remover change the sprites and the environment, so running them
+ * at the end of the tick keeps those changes out of the middle of the collision checks. The hits are kept in
+ * arrays that only grow, so recording them creates no objects.
+ * The queue belongs to the game loop and is not meant to be used from other threads.
+ */
+public class HitEventQueue {
+    private Block[] blocks;
+    private Ball[] hitters;
+    private int count;
+    private long dispatched;
+    private long merged;
+
+    /**
+     * Constructs an empty queue.
+     */
+    public HitEventQueue() {
+        this.blocks = new Block[16];
+        this.hitters = new Ball[16];
+    }
+
+    /**
+     * Records a hit, to be told to the block when the queue is flushed.
+     *
+     * @param block  The block that was hit.
+     * @param hitter The ball that hit it.
+     */
+    public void add(Block block, Ball hitter) {
+        if (this.count == this.blocks.length) {
+            Block[] grownBlocks = new Block[this.count * 2];
+            Ball[] grownHitters = new Ball[this.count * 2];
+            System.arraycopy(this.blocks, 0, grownBlocks, 0, this.count);
+            System.arraycopy(this.hitters, 0, grownHitters, 0, this.count);
+            this.blocks = grownBlocks;
+            this.hitters = grownHitters;
+        }
+        this.blocks[this.count] = block;
+        this.hitters[this.count] = hitter;
+        this.count++;
+    }
+
+    /**
+     * Tells every recorded hit to the listeners its block has at that moment, in the order the hits happened,
+     * and empties the queue. Once a hit takes a block out of the game, as the block remover does, the later hits
+     * of other balls on that block in the same tick are merged into it and not told at all, as if the block was
+     * gone when they happened. More hits of the ball that took it out are still told, so a white block still
+     * scores twice for one hit.
+     */
+    public void flush() {
+        // Hits recorded by the listeners themselves are told in the same flush
+        for (int i = 0; i < this.count; i++) {
+            Block block = this.blocks[i];
+            if (block.isInGame() || !removedByOther(i)) {
+                block.dispatchHit(this.hitters[i]);
+                this.dispatched++;
+            } else {
+                this.merged++;
+            }
+        }
+        for (int i = 0; i < this.count; i++) {
+            this.blocks[i] = null;
+            this.hitters[i] = null;
+        }
+        this.count = 0;
+    }
+
+    /**
+     * Checks if the block of a hit was taken out of the game by an earlier hit of another ball in this flush.
+     * The block was in the game when the tick started, so it was taken out by the first hit on it.
+     *
+     * @param index The place of the hit in the queue, whose block is no longer in the game.
+     * @return True if the first hit on the block came from another ball, false otherwise.
+     */
+    private boolean removedByOther(int index) {
+        for (int j = 0; j < index; j++) {
+            if (this.blocks[j] == this.blocks[index]) {
+                return this.hitters[j] != this.hitters[index];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of hits waiting to be told.
+     *
+     * @return The number of hits.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Returns the number of hits told so far.
+     *
+     * @return The number of hits.
+     */
+    public long getDispatched() {
+        return this.dispatched;
+    }
+
+    /**
+     * Returns the number of hits that were not told because an earlier hit of another ball in the same tick took
+     * their block out of the game.
+     *
+     * @return The number of hits.
+     */
+    public long getMerged() {
+        return this.merged;
+    }
+}
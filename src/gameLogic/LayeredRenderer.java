@@ -0,0 +1,444 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import biuoop.DrawSurface;
+import interfaces.Sprite;
+import utilities.ImageDrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.function.Consumer;
+
+/**
+ * The gameLogic.LayeredRenderer class draws the frames of a game without drawing the static content every frame.
+ * The background and the blocks are drawn once into a cached static layer. Every frame is put together in a back
+ * buffer: only the regions where moving sprites were drawn the last time the buffer was used are copied back from
+ * the static layer, then the moving sprites are drawn on top, and the buffer is sent to the screen as one image.
+ * When static content changes, like a removed block, only its region of the static layer is drawn again.
+ * Two back buffers are used in turns, so the screen can still be showing one while the other is drawn.
+ */
+public class LayeredRenderer {
+    /**
+     * Extra pixels around every recorded region, for outlines and text that reach a little past their bounds.
+     */
+    private static final int MARGIN = 2;
+
+    private int width;
+    private int height;
+    private Consumer<DrawSurface> staticContent;
+    private ImageDrawSurface staticLayer;
+    private boolean staticValid;
+    private Regions staticDirty;       // Regions of the static layer to draw again
+    private ImageDrawSurface[] buffers;
+    private boolean[] buffersValid;
+    private Regions[] restore;         // For each buffer, the regions to copy from the static layer before drawing
+    private int current;
+    private Recorder recorder;
+
+    /**
+     * A list of rectangles. Overlapping rectangles are merged, so each pixel is copied only once.
+     */
+    private static class Regions {
+        private int[] minX = new int[16];
+        private int[] minY = new int[16];
+        private int[] maxX = new int[16];
+        private int[] maxY = new int[16];
+        private int count;
+
+        /**
+         * Adds a rectangle, merging it with the rectangles it overlaps.
+         *
+         * @param x1 The left edge.
+         * @param y1 The upper edge.
+         * @param x2 The right edge.
+         * @param y2 The lower edge.
+         */
+        private void add(int x1, int y1, int x2, int y2) {
+            for (int i = 0; i < this.count; i++) {
+                if (x1 <= this.maxX[i] && x2 >= this.minX[i] && y1 <= this.maxY[i] && y2 >= this.minY[i]) {
+                    // Take the rectangle out and add the merged one, which may now overlap others
+                    x1 = Math.min(x1, this.minX[i]);
+                    y1 = Math.min(y1, this.minY[i]);
+                    x2 = Math.max(x2, this.maxX[i]);
+                    y2 = Math.max(y2, this.maxY[i]);
+                    this.count--;
+                    this.minX[i] = this.minX[this.count];
+                    this.minY[i] = this.minY[this.count];
+                    this.maxX[i] = this.maxX[this.count];
+                    this.maxY[i] = this.maxY[this.count];
+                    add(x1, y1, x2, y2);
+                    return;
+                }
+            }
+            if (this.count == this.minX.length) {
+                this.minX = grow(this.minX);
+                this.minY = grow(this.minY);
+                this.maxX = grow(this.maxX);
+                this.maxY = grow(this.maxY);
+            }
+            this.minX[this.count] = x1;
+            this.minY[this.count] = y1;
+            this.maxX[this.count] = x2;
+            this.maxY[this.count] = y2;
+            this.count++;
+        }
+
+        /**
+         * Adds all the rectangles of another list.
+         *
+         * @param other The other list.
+         */
+        private void addAll(Regions other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.minX[i], other.minY[i], other.maxX[i], other.maxY[i]);
+            }
+        }
+
+        /**
+         * Removes all the rectangles.
+         */
+        private void clear() {
+            this.count = 0;
+        }
+
+        /**
+         * Returns a copy of an array with twice the length.
+         *
+         * @param array The array.
+         * @return The longer copy.
+         */
+        private static int[] grow(int[] array) {
+            int[] grown = new int[array.length * 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            return grown;
+        }
+    }
+
+    /**
+     * A DrawSurface that records the region touched by every drawing, and passes the drawing on to another
+     * surface if it has one.
+     */
+    private class Recorder implements DrawSurface {
+        private DrawSurface target;
+        private Regions regions;
+
+        /**
+         * Records a touched rectangle, grown by the margin and cut to the screen.
+         *
+         * @param x1 The left edge, not greater than the right edge.
+         * @param y1 The upper edge.
+         * @param x2 The right edge.
+         * @param y2 The lower edge.
+         */
+        private void touch(int x1, int y1, int x2, int y2) {
+            int left = Math.max(0, x1 - MARGIN);
+            int top = Math.max(0, y1 - MARGIN);
+            int right = Math.min(LayeredRenderer.this.width, x2 + MARGIN + 1);
+            int bottom = Math.min(LayeredRenderer.this.height, y2 + MARGIN + 1);
+            if (left < right && top < bottom) {
+                this.regions.add(left, top, right, bottom);
+            }
+        }
+
+        /**
+         * Returns the width of the screen.
+         *
+         * @return The width in pixels.
+         */
+        @Override
+        public int getWidth() {
+            return LayeredRenderer.this.width;
+        }
+
+        /**
+         * Returns the height of the screen.
+         *
+         * @return The height in pixels.
+         */
+        @Override
+        public int getHeight() {
+            return LayeredRenderer.this.height;
+        }
+
+        /**
+         * Sets the color of the following drawing.
+         *
+         * @param color The color.
+         */
+        @Override
+        public void setColor(Color color) {
+            if (this.target != null) {
+                this.target.setColor(color);
+            }
+        }
+
+        /**
+         * Records and draws a line.
+         *
+         * @param x1 The x-coordinate of the start.
+         * @param y1 The y-coordinate of the start.
+         * @param x2 The x-coordinate of the end.
+         * @param y2 The y-coordinate of the end.
+         */
+        @Override
+        public void drawLine(int x1, int y1, int x2, int y2) {
+            touch(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+            if (this.target != null) {
+                this.target.drawLine(x1, y1, x2, y2);
+            }
+        }
+
+        /**
+         * Records and draws the outline of an oval.
+         *
+         * @param x The x-coordinate of the upper left corner.
+         * @param y The y-coordinate of the upper left corner.
+         * @param w The width of the oval.
+         * @param h The height of the oval.
+         */
+        @Override
+        public void drawOval(int x, int y, int w, int h) {
+            touch(x, y, x + w, y + h);
+            if (this.target != null) {
+                this.target.drawOval(x, y, w, h);
+            }
+        }
+
+        /**
+         * Records and fills an oval.
+         *
+         * @param x The x-coordinate of the upper left corner.
+         * @param y The y-coordinate of the upper left corner.
+         * @param w The width of the oval.
+         * @param h The height of the oval.
+         */
+        @Override
+        public void fillOval(int x, int y, int w, int h) {
+            touch(x, y, x + w, y + h);
+            if (this.target != null) {
+                this.target.fillOval(x, y, w, h);
+            }
+        }
+
+        /**
+         * Records and draws the outline of a rectangle.
+         *
+         * @param x The x-coordinate of the upper left corner.
+         * @param y The y-coordinate of the upper left corner.
+         * @param w The width of the rectangle.
+         * @param h The height of the rectangle.
+         */
+        @Override
+        public void drawRectangle(int x, int y, int w, int h) {
+            touch(x, y, x + w, y + h);
+            if (this.target != null) {
+                this.target.drawRectangle(x, y, w, h);
+            }
+        }
+
+        /**
+         * Records and fills a rectangle.
+         *
+         * @param x The x-coordinate of the upper left corner.
+         * @param y The y-coordinate of the upper left corner.
+         * @param w The width of the rectangle.
+         * @param h The height of the rectangle.
+         */
+        @Override
+        public void fillRectangle(int x, int y, int w, int h) {
+            touch(x, y, x + w, y + h);
+            if (this.target != null) {
+                this.target.fillRectangle(x, y, w, h);
+            }
+        }
+
+        /**
+         * Records and draws an image.
+         *
+         * @param x   The x-coordinate of the upper left corner.
+         * @param y   The y-coordinate of the upper left corner.
+         * @param img The image.
+         */
+        @Override
+        public void drawImage(int x, int y, Image img) {
+            touch(x, y, x + img.getWidth(null), y + img.getHeight(null));
+            if (this.target != null) {
+                this.target.drawImage(x, y, img);
+            }
+        }
+
+        /**
+         * Records and draws the outline of a circle.
+         *
+         * @param x The x-coordinate of the center.
+         * @param y The y-coordinate of the center.
+         * @param r The radius.
+         */
+        @Override
+        public void drawCircle(int x, int y, int r) {
+            touch(x - r, y - r, x + r, y + r);
+            if (this.target != null) {
+                this.target.drawCircle(x, y, r);
+            }
+        }
+
+        /**
+         * Records and fills a circle.
+         *
+         * @param x The x-coordinate of the center.
+         * @param y The y-coordinate of the center.
+         * @param r The radius.
+         */
+        @Override
+        public void fillCircle(int x, int y, int r) {
+            touch(x - r, y - r, x + r, y + r);
+            if (this.target != null) {
+                this.target.fillCircle(x, y, r);
+            }
+        }
+
+        /**
+         * Records and draws a line of text.
+         *
+         * @param x        The x-coordinate of the start of the baseline.
+         * @param y        The y-coordinate of the baseline.
+         * @param text     The text.
+         * @param fontSize The size of the font.
+         */
+        @Override
+        public void drawText(int x, int y, String text, int fontSize) {
+            // No glyph is wider than the font size, and descents are shorter than half of it
+            touch(x, y - fontSize, x + text.length() * fontSize, y + fontSize / 2);
+            if (this.target != null) {
+                this.target.drawText(x, y, text, fontSize);
+            }
+        }
+
+        /**
+         * Records and draws the outline of a polygon.
+         *
+         * @param p The polygon.
+         */
+        @Override
+        public void drawPolygon(Polygon p) {
+            Rectangle bounds = p.getBounds();
+            touch(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height);
+            if (this.target != null) {
+                this.target.drawPolygon(p);
+            }
+        }
+
+        /**
+         * Records and fills a polygon.
+         *
+         * @param p The polygon.
+         */
+        @Override
+        public void fillPolygon(Polygon p) {
+            Rectangle bounds = p.getBounds();
+            touch(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height);
+            if (this.target != null) {
+                this.target.fillPolygon(p);
+            }
+        }
+    }
+
+    /**
+     * Constructs a renderer for a screen of the given size.
+     *
+     * @param width         The width of the screen.
+     * @param height        The height of the screen.
+     * @param staticContent Draws the static content, like the background and the blocks, on a surface.
+     */
+    public LayeredRenderer(int width, int height, Consumer<DrawSurface> staticContent) {
+        this.width = width;
+        this.height = height;
+        this.staticContent = staticContent;
+        this.staticLayer = new ImageDrawSurface(width, height);
+        this.staticDirty = new Regions();
+        this.buffers = new ImageDrawSurface[] {new ImageDrawSurface(width, height), new ImageDrawSurface(width, height)};
+        this.buffersValid = new boolean[2];
+        this.restore = new Regions[] {new Regions(), new Regions()};
+        this.recorder = new Recorder();
+    }
+
+    /**
+     * Marks the region covered by a static sprite as changed, for example after it was added or removed.
+     * The region is drawn again into the static layer before the next frame.
+     *
+     * @param s The static sprite.
+     */
+    public void invalidate(Sprite s) {
+        if (!this.staticValid) {
+            return;
+        }
+        this.recorder.target = null;
+        this.recorder.regions = this.staticDirty;
+        s.drawOn(this.recorder);
+    }
+
+    /**
+     * Marks the whole static layer as changed, so it is drawn again before the next frame.
+     */
+    public void invalidateAll() {
+        this.staticValid = false;
+    }
+
+    /**
+     * Draws a frame on the given surface: the cached static content with the moving sprites on top.
+     *
+     * @param d      The surface to draw the frame on.
+     * @param moving The sprites that may change from frame to frame.
+     * @param alpha  The fraction of the way from the previous positions of the sprites to the current ones.
+     */
+    public void render(DrawSurface d, SpriteCollection moving, double alpha) {
+        if (!this.staticValid) {
+            this.staticLayer.clearClip();
+            this.staticContent.accept(this.staticLayer);
+            this.staticDirty.clear();
+            this.buffersValid[0] = false;
+            this.buffersValid[1] = false;
+            this.staticValid = true;
+        } else if (this.staticDirty.count > 0) {
+            for (int i = 0; i < this.staticDirty.count; i++) {
+                this.staticLayer.setClip(this.staticDirty.minX[i], this.staticDirty.minY[i],
+                        this.staticDirty.maxX[i] - this.staticDirty.minX[i],
+                        this.staticDirty.maxY[i] - this.staticDirty.minY[i]);
+                this.staticContent.accept(this.staticLayer);
+            }
+            this.staticLayer.clearClip();
+            this.restore[0].addAll(this.staticDirty);
+            this.restore[1].addAll(this.staticDirty);
+            this.staticDirty.clear();
+        }
+
+        // Bring the buffer back to the static content wherever it changed since it was last used
+        ImageDrawSurface buffer = this.buffers[this.current];
+        Regions regions = this.restore[this.current];
+        if (!this.buffersValid[this.current]) {
+            buffer.clearClip();
+            buffer.drawImage(0, 0, this.staticLayer.getImage());
+            this.buffersValid[this.current] = true;
+        } else {
+            for (int i = 0; i < regions.count; i++) {
+                buffer.setClip(regions.minX[i], regions.minY[i],
+                        regions.maxX[i] - regions.minX[i], regions.maxY[i] - regions.minY[i]);
+                buffer.drawImage(0, 0, this.staticLayer.getImage());
+            }
+            buffer.clearClip();
+        }
+        regions.clear();
+
+        // Draw the moving sprites, remembering where they were drawn for the next time this buffer is used
+        this.recorder.target = buffer;
+        this.recorder.regions = regions;
+        moving.drawAllOn(this.recorder, alpha);
+        this.recorder.target = null;
+
+        d.drawImage(0, 0, buffer.getImage());
+        this.current = 1 - this.current;
+    }
+}
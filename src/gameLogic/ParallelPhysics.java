@@ -0,0 +1,101 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import geometry.Ball;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The gameLogic.ParallelPhysics class runs the collision queries of all the balls on a ForkJoin pool.
+ * The workers only read the game environment: every ball plans its next step with geometry.Ball#planStep.
+ * The sprites are then moved on the game thread in their usual order, so hits, hit listeners, and the removal
+ * of blocks and balls happen exactly as in a serial frame. A ball whose plan was made before the environment
+ * changed queries again, so the results are always the same as without the parallel phase.
+ */
+public class ParallelPhysics {
+    /**
+     * The number of balls a single task plans before the work is not split any more.
+     */
+    private static final int BATCH_SIZE = 32;
+
+    private ForkJoinPool pool;
+
+    /**
+     * A task that plans the steps of a range of balls, splitting the range while it is large.
+     */
+    private static class PlanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Ball> balls;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs a task for the balls in the range [from, to).
+         *
+         * @param balls The balls of the game.
+         * @param from  The index of the first ball.
+         * @param to    The index after the last ball.
+         */
+        PlanTask(List<Ball> balls, int from, int to) {
+            this.balls = balls;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plans the steps of the balls in the range, or splits the range in two.
+         */
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= BATCH_SIZE) {
+                for (int i = this.from; i < this.to; i++) {
+                    this.balls.get(i).planStep();
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new PlanTask(this.balls, this.from, middle), new PlanTask(this.balls, middle, this.to));
+        }
+    }
+
+    /**
+     * Constructs a new gameLogic.ParallelPhysics with a pool of the given size.
+     *
+     * @param parallelism The number of worker threads.
+     */
+    public ParallelPhysics(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Constructs a new gameLogic.ParallelPhysics with one worker thread for every available processor.
+     */
+    public ParallelPhysics() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Plans the next step of every ball, in parallel. Returns once all the plans are ready.
+     * The list and the game environment must not change until this method returns.
+     *
+     * @param balls The balls to plan.
+     */
+    public void planSteps(List<Ball> balls) {
+        if (balls.size() <= BATCH_SIZE) {
+            new PlanTask(balls, 0, balls.size()).compute();
+        } else {
+            this.pool.invoke(new PlanTask(balls, 0, balls.size()));
+        }
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+}
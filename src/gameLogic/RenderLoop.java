@@ -0,0 +1,91 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import biuoop.DrawSurface;
+import interfaces.GameWindow;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The gameLogic.RenderLoop class draws the frames recorded by the game on its own thread.
+ * The game records every frame into a gameLogic.DrawSnapshot and publishes it through a gameLogic.TripleBuffer;
+ * the render thread shows the newest published frame and skips the ones it had no time for.
+ * Neither thread waits for the other, so a slow show() does not slow the game down.
+ */
+public class RenderLoop implements Runnable {
+    /**
+     * How long the render thread rests when no new frame was published, in nanoseconds.
+     */
+    private static final long IDLE_NANOS = 500_000;
+
+    private GameWindow window;
+    private TripleBuffer<DrawSnapshot> frames;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile long framesShown;
+
+    /**
+     * Constructs a render loop that shows frames in the given window.
+     *
+     * @param window The window to show the frames in.
+     * @param frames The buffer the game publishes its frames to.
+     */
+    public RenderLoop(GameWindow window, TripleBuffer<DrawSnapshot> frames) {
+        this.window = window;
+        this.frames = frames;
+    }
+
+    /**
+     * Starts the render thread.
+     */
+    public void start() {
+        this.running = true;
+        this.thread = new Thread(this, "render");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops the render thread and waits until it has shown its last frame.
+     */
+    public void stop() {
+        this.running = false;
+        if (this.thread == null) {
+            return;
+        }
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.thread = null;
+    }
+
+    /**
+     * Returns the number of frames the render thread has shown so far.
+     *
+     * @return The number of frames shown.
+     */
+    public long getFramesShown() {
+        return this.framesShown;
+    }
+
+    /**
+     * Shows every new frame until the loop is stopped.
+     */
+    @Override
+    public void run() {
+        while (this.running) {
+            DrawSnapshot frame = this.frames.takeLatest();
+            if (frame == null) {
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            DrawSurface d = this.window.getDrawSurface();
+            frame.replay(d);
+            this.window.show(d);
+            this.framesShown++;
+        }
+    }
+}
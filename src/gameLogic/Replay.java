@@ -0,0 +1,61 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import utilities.HeadlessWindow;
+import utilities.InputLog;
+import utilities.ReplayKeyboard;
+
+/**
+ * Plays back a recorded game as fast as it can: without a window, without drawing and without waiting between
+ * steps. The recorded keys move the paddle, and the game is checked against the state hashes of the recording,
+ * so a replay that is not deterministic stops with an error at the first step that differs.
+ * Run a recording from the command line with ReplayGame.
+ */
+public class Replay {
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+
+    private InputLog log;
+    private long checkedHashes;
+
+    /**
+     * Constructs a replay of a log.
+     *
+     * @param log The recorded log.
+     */
+    public Replay(InputLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Plays the recorded game from the start until the end of the log or the end of the game.
+     *
+     * @return The result of the game.
+     * @throws IllegalStateException If the game went out of sync with the recording.
+     */
+    public SimulationResult run() {
+        Game game = new Game(new HeadlessWindow(SCREEN_WIDTH, SCREEN_HEIGHT));
+        ReplayKeyboard keyboard = game.replayInput(this.log);
+        game.initialize();
+
+        long start = System.nanoTime();
+        while (game.getTicks() < this.log.getLength() && !game.isOver()) {
+            game.tick();
+        }
+        long nanos = System.nanoTime() - start;
+
+        this.checkedHashes = keyboard.getCheckedHashes();
+        return new SimulationResult(game.getTicks(), nanos, game.getScore(), game.getBallsLeft(),
+                game.getBlocksLeft());
+    }
+
+    /**
+     * Returns the number of state hashes checked by the last run.
+     *
+     * @return The number of hashes.
+     */
+    public long getCheckedHashes() {
+        return this.checkedHashes;
+    }
+}
@@ -0,0 +1,136 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import interfaces.TickListener;
+
+/**
+ * The gameLogic.RewindBuffer class keeps the states of the last ticks of a game, so the game can be put back a
+ * number of ticks and go on from there.
+ * The states live in a ring of gameLogic.GameState objects made when the buffer is made, so the memory it takes is
+ * fixed by its capacity, and recording a tick creates no objects: the state of the tick is saved over the oldest
+ * one.
+ */
+public class RewindBuffer implements TickListener {
+    private GameState[] states;
+    private long oldest = -1; // The oldest tick in the buffer, or -1 if it is empty
+    private long newest = -1;
+
+    /**
+     * Constructs a buffer for the given number of ticks of a level.
+     *
+     * @param capacity The number of ticks to keep.
+     * @param blocks   The number of blocks of the level.
+     * @param balls    The number of balls of the level.
+     * @param paddles  The number of paddles of the level.
+     * @throws IllegalArgumentException If the capacity is less than 1.
+     */
+    public RewindBuffer(int capacity, int blocks, int balls, int paddles) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1, not " + capacity);
+        }
+        this.states = new GameState[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.states[i] = new GameState();
+            this.states[i].setCounts(blocks, balls, paddles);
+        }
+    }
+
+    /**
+     * Saves the current state of a game as the newest tick of the buffer.
+     * If the game was put back to an earlier tick, the ticks after it are forgotten.
+     *
+     * @param game The game.
+     */
+    public void record(Game game) {
+        long tick = game.getTicks();
+        game.saveState(this.states[(int) (tick % this.states.length)]);
+        if (this.newest < 0 || tick < this.oldest) {
+            this.oldest = tick;
+        }
+        this.newest = tick;
+        this.oldest = Math.max(this.oldest, tick - this.states.length + 1);
+    }
+
+    /**
+     * Forgets the ticks after the given one, after the game was put back to it.
+     *
+     * @param tick The tick the game is at now.
+     */
+    public void truncate(long tick) {
+        if (this.newest >= 0 && tick < this.newest) {
+            this.newest = Math.max(tick, this.oldest);
+        }
+    }
+
+    /**
+     * Checks if the state of a tick is in the buffer.
+     *
+     * @param tick The tick.
+     * @return True if the state of the tick is kept.
+     */
+    public boolean contains(long tick) {
+        return this.newest >= 0 && tick >= this.oldest && tick <= this.newest;
+    }
+
+    /**
+     * Returns the state of a tick.
+     *
+     * @param tick The tick, for which contains() is true.
+     * @return The state. It is overwritten when the buffer goes round, so copy it to keep it.
+     */
+    public GameState get(long tick) {
+        if (!contains(tick)) {
+            throw new IllegalArgumentException("Tick " + tick + " is not in the buffer");
+        }
+        return this.states[(int) (tick % this.states.length)];
+    }
+
+    /**
+     * Returns the oldest tick in the buffer.
+     *
+     * @return The tick, or -1 if the buffer is empty.
+     */
+    public long getOldestTick() {
+        return this.oldest;
+    }
+
+    /**
+     * Returns the newest tick in the buffer.
+     *
+     * @return The tick, or -1 if the buffer is empty.
+     */
+    public long getNewestTick() {
+        return this.newest;
+    }
+
+    /**
+     * Returns the number of ticks the buffer keeps.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return this.states.length;
+    }
+
+    /**
+     * Does nothing: the state is recorded when the tick ends.
+     *
+     * @param game The game.
+     * @param tick The number of the step.
+     */
+    @Override
+    public void beginTick(Game game, long tick) {
+    }
+
+    /**
+     * Records the state the tick ended in.
+     *
+     * @param game The game.
+     * @param tick The number of the step.
+     */
+    @Override
+    public void endTick(Game game, long tick) {
+        record(game);
+    }
+}
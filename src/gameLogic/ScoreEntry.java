@@ -0,0 +1,87 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+/**
+ * One result in the high-score log: the final score of a game, how long the game lasted, and when it ended.
+ */
+public class ScoreEntry {
+    private long sequence;
+    private long timeMillis;
+    private long ticks;
+    private int score;
+
+    /**
+     * Constructs an entry.
+     *
+     * @param sequence   The place of the entry in the log, starting from 1.
+     * @param timeMillis The time the game ended, in milliseconds since the epoch.
+     * @param ticks      The number of physics steps the game lasted.
+     * @param score      The final score.
+     */
+    public ScoreEntry(long sequence, long timeMillis, long ticks, int score) {
+        this.sequence = sequence;
+        this.timeMillis = timeMillis;
+        this.ticks = ticks;
+        this.score = score;
+    }
+
+    /**
+     * Returns the place of the entry in the log.
+     *
+     * @return The sequence, starting from 1.
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Returns the time the game ended.
+     *
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getTimeMillis() {
+        return this.timeMillis;
+    }
+
+    /**
+     * Returns the number of physics steps the game lasted.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Returns the final score.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Checks if this entry ranks above another one: a higher score first, and for equal scores the earlier entry.
+     *
+     * @param other The other entry.
+     * @return True if this entry ranks above the other one.
+     */
+    public boolean ranksAbove(ScoreEntry other) {
+        if (this.score != other.score) {
+            return this.score > other.score;
+        }
+        return this.sequence < other.sequence;
+    }
+
+    /**
+     * Returns the entry as text.
+     *
+     * @return The text.
+     */
+    @Override
+    public String toString() {
+        return String.format("#%d: score %d in %d ticks", this.sequence, this.score, this.ticks);
+    }
+}
@@ -0,0 +1,119 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The gameLogic.SessionHost class plays many game sessions at once on a small pool of worker threads.
+ * The sessions wait in a shared queue. A worker takes a session, plays a slice of its steps, and puts it back at
+ * the end of the queue, so every session keeps moving no matter how many there are. A session is only ever held
+ * by one worker, and sessions share nothing, so the workers need no locks.
+ */
+public class SessionHost {
+    /**
+     * The number of steps a worker plays of a session before moving on to the next one.
+     */
+    private static final int SLICE_TICKS = 60;
+
+    private int parallelism;
+    private ExecutorService pool;
+
+    /**
+     * A session waiting in the queue, with its place in the list of results.
+     */
+    private static class Entry {
+        private final int index;
+        private final GameSession session;
+
+        /**
+         * Constructs a queue entry.
+         *
+         * @param index   The place of the session in the list of results.
+         * @param session The session.
+         */
+        Entry(int index, GameSession session) {
+            this.index = index;
+            this.session = session;
+        }
+    }
+
+    /**
+     * Constructs a new gameLogic.SessionHost with a pool of the given size.
+     *
+     * @param parallelism The number of worker threads.
+     */
+    public SessionHost(int parallelism) {
+        this.parallelism = parallelism;
+        this.pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread worker = new Thread(r, "session-host");
+            worker.setDaemon(true);
+            return worker;
+        });
+    }
+
+    /**
+     * Constructs a new gameLogic.SessionHost with one worker thread for every available processor.
+     */
+    public SessionHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Plays all the given sessions until they finish. Returns once every session finished.
+     *
+     * @param sessions The sessions to play.
+     * @return The results of the sessions, in the order of the sessions.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public List<SimulationResult> runAll(List<GameSession> sessions) throws InterruptedException {
+        ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            queue.add(new Entry(i, sessions.get(i)));
+        }
+        SimulationResult[] results = new SimulationResult[sessions.size()];
+
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < this.parallelism; i++) {
+            workers.add(() -> {
+                // A worker stops when the queue is empty: the sessions left are held by other workers
+                Entry entry;
+                while ((entry = queue.poll()) != null) {
+                    if (entry.session.advance(SLICE_TICKS)) {
+                        queue.add(entry);
+                    } else {
+                        results[entry.index] = entry.session.getResult();
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<Void> worker : this.pool.invokeAll(workers)) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A game session failed", e.getCause());
+            }
+        }
+
+        List<SimulationResult> list = new ArrayList<>(results.length);
+        for (SimulationResult result : results) {
+            list.add(result);
+        }
+        return list;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+}
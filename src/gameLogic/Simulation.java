@@ -0,0 +1,38 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import interfaces.InputPolicy;
+
+/**
+ * Plays the game of Game.initialize() faster than real time: there is no window, nothing is drawn, and the
+ * physics steps run back to back instead of at the physics rate.
+ * The paddle is moved by an input policy, which presses the arrow keys of a scripted keyboard before every step.
+ * The game stops when all the balls are lost, all the bricks are removed, or the step limit is reached.
+ */
+public class Simulation {
+    private InputPolicy policy;
+    private long maxTicks;
+
+    /**
+     * Constructs a simulation.
+     *
+     * @param policy   The policy that moves the paddle.
+     * @param maxTicks The most physics steps to run.
+     */
+    public Simulation(InputPolicy policy, long maxTicks) {
+        this.policy = policy;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Plays one game from the start.
+     *
+     * @return The result of the game.
+     */
+    public SimulationResult run() {
+        GameSession session = new GameSession(this.policy, this.maxTicks);
+        session.advance(this.maxTicks);
+        return session.getResult();
+    }
+}
@@ -0,0 +1,96 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+/**
+ * The outcome of one simulated game: how far it got, how long it took, and how well the player did.
+ */
+public class SimulationResult {
+    private long ticks;
+    private long nanos;
+    private int score;
+    private int ballsLeft;
+    private int blocksLeft;
+
+    /**
+     * Constructs the result of a simulated game.
+     *
+     * @param ticks      The number of physics steps that were run.
+     * @param nanos      The wall-clock time the steps took, in nanoseconds.
+     * @param score      The final score.
+     * @param ballsLeft  The number of balls still in the game.
+     * @param blocksLeft The number of bricks still in the game.
+     */
+    public SimulationResult(long ticks, long nanos, int score, int ballsLeft, int blocksLeft) {
+        this.ticks = ticks;
+        this.nanos = nanos;
+        this.score = score;
+        this.ballsLeft = ballsLeft;
+        this.blocksLeft = blocksLeft;
+    }
+
+    /**
+     * Returns the number of physics steps that were run.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Returns the wall-clock time the steps took.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * Returns the final score.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Returns the number of balls still in the game when it stopped.
+     *
+     * @return The number of balls.
+     */
+    public int getBallsLeft() {
+        return this.ballsLeft;
+    }
+
+    /**
+     * Returns the number of bricks still in the game when it stopped.
+     *
+     * @return The number of bricks.
+     */
+    public int getBlocksLeft() {
+        return this.blocksLeft;
+    }
+
+    /**
+     * Returns how many physics steps were run per second of wall-clock time.
+     *
+     * @return The ticks per second.
+     */
+    public double getTicksPerSecond() {
+        return this.nanos == 0 ? 0 : this.ticks * 1e9 / this.nanos;
+    }
+
+    /**
+     * Returns a one-line summary of the result.
+     *
+     * @return The summary.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d ticks in %.1f ms (%.0f ticks/s), score %d, %d balls and %d bricks left",
+                this.ticks, this.nanos / 1e6, getTicksPerSecond(), this.score, this.ballsLeft, this.blocksLeft);
+    }
+}
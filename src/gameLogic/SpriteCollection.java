@@ -3,55 +3,99 @@
 package gameLogic;
 
 import biuoop.DrawSurface;
+import interfaces.Interpolated;
 import interfaces.Sprite;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * The gameLogic.SpriteCollection class represents a collection of sprites in a game.
+ * The sprites are kept in an array, in the order they were added, and every sprite knows its slot, so removing
+ * one only clears its slot. The holes are closed before the next pass over the sprites.
+ * Sprites added or removed while the collection is being passed over, for example a block that removes itself
+ * when it is hit, are queued and applied when the pass ends, so passing over the sprites needs no copy.
+ * The collection belongs to the game loop and is not meant to be changed from other threads.
  */
 public class SpriteCollection {
-    private List<Sprite> gameSprites;
+    private Sprite[] gameSprites;
+    private int size;                // The number of used slots, including holes
+    private int holes;               // The number of removed sprites whose slots were not closed yet
+    private Map<Sprite, Integer> slots;
+    private boolean passing;         // True while timePassed() or drawOn() is called on the sprites
+    private Sprite[] pendingSprites; // Sprites added or removed during a pass, in the order it happened
+    private boolean[] pendingAdds;
+    private int pendingCount;
 
     /**
      * Creates a new gameLogic.SpriteCollection with an empty list of sprites.
      */
     public SpriteCollection() {
-        this.gameSprites = new LinkedList<>();
+        this.gameSprites = new Sprite[16];
+        this.slots = new IdentityHashMap<>();
+        this.pendingSprites = new Sprite[8];
+        this.pendingAdds = new boolean[8];
     }
 
     /**
-     * Adds a sprite to the collection.
+     * Adds a sprite to the collection. During a pass, the sprite is added when the pass ends.
      *
      * @param s The sprite to be added.
      */
-    public synchronized void addSprite(Sprite s) {
-        gameSprites.add(s);
+    public void addSprite(Sprite s) {
+        if (this.passing) {
+            enqueue(s, true);
+        } else {
+            insert(s);
+        }
     }
 
     /**
-     * Removes a sprite from the collection.
+     * Removes a sprite from the collection. During a pass, the sprite is removed when the pass ends.
      *
      * @param s The sprite to be removed.
      */
-    public synchronized void removeSprite(Sprite s) {
-        gameSprites.remove(s);
+    public void removeSprite(Sprite s) {
+        if (this.passing) {
+            enqueue(s, false);
+        } else {
+            delete(s);
+        }
+    }
+
+    /**
+     * Returns the number of sprites in the collection.
+     *
+     * @return The number of sprites.
+     */
+    public int size() {
+        return this.size - this.holes;
+    }
+
+    /**
+     * Checks if a sprite is in the collection. Changes queued during a pass are not counted until it ends.
+     *
+     * @param s The sprite.
+     * @return True if the sprite is in the collection, false otherwise.
+     */
+    public boolean contains(Sprite s) {
+        return this.slots.containsKey(s);
     }
 
     /**
      * Calls the timePassed() method on all sprites in the collection.
      */
     public void notifyAllTimePassed() {
-        // Create a copy of the list to avoid ConcurrentModificationException
-        List<Sprite> spritesCopy;
-        synchronized (this) {
-            spritesCopy = new LinkedList<>(gameSprites);
-        }
-
-        // Iterate over the copied list and call timePassed() on each sprite
-        for (Sprite sprite : spritesCopy) {
-            sprite.timePassed();
+        beginPass();
+        try {
+            for (int i = 0; i < this.size; i++) {
+                Sprite sprite = this.gameSprites[i];
+                if (sprite != null) {
+                    sprite.timePassed();
+                }
+            }
+        } finally {
+            endPass();
         }
     }
 
@@ -61,15 +105,143 @@ public class SpriteCollection {
      * @param d The DrawSurface on which the sprites will be drawn.
      */
     public void drawAllOn(DrawSurface d) {
-        // Create a copy of the list to avoid ConcurrentModificationException
-        List<Sprite> spritesCopy;
-        synchronized (this) {
-            spritesCopy = new LinkedList<>(gameSprites);
+        beginPass();
+        try {
+            for (int i = 0; i < this.size; i++) {
+                Sprite sprite = this.gameSprites[i];
+                if (sprite != null) {
+                    sprite.drawOn(d);
+                }
+            }
+        } finally {
+            endPass();
         }
+    }
+
+    /**
+     * Calls the drawOn(d) method on all sprites in the collection, drawing the sprites that move between
+     * physics steps at the given point between their previous and current positions.
+     *
+     * @param d     The DrawSurface on which the sprites will be drawn.
+     * @param alpha The fraction of the way from the previous positions to the current ones.
+     */
+    public void drawAllOn(DrawSurface d, double alpha) {
+        beginPass();
+        try {
+            for (int i = 0; i < this.size; i++) {
+                Sprite sprite = this.gameSprites[i];
+                if (sprite instanceof Interpolated) {
+                    ((Interpolated) sprite).drawOn(d, alpha);
+                } else if (sprite != null) {
+                    sprite.drawOn(d);
+                }
+            }
+        } finally {
+            endPass();
+        }
+    }
 
-        // Iterate over the copied list and call drawOn(d) on each sprite
-        for (Sprite sprite : spritesCopy) {
-            sprite.drawOn(d);
+    /**
+     * Starts a pass over the sprites, closing the holes left by removed sprites first.
+     */
+    private void beginPass() {
+        if (this.holes > 0) {
+            compact();
+        }
+        this.passing = true;
+    }
+
+    /**
+     * Ends a pass over the sprites, and applies the changes queued during it in order.
+     */
+    private void endPass() {
+        this.passing = false;
+        for (int i = 0; i < this.pendingCount; i++) {
+            if (this.pendingAdds[i]) {
+                insert(this.pendingSprites[i]);
+            } else {
+                delete(this.pendingSprites[i]);
+            }
+            this.pendingSprites[i] = null;
+        }
+        this.pendingCount = 0;
+    }
+
+    /**
+     * Queues a change made during a pass.
+     *
+     * @param s   The sprite to add or remove.
+     * @param add True to add the sprite, false to remove it.
+     */
+    private void enqueue(Sprite s, boolean add) {
+        if (this.pendingCount == this.pendingSprites.length) {
+            Sprite[] grownSprites = new Sprite[this.pendingCount * 2];
+            boolean[] grownAdds = new boolean[this.pendingCount * 2];
+            System.arraycopy(this.pendingSprites, 0, grownSprites, 0, this.pendingCount);
+            System.arraycopy(this.pendingAdds, 0, grownAdds, 0, this.pendingCount);
+            this.pendingSprites = grownSprites;
+            this.pendingAdds = grownAdds;
+        }
+        this.pendingSprites[this.pendingCount] = s;
+        this.pendingAdds[this.pendingCount] = add;
+        this.pendingCount++;
+    }
+
+    /**
+     * Puts a sprite in the next free slot at the end of the array. A sprite is only kept once.
+     *
+     * @param s The sprite to be added.
+     */
+    private void insert(Sprite s) {
+        if (this.slots.containsKey(s)) {
+            return;
+        }
+        if (this.size == this.gameSprites.length) {
+            if (this.holes > 0) {
+                compact();
+            } else {
+                Sprite[] grown = new Sprite[this.size * 2];
+                System.arraycopy(this.gameSprites, 0, grown, 0, this.size);
+                this.gameSprites = grown;
+            }
+        }
+        this.slots.put(s, this.size);
+        this.gameSprites[this.size++] = s;
+    }
+
+    /**
+     * Clears the slot of a sprite.
+     *
+     * @param s The sprite to be removed.
+     */
+    private void delete(Sprite s) {
+        Integer slot = this.slots.remove(s);
+        if (slot != null) {
+            this.gameSprites[slot] = null;
+            this.holes++;
+        }
+    }
+
+    /**
+     * Moves the sprites down over the holes, keeping their order.
+     */
+    private void compact() {
+        int next = 0;
+        for (int i = 0; i < this.size; i++) {
+            Sprite sprite = this.gameSprites[i];
+            if (sprite == null) {
+                continue;
+            }
+            if (next != i) {
+                this.gameSprites[next] = sprite;
+                this.slots.put(sprite, next);
+            }
+            next++;
+        }
+        for (int i = next; i < this.size; i++) {
+            this.gameSprites[i] = null;
         }
+        this.size = next;
+        this.holes = 0;
     }
 }
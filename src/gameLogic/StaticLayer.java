@@ -0,0 +1,487 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import geometry.Rectangle;
+import interfaces.BroadPhase;
+import interfaces.Collidable;
+import utilities.CandidateCache;
+import utilities.RayHit;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The gameLogic.StaticLayer class is a broad phase for collidables that never move, like borders and blocks.
+ * The collidables are packed into a bounding volume tree stored in flat arrays, which is built once, the first
+ * time it is queried after collidables were added. Removing a collidable does not rebuild the tree: the
+ * collidable is only marked as removed and the boxes above it are shrunk. The tree is rebuilt when
+ * collidables are added again, or when most of its collidables have been removed.
+ */
+public class StaticLayer implements BroadPhase {
+    /**
+     * The most collidables kept in a single leaf.
+     */
+    private static final int LEAF_SIZE = 4;
+
+    /**
+     * Extra space around each box, so trajectories that touch a box exactly are not pruned.
+     */
+    private static final double PADDING = 1e-7;
+
+    // The collidables of the layer, in the order they were added, with that order
+    private Map<Collidable, Integer> members;
+    private int nextOrder;
+    private volatile boolean dirty;
+
+    // The collidables the tree was built from
+    private Map<Collidable, Integer> itemOf;
+    private Collidable[] items;
+    private int[] itemOrder;
+    private boolean[] itemAlive;
+    private int[] itemLeaf;
+    private int[] permutation;
+    private int removedItems;
+
+    // The nodes of the tree; node 0 is the root and the children of node i are left[i] and left[i] + 1
+    private double[] nodeMinX;
+    private double[] nodeMinY;
+    private double[] nodeMaxX;
+    private double[] nodeMaxY;
+    private int[] nodeLeft;
+    private int[] nodeStart;
+    private int[] nodeCount;
+    private int[] nodeParent;
+    private int nodes;
+
+    /**
+     * Constructs an empty static layer.
+     */
+    public StaticLayer() {
+        this.members = new LinkedHashMap<>();
+        this.itemOf = new HashMap<>();
+        this.items = new Collidable[0];
+    }
+
+    /**
+     * Adds a collidable to the layer. The tree is rebuilt before the next query.
+     *
+     * @param collidable The collidable to be added.
+     */
+    @Override
+    public void add(Collidable collidable) {
+        this.members.put(collidable, this.nextOrder++);
+        this.dirty = true;
+    }
+
+    /**
+     * Removes a collidable from the layer, and shrinks the boxes that held it.
+     *
+     * @param collidable The collidable to be removed.
+     */
+    @Override
+    public void remove(Collidable collidable) {
+        if (this.members.remove(collidable) == null) {
+            return;
+        }
+        Integer item = this.itemOf.remove(collidable);
+        if (item == null || this.dirty) {
+            return;
+        }
+
+        this.itemAlive[item] = false;
+        this.removedItems++;
+        if (this.removedItems * 2 > this.items.length) {
+            this.dirty = true;
+            return;
+        }
+        int node = this.itemLeaf[item];
+        fitLeaf(node);
+        for (node = this.nodeParent[node]; node >= 0; node = this.nodeParent[node]) {
+            fitChildren(node);
+        }
+    }
+
+    /**
+     * Updates the layer after a collidable moved. The layer is meant for collidables that do not move,
+     * so the tree is simply rebuilt before the next query.
+     *
+     * @param collidable The collidable that moved.
+     */
+    @Override
+    public void update(Collidable collidable) {
+        if (this.members.containsKey(collidable)) {
+            this.dirty = true;
+        }
+    }
+
+    /**
+     * Checks if the index refits a moved collidable in place.
+     * The layer is built once for collidables that never move, and a move rebuilds it.
+     *
+     * @return False.
+     */
+    @Override
+    public boolean refitsInPlace() {
+        return false;
+    }
+
+    /**
+     * Finds the closest collision of a circle moving from (x0, y0) to (x0 + dx, y0 + dy), without creating objects.
+     * Subtrees whose box, grown by the radius, is entered later than the best hit so far are skipped.
+     *
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @param hit    The closest hit so far, filled with a closer collision if one is found.
+     * @return True if a collision was found, false otherwise.
+     */
+    @Override
+    public boolean closestHit(double x0, double y0, double dx, double dy, double radius, RayHit hit) {
+        if (this.dirty) {
+            build();
+        }
+        if (this.nodes > 0 && isCloser(entryTime(0, x0, y0, dx, dy, radius), hit)) {
+            search(0, x0, y0, dx, dy, radius, hit);
+        }
+        return hit.isHit();
+    }
+
+    /**
+     * Adds every collidable whose box overlaps the given box to the cache.
+     *
+     * @param minX  The left edge of the box.
+     * @param minY  The upper edge of the box.
+     * @param maxX  The right edge of the box.
+     * @param maxY  The lower edge of the box.
+     * @param cache The cache to fill.
+     */
+    @Override
+    public void collectOverlapping(double minX, double minY, double maxX, double maxY, CandidateCache cache) {
+        if (this.dirty) {
+            build();
+        }
+        if (this.nodes > 0) {
+            collect(0, minX, minY, maxX, maxY, cache);
+        }
+    }
+
+    /**
+     * Adds the collidables of a subtree whose boxes overlap the given box to the cache.
+     *
+     * @param node  The root of the subtree.
+     * @param minX  The left edge of the box.
+     * @param minY  The upper edge of the box.
+     * @param maxX  The right edge of the box.
+     * @param maxY  The lower edge of the box.
+     * @param cache The cache to fill.
+     */
+    private void collect(int node, double minX, double minY, double maxX, double maxY, CandidateCache cache) {
+        if (this.nodeMinX[node] > maxX || this.nodeMaxX[node] < minX
+                || this.nodeMinY[node] > maxY || this.nodeMaxY[node] < minY) {
+            return;
+        }
+        int left = this.nodeLeft[node];
+        if (left >= 0) {
+            collect(left, minX, minY, maxX, maxY, cache);
+            collect(left + 1, minX, minY, maxX, maxY, cache);
+            return;
+        }
+        int end = this.nodeStart[node] + this.nodeCount[node];
+        for (int i = this.nodeStart[node]; i < end; i++) {
+            int item = this.permutation[i];
+            if (this.itemAlive[item]) {
+                cache.add(this.items[item], this.itemOrder[item]);
+            }
+        }
+    }
+
+    /**
+     * Searches a subtree for hits closer than the best one found so far, nearer child first.
+     *
+     * @param node   The root of the subtree, already known to be on the segment.
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @param hit    The closest hit so far.
+     */
+    private void search(int node, double x0, double y0, double dx, double dy, double radius, RayHit hit) {
+        int left = this.nodeLeft[node];
+        if (left < 0) {
+            int end = this.nodeStart[node] + this.nodeCount[node];
+            for (int i = this.nodeStart[node]; i < end; i++) {
+                int item = this.permutation[i];
+                if (!this.itemAlive[item]) {
+                    continue;
+                }
+                Rectangle rectangle = this.items[item].getCollisionRectangle();
+                if (rectangle.sweepCircle(x0, y0, dx, dy, radius, this.itemOrder[item] < hit.getOrder(), hit)) {
+                    hit.setCollidable(this.items[item], this.itemOrder[item]);
+                }
+            }
+            return;
+        }
+
+        int right = left + 1;
+        double leftEntry = entryTime(left, x0, y0, dx, dy, radius);
+        double rightEntry = entryTime(right, x0, y0, dx, dy, radius);
+        if (rightEntry < leftEntry) {
+            int swap = left;
+            left = right;
+            right = swap;
+            double swapEntry = leftEntry;
+            leftEntry = rightEntry;
+            rightEntry = swapEntry;
+        }
+        if (isCloser(leftEntry, hit)) {
+            search(left, x0, y0, dx, dy, radius, hit);
+        }
+        if (isCloser(rightEntry, hit)) {
+            search(right, x0, y0, dx, dy, radius, hit);
+        }
+    }
+
+    /**
+     * Checks if a box entered at the given time may hold a hit closer than the best one so far.
+     *
+     * @param entry The time at which the segment enters the box, or infinity if it misses it.
+     * @param hit   The closest hit so far.
+     * @return True if the box has to be searched, false otherwise.
+     */
+    private static boolean isCloser(double entry, RayHit hit) {
+        return entry <= 1 && entry <= hit.getTime();
+    }
+
+    /**
+     * Returns the time at which the segment enters the box of a node, grown by the given radius.
+     *
+     * @param node   The node to check.
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @return The fraction of the segment before the box, 0 if it starts inside, or infinity if it misses the box.
+     */
+    private double entryTime(int node, double x0, double y0, double dx, double dy, double radius) {
+        if (this.nodeMinX[node] > this.nodeMaxX[node]) {
+            return Double.POSITIVE_INFINITY; // Everything under this node was removed
+        }
+        double minX = this.nodeMinX[node] - radius;
+        double minY = this.nodeMinY[node] - radius;
+        double maxX = this.nodeMaxX[node] + radius;
+        double maxY = this.nodeMaxY[node] + radius;
+        double enter = 0;
+        double exit = 1;
+        if (dx == 0) {
+            if (x0 < minX || x0 > maxX) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (minX - x0) / dx;
+            double t2 = (maxX - x0) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (y0 < minY || y0 > maxY) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (minY - y0) / dy;
+            double t2 = (maxY - y0) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return enter <= exit ? enter : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Packs the current collidables into a new tree. Several threads may query the layer at once,
+     * so only the first of them builds it.
+     */
+    private synchronized void build() {
+        if (!this.dirty) {
+            return;
+        }
+        int count = this.members.size();
+        this.items = new Collidable[count];
+        this.itemOrder = new int[count];
+        this.itemAlive = new boolean[count];
+        this.itemLeaf = new int[count];
+        this.permutation = new int[count];
+        this.itemOf.clear();
+        this.removedItems = 0;
+
+        double[] minX = new double[count];
+        double[] minY = new double[count];
+        double[] maxX = new double[count];
+        double[] maxY = new double[count];
+        int i = 0;
+        for (Map.Entry<Collidable, Integer> member : this.members.entrySet()) {
+            Rectangle rectangle = member.getKey().getCollisionRectangle();
+            this.items[i] = member.getKey();
+            this.itemOrder[i] = member.getValue();
+            this.itemAlive[i] = true;
+            this.permutation[i] = i;
+            this.itemOf.put(member.getKey(), i);
+            minX[i] = rectangle.getUpperLeft().getX() - PADDING;
+            minY[i] = rectangle.getUpperLeft().getY() - PADDING;
+            maxX[i] = rectangle.getUpperLeft().getX() + rectangle.getWidth() + PADDING;
+            maxY[i] = rectangle.getUpperLeft().getY() + rectangle.getHeight() + PADDING;
+            i++;
+        }
+
+        int capacity = Math.max(1, 2 * count);
+        this.nodeMinX = new double[capacity];
+        this.nodeMinY = new double[capacity];
+        this.nodeMaxX = new double[capacity];
+        this.nodeMaxY = new double[capacity];
+        this.nodeLeft = new int[capacity];
+        this.nodeStart = new int[capacity];
+        this.nodeCount = new int[capacity];
+        this.nodeParent = new int[capacity];
+        this.nodes = 0;
+        if (count > 0) {
+            this.nodes = 1;
+            buildNode(0, -1, 0, count, minX, minY, maxX, maxY);
+        }
+        this.dirty = false;
+    }
+
+    /**
+     * Builds a node over a range of the permutation, splitting it at the median along its longer axis.
+     *
+     * @param node   The index of the node to build.
+     * @param parent The index of its parent, or -1 for the root.
+     * @param start  The first index of the range.
+     * @param end    The index after the last one of the range.
+     * @param minX   The left edge of every item.
+     * @param minY   The upper edge of every item.
+     * @param maxX   The right edge of every item.
+     * @param maxY   The lower edge of every item.
+     */
+    private void buildNode(int node, int parent, int start, int end,
+                           double[] minX, double[] minY, double[] maxX, double[] maxY) {
+        this.nodeParent[node] = parent;
+        this.nodeStart[node] = start;
+        this.nodeCount[node] = end - start;
+        this.nodeMinX[node] = Double.POSITIVE_INFINITY;
+        this.nodeMinY[node] = Double.POSITIVE_INFINITY;
+        this.nodeMaxX[node] = Double.NEGATIVE_INFINITY;
+        this.nodeMaxY[node] = Double.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            int item = this.permutation[i];
+            this.nodeMinX[node] = Math.min(this.nodeMinX[node], minX[item]);
+            this.nodeMinY[node] = Math.min(this.nodeMinY[node], minY[item]);
+            this.nodeMaxX[node] = Math.max(this.nodeMaxX[node], maxX[item]);
+            this.nodeMaxY[node] = Math.max(this.nodeMaxY[node], maxY[item]);
+        }
+
+        if (end - start <= LEAF_SIZE) {
+            this.nodeLeft[node] = -1;
+            for (int i = start; i < end; i++) {
+                this.itemLeaf[this.permutation[i]] = node;
+            }
+            return;
+        }
+
+        // Split at the median center along the longer side of the box
+        boolean alongX = this.nodeMaxX[node] - this.nodeMinX[node] >= this.nodeMaxY[node] - this.nodeMinY[node];
+        double[] low = alongX ? minX : minY;
+        double[] high = alongX ? maxX : maxY;
+        int middle = (start + end) >>> 1;
+        select(start, end - 1, middle, low, high);
+
+        int left = this.nodes;
+        this.nodes += 2;
+        this.nodeLeft[node] = left;
+        buildNode(left, node, start, middle, minX, minY, maxX, maxY);
+        buildNode(left + 1, node, middle, end, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Reorders a range of the permutation so the item at index k has the k-th smallest center,
+     * with smaller centers before it and larger ones after it.
+     *
+     * @param from The first index of the range.
+     * @param to   The last index of the range.
+     * @param k    The index to put in place.
+     * @param low  The lower edge of every item along the split axis.
+     * @param high The upper edge of every item along the split axis.
+     */
+    private void select(int from, int to, int k, double[] low, double[] high) {
+        while (from < to) {
+            int pivotItem = this.permutation[(from + to) >>> 1];
+            double pivot = low[pivotItem] + high[pivotItem];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (low[this.permutation[i]] + high[this.permutation[i]] < pivot) {
+                    i++;
+                }
+                while (low[this.permutation[j]] + high[this.permutation[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = this.permutation[i];
+                    this.permutation[i] = this.permutation[j];
+                    this.permutation[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                to = j;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Shrinks the box of a leaf to the collidables in it that were not removed.
+     *
+     * @param node The leaf to fit.
+     */
+    private void fitLeaf(int node) {
+        this.nodeMinX[node] = Double.POSITIVE_INFINITY;
+        this.nodeMinY[node] = Double.POSITIVE_INFINITY;
+        this.nodeMaxX[node] = Double.NEGATIVE_INFINITY;
+        this.nodeMaxY[node] = Double.NEGATIVE_INFINITY;
+        int end = this.nodeStart[node] + this.nodeCount[node];
+        for (int i = this.nodeStart[node]; i < end; i++) {
+            int item = this.permutation[i];
+            if (!this.itemAlive[item]) {
+                continue;
+            }
+            Rectangle rectangle = this.items[item].getCollisionRectangle();
+            double x = rectangle.getUpperLeft().getX();
+            double y = rectangle.getUpperLeft().getY();
+            this.nodeMinX[node] = Math.min(this.nodeMinX[node], x - PADDING);
+            this.nodeMinY[node] = Math.min(this.nodeMinY[node], y - PADDING);
+            this.nodeMaxX[node] = Math.max(this.nodeMaxX[node], x + rectangle.getWidth() + PADDING);
+            this.nodeMaxY[node] = Math.max(this.nodeMaxY[node], y + rectangle.getHeight() + PADDING);
+        }
+    }
+
+    /**
+     * Sets the box of an inner node to the box that bounds both of its children.
+     *
+     * @param node The inner node to fit.
+     */
+    private void fitChildren(int node) {
+        int left = this.nodeLeft[node];
+        this.nodeMinX[node] = Math.min(this.nodeMinX[left], this.nodeMinX[left + 1]);
+        this.nodeMinY[node] = Math.min(this.nodeMinY[left], this.nodeMinY[left + 1]);
+        this.nodeMaxX[node] = Math.max(this.nodeMaxX[left], this.nodeMaxX[left + 1]);
+        this.nodeMaxY[node] = Math.max(this.nodeMaxY[left], this.nodeMaxY[left + 1]);
+    }
+}
@@ -0,0 +1,227 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import geometry.Ball;
+import geometry.Point;
+import utilities.Velocity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The gameLogic.SweepAndPrune class finds and resolves collisions between balls.
+ * Every ball has two endpoints on the x axis, the left and right edges of its circle. The endpoints are
+ * kept sorted between frames, and since balls move only a little in one frame, an insertion sort brings
+ * them back in order in about linear time. Sweeping the sorted endpoints finds the balls whose x ranges
+ * overlap, and only those pairs are tested. Adding or removing a ball inserts or drops only its own two
+ * endpoints, so the order of the others is kept.
+ */
+public class SweepAndPrune {
+    private List<Ball> balls;
+    private int[] endpoints;  // ball index * 2, plus 1 for a right edge
+    private double[] values;  // the x-coordinate of each endpoint, in the same order
+    private int[] active;
+
+    /**
+     * Constructs a new gameLogic.SweepAndPrune with no balls.
+     */
+    public SweepAndPrune() {
+        this.balls = new ArrayList<>();
+        this.endpoints = new int[0];
+        this.values = new double[0];
+        this.active = new int[0];
+    }
+
+    /**
+     * Adds a ball to the collision checks.
+     *
+     * @param ball The ball to be added.
+     */
+    public void addBall(Ball ball) {
+        int index = this.balls.size();
+        this.balls.add(ball);
+        insertEndpoint(index * 2);
+        insertEndpoint(index * 2 + 1);
+        this.active = new int[this.balls.size()];
+    }
+
+    /**
+     * Removes a ball from the collision checks.
+     *
+     * @param ball The ball to be removed.
+     */
+    public void removeBall(Ball ball) {
+        int index = this.balls.indexOf(ball);
+        if (index < 0) {
+            return;
+        }
+        this.balls.remove(index);
+
+        // Drop the two endpoints of the ball, and renumber the balls after it, keeping the order
+        int kept = 0;
+        for (int i = 0; i < this.endpoints.length; i++) {
+            int endpoint = this.endpoints[i];
+            if (endpoint >> 1 == index) {
+                continue;
+            }
+            this.endpoints[kept] = endpoint >> 1 > index ? endpoint - 2 : endpoint;
+            this.values[kept] = this.values[i];
+            kept++;
+        }
+        int[] endpoints = new int[kept];
+        double[] values = new double[kept];
+        System.arraycopy(this.endpoints, 0, endpoints, 0, kept);
+        System.arraycopy(this.values, 0, values, 0, kept);
+        this.endpoints = endpoints;
+        this.values = values;
+        this.active = new int[this.balls.size()];
+    }
+
+    /**
+     * Finds all the pairs of overlapping balls, and bounces each pair off each other.
+     */
+    public void resolveCollisions() {
+        // Move the endpoints to the new ball positions, then restore the order
+        for (int i = 0; i < this.endpoints.length; i++) {
+            this.values[i] = edgeOf(this.endpoints[i]);
+        }
+        insertionSort();
+
+        // Sweep from left to right, keeping the balls whose range is open
+        int activeCount = 0;
+        for (int i = 0; i < this.endpoints.length; i++) {
+            int ballIndex = this.endpoints[i] >> 1;
+            if ((this.endpoints[i] & 1) == 1) {
+                for (int j = 0; j < activeCount; j++) {
+                    if (this.active[j] == ballIndex) {
+                        this.active[j] = this.active[--activeCount];
+                        break;
+                    }
+                }
+                continue;
+            }
+            Ball ball = this.balls.get(ballIndex);
+            for (int j = 0; j < activeCount; j++) {
+                collide(this.balls.get(this.active[j]), ball);
+            }
+            this.active[activeCount++] = ballIndex;
+        }
+    }
+
+    /**
+     * Bounces two balls off each other if they overlap and move towards each other.
+     * The balls have the same mass, so they swap the parts of their velocities along the line
+     * between their centers, and are pushed apart until they just touch.
+     *
+     * @param first  The first ball.
+     * @param second The second ball.
+     */
+    private static void collide(Ball first, Ball second) {
+        Point c1 = first.getCenter();
+        Point c2 = second.getCenter();
+        double nx = c2.getX() - c1.getX();
+        double ny = c2.getY() - c1.getY();
+        double minDistance = first.getSize() + second.getSize();
+        double squared = nx * nx + ny * ny;
+        if (squared >= minDistance * minDistance || squared == 0) {
+            return;
+        }
+
+        double distance = Math.sqrt(squared);
+        nx /= distance;
+        ny /= distance;
+
+        // Push the balls apart along the normal
+        double push = (minDistance - distance) / 2;
+        c1.setX(c1.getX() - nx * push);
+        c1.setY(c1.getY() - ny * push);
+        c2.setX(c2.getX() + nx * push);
+        c2.setY(c2.getY() + ny * push);
+
+        // Exchange the normal parts of the velocities if the balls approach each other
+        Velocity v1 = first.getVelocity();
+        Velocity v2 = second.getVelocity();
+        double approach = (v2.getDx() - v1.getDx()) * nx + (v2.getDy() - v1.getDy()) * ny;
+        if (approach < 0) {
+            v1.setDx(v1.getDx() + approach * nx);
+            v1.setDy(v1.getDy() + approach * ny);
+            v2.setDx(v2.getDx() - approach * nx);
+            v2.setDy(v2.getDy() - approach * ny);
+        }
+    }
+
+    /**
+     * Returns the current x-coordinate of an endpoint.
+     *
+     * @param endpoint The endpoint code.
+     * @return The x-coordinate of the left or right edge of the ball.
+     */
+    private double edgeOf(int endpoint) {
+        Ball ball = this.balls.get(endpoint >> 1);
+        double x = ball.getCenter().getX();
+        return (endpoint & 1) == 1 ? x + ball.getSize() : x - ball.getSize();
+    }
+
+    /**
+     * Checks if an endpoint goes before another one. Left edges go before right edges at the same x, so touching
+     * balls are tested.
+     *
+     * @param value     The x-coordinate of the endpoint.
+     * @param endpoint  The endpoint code.
+     * @param other     The x-coordinate of the other endpoint.
+     * @param otherCode The code of the other endpoint.
+     * @return True if the endpoint goes first.
+     */
+    private static boolean before(double value, int endpoint, double other, int otherCode) {
+        return value < other || (value == other && (endpoint & 1) < (otherCode & 1));
+    }
+
+    /**
+     * Sorts the endpoints by their x-coordinates. Fast when they are almost sorted already.
+     */
+    private void insertionSort() {
+        for (int i = 1; i < this.endpoints.length; i++) {
+            int endpoint = this.endpoints[i];
+            double value = this.values[i];
+            int j = i - 1;
+            while (j >= 0 && before(value, endpoint, this.values[j], this.endpoints[j])) {
+                this.endpoints[j + 1] = this.endpoints[j];
+                this.values[j + 1] = this.values[j];
+                j--;
+            }
+            this.endpoints[j + 1] = endpoint;
+            this.values[j + 1] = value;
+        }
+    }
+
+    /**
+     * Inserts the endpoint of a new ball at its place among the sorted endpoints, found by a binary search.
+     *
+     * @param endpoint The endpoint code.
+     */
+    private void insertEndpoint(int endpoint) {
+        double value = edgeOf(endpoint);
+        int low = 0;
+        int high = this.endpoints.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (before(value, endpoint, this.values[middle], this.endpoints[middle])) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        int[] endpoints = new int[this.endpoints.length + 1];
+        double[] values = new double[this.values.length + 1];
+        System.arraycopy(this.endpoints, 0, endpoints, 0, low);
+        System.arraycopy(this.values, 0, values, 0, low);
+        endpoints[low] = endpoint;
+        values[low] = value;
+        System.arraycopy(this.endpoints, low, endpoints, low + 1, this.endpoints.length - low);
+        System.arraycopy(this.values, low, values, low + 1, this.values.length - low);
+        this.endpoints = endpoints;
+        this.values = values;
+    }
+}
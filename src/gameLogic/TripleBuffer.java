@@ -0,0 +1,78 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The gameLogic.TripleBuffer class hands the latest of a stream of values from one producer thread to one
+ * consumer thread without locks. It holds three slots: the producer fills the back slot, the consumer reads the
+ * front slot, and the third slot holds the newest published value. Publishing and taking swap a slot with the
+ * middle one in a single atomic step, so neither thread ever waits for the other, and values the consumer had
+ * no time to take are simply skipped.
+ *
+ * @param <T> The type of the values, reused between frames.
+ */
+public class TripleBuffer<T> {
+    /**
+     * Set in the state when the middle slot holds a value the consumer has not taken yet.
+     */
+    private static final int FRESH = 4;
+
+    /**
+     * The bits of the state that hold the index of the middle slot.
+     */
+    private static final int INDEX = 3;
+
+    private Object[] slots;
+    private AtomicInteger middle;
+    private int back;   // Only used by the producer
+    private int front;  // Only used by the consumer
+
+    /**
+     * Constructs a triple buffer over three values.
+     *
+     * @param first  The first value, used as the back slot.
+     * @param second The second value, used as the middle slot.
+     * @param third  The third value, used as the front slot.
+     */
+    public TripleBuffer(T first, T second, T third) {
+        this.slots = new Object[] {first, second, third};
+        this.back = 0;
+        this.middle = new AtomicInteger(1);
+        this.front = 2;
+    }
+
+    /**
+     * Returns the value the producer should fill next. Only the producer thread may call this.
+     *
+     * @return The back value.
+     */
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) this.slots[this.back];
+    }
+
+    /**
+     * Publishes the back value as the newest one, and takes a free slot as the new back value.
+     * Only the producer thread may call this.
+     */
+    public void publish() {
+        this.back = this.middle.getAndSet(this.back | FRESH) & INDEX;
+    }
+
+    /**
+     * Takes the newest published value if there is one the consumer has not seen yet.
+     * Only the consumer thread may call this.
+     *
+     * @return The newest value, or null if nothing was published since the last call.
+     */
+    @SuppressWarnings("unchecked")
+    public T takeLatest() {
+        if ((this.middle.get() & FRESH) == 0) {
+            return null;
+        }
+        this.front = this.middle.getAndSet(this.front) & INDEX;
+        return (T) this.slots[this.front];
+    }
+}
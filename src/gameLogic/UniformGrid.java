@@ -0,0 +1,418 @@
+// Karam Ganaiem
+
+package gameLogic;
+
+import geometry.Rectangle;
+import interfaces.BroadPhase;
+import interfaces.Collidable;
+import utilities.CandidateCache;
+import utilities.RayHit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The gameLogic.UniformGrid class is a broad phase for collision queries.
+ * The world is divided into square cells, and every collidable is registered in all the cells
+ * its collision rectangle overlaps. A trajectory only tests the collidables of the cells it passes through.
+ * The grid works best when the collidables are of similar size.
+ */
+public class UniformGrid implements BroadPhase {
+    /**
+     * Extra space around each rectangle, so points lying exactly on a cell border are found in both cells.
+     */
+    private static final double PADDING = 1e-7;
+
+    /**
+     * Number of spare cells added on every side when the grid has to grow.
+     */
+    private static final int GROW_MARGIN = 4;
+
+    private double cellSize;
+    private int originX;
+    private int originY;
+    private int columns;
+    private int rows;
+    private List<List<Entry>> cells;
+    private Map<Collidable, Entry> entries;
+    private int nextOrder;
+
+    /**
+     * A collidable registered in the grid, together with the cells it was registered in.
+     */
+    private static class Entry {
+        private Collidable collidable;
+        private int order;
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+    }
+
+    /**
+     * Constructs an empty grid with the given cell size.
+     *
+     * @param cellSize The width and height of each cell.
+     */
+    public UniformGrid(double cellSize) {
+        this.cellSize = cellSize;
+        this.cells = new ArrayList<>();
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Adds a collidable to the grid.
+     *
+     * @param collidable The collidable to be added.
+     */
+    @Override
+    public void add(Collidable collidable) {
+        Entry entry = new Entry();
+        entry.collidable = collidable;
+        entry.order = this.nextOrder++;
+        this.entries.put(collidable, entry);
+        insert(entry);
+    }
+
+    /**
+     * Removes a collidable from the grid.
+     *
+     * @param collidable The collidable to be removed.
+     */
+    @Override
+    public void remove(Collidable collidable) {
+        Entry entry = this.entries.remove(collidable);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Re-registers a collidable whose collision rectangle has changed.
+     * The collidable keeps its place in the insertion order.
+     *
+     * @param collidable The collidable that moved.
+     */
+    @Override
+    public void update(Collidable collidable) {
+        Entry entry = this.entries.get(collidable);
+        if (entry != null) {
+            unlink(entry);
+            insert(entry);
+        }
+    }
+
+    /**
+     * Checks if the index refits a moved collidable in place.
+     * The grid moves the collidable to its new cells, so it can hold collidables that move.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean refitsInPlace() {
+        return true;
+    }
+
+    /**
+     * Finds the closest collision of a circle moving from (x0, y0) to (x0 + dx, y0 + dy), without creating objects.
+     * A point walks the cells along the segment; a circle tests the cells around its whole path.
+     * When two collidables are hit at the same time, the one that was added first wins.
+     *
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @param hit    The closest hit so far, filled with a closer collision if one is found.
+     * @return True if a collision was found, false otherwise.
+     */
+    @Override
+    public boolean closestHit(double x0, double y0, double dx, double dy, double radius, RayHit hit) {
+        if (this.entries.isEmpty()) {
+            return hit.isHit();
+        }
+        if (radius > 0) {
+            return closestHitAround(x0, y0, dx, dy, radius, hit);
+        }
+
+        // Clip the segment to the area covered by the grid
+        double enter = 0;
+        double exit = 1;
+        double gridMinX = this.originX * this.cellSize;
+        double gridMinY = this.originY * this.cellSize;
+        double gridMaxX = (this.originX + this.columns) * this.cellSize;
+        double gridMaxY = (this.originY + this.rows) * this.cellSize;
+        if (dx == 0) {
+            if (x0 < gridMinX || x0 > gridMaxX) {
+                return hit.isHit();
+            }
+        } else {
+            double t1 = (gridMinX - x0) / dx;
+            double t2 = (gridMaxX - x0) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (y0 < gridMinY || y0 > gridMaxY) {
+                return hit.isHit();
+            }
+        } else {
+            double t1 = (gridMinY - y0) / dy;
+            double t2 = (gridMaxY - y0) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (enter > exit) {
+            return hit.isHit();
+        }
+
+        int cellX = clampCell(x0 + dx * enter, this.originX, this.columns);
+        int cellY = clampCell(y0 + dy * enter, this.originY, this.rows);
+        int stepX = (int) Math.signum(dx);
+        int stepY = (int) Math.signum(dy);
+        double deltaX = dx == 0 ? Double.POSITIVE_INFINITY : this.cellSize / Math.abs(dx);
+        double deltaY = dy == 0 ? Double.POSITIVE_INFINITY : this.cellSize / Math.abs(dy);
+        double nextX = nextBoundary(x0, dx, this.originX + cellX);
+        double nextY = nextBoundary(y0, dy, this.originY + cellY);
+        int previousX = Integer.MIN_VALUE;
+        int previousY = Integer.MIN_VALUE;
+
+        // Walk through the cells the segment passes, in order of distance from its start
+        while (true) {
+            List<Entry> cell = this.cells.get(cellY * this.columns + cellX);
+            if (cell != null) {
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry entry = cell.get(i);
+                    // Entries that also cover the previous cell were already tested there
+                    if (covers(entry, previousX, previousY)) {
+                        continue;
+                    }
+                    Rectangle rectangle = entry.collidable.getCollisionRectangle();
+                    if (rectangle.intersectRay(x0, y0, dx, dy, entry.order < hit.getOrder(), hit)) {
+                        hit.setCollidable(entry.collidable, entry.order);
+                    }
+                }
+            }
+
+            // Nothing in a later cell can be closer than a hit inside this one
+            double cellExit = Math.min(nextX, nextY);
+            if (cellExit > exit || hit.getTime() <= cellExit) {
+                break;
+            }
+
+            previousX = this.originX + cellX;
+            previousY = this.originY + cellY;
+            if (nextX < nextY) {
+                cellX += stepX;
+                nextX += deltaX;
+            } else {
+                cellY += stepY;
+                nextY += deltaY;
+            }
+            if (cellX < 0 || cellX >= this.columns || cellY < 0 || cellY >= this.rows) {
+                break;
+            }
+        }
+        return hit.isHit();
+    }
+
+    /**
+     * Finds the closest collision of a circle by testing every cell around the box that bounds its path.
+     * Each entry is tested only in the first of its cells inside that box.
+     *
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @param hit    The closest hit so far.
+     * @return True if a collision was found, false otherwise.
+     */
+    private boolean closestHitAround(double x0, double y0, double dx, double dy, double radius, RayHit hit) {
+        int minX = clampCell(Math.min(x0, x0 + dx) - radius, this.originX, this.columns);
+        int minY = clampCell(Math.min(y0, y0 + dy) - radius, this.originY, this.rows);
+        int maxX = clampCell(Math.max(x0, x0 + dx) + radius, this.originX, this.columns);
+        int maxY = clampCell(Math.max(y0, y0 + dy) + radius, this.originY, this.rows);
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                List<Entry> cell = this.cells.get(y * this.columns + x);
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry entry = cell.get(i);
+                    if (this.originX + x != Math.max(entry.minCellX, this.originX + minX)
+                            || this.originY + y != Math.max(entry.minCellY, this.originY + minY)) {
+                        continue;
+                    }
+                    Rectangle rectangle = entry.collidable.getCollisionRectangle();
+                    if (rectangle.sweepCircle(x0, y0, dx, dy, radius, entry.order < hit.getOrder(), hit)) {
+                        hit.setCollidable(entry.collidable, entry.order);
+                    }
+                }
+            }
+        }
+        return hit.isHit();
+    }
+
+    /**
+     * Adds every collidable registered in the cells the given box overlaps to the cache.
+     * Each collidable is added once, from the first of its cells inside the box.
+     *
+     * @param minX  The left edge of the box.
+     * @param minY  The upper edge of the box.
+     * @param maxX  The right edge of the box.
+     * @param maxY  The lower edge of the box.
+     * @param cache The cache to fill.
+     */
+    @Override
+    public void collectOverlapping(double minX, double minY, double maxX, double maxY, CandidateCache cache) {
+        if (this.entries.isEmpty()) {
+            return;
+        }
+        int fromX = clampCell(minX, this.originX, this.columns);
+        int fromY = clampCell(minY, this.originY, this.rows);
+        int toX = clampCell(maxX, this.originX, this.columns);
+        int toY = clampCell(maxY, this.originY, this.rows);
+        for (int y = fromY; y <= toY; y++) {
+            for (int x = fromX; x <= toX; x++) {
+                List<Entry> cell = this.cells.get(y * this.columns + x);
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry entry = cell.get(i);
+                    if (this.originX + x == Math.max(entry.minCellX, this.originX + fromX)
+                            && this.originY + y == Math.max(entry.minCellY, this.originY + fromY)) {
+                        cache.add(entry.collidable, entry.order);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers an entry in every cell its collision rectangle overlaps, growing the grid if needed.
+     *
+     * @param entry The entry to register.
+     */
+    private void insert(Entry entry) {
+        Rectangle rectangle = entry.collidable.getCollisionRectangle();
+        double minX = rectangle.getUpperLeft().getX();
+        double minY = rectangle.getUpperLeft().getY();
+        entry.minCellX = (int) Math.floor((minX - PADDING) / this.cellSize);
+        entry.minCellY = (int) Math.floor((minY - PADDING) / this.cellSize);
+        entry.maxCellX = (int) Math.floor((minX + rectangle.getWidth() + PADDING) / this.cellSize);
+        entry.maxCellY = (int) Math.floor((minY + rectangle.getHeight() + PADDING) / this.cellSize);
+
+        if (entry.minCellX < this.originX || entry.minCellY < this.originY
+                || entry.maxCellX >= this.originX + this.columns || entry.maxCellY >= this.originY + this.rows) {
+            grow(entry);
+        }
+
+        for (int y = entry.minCellY; y <= entry.maxCellY; y++) {
+            for (int x = entry.minCellX; x <= entry.maxCellX; x++) {
+                int index = (y - this.originY) * this.columns + (x - this.originX);
+                List<Entry> cell = this.cells.get(index);
+                if (cell == null) {
+                    cell = new ArrayList<>();
+                    this.cells.set(index, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from all the cells it was registered in.
+     *
+     * @param entry The entry to remove.
+     */
+    private void unlink(Entry entry) {
+        for (int y = entry.minCellY; y <= entry.maxCellY; y++) {
+            for (int x = entry.minCellX; x <= entry.maxCellX; x++) {
+                List<Entry> cell = this.cells.get((y - this.originY) * this.columns + (x - this.originX));
+                if (cell != null) {
+                    cell.remove(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Enlarges the grid so it covers the cells of the given entry, and registers all other entries again.
+     *
+     * @param entry The entry that does not fit in the current grid.
+     */
+    private void grow(Entry entry) {
+        int minX = entry.minCellX - GROW_MARGIN;
+        int minY = entry.minCellY - GROW_MARGIN;
+        int maxX = entry.maxCellX + GROW_MARGIN;
+        int maxY = entry.maxCellY + GROW_MARGIN;
+        if (this.columns > 0) {
+            minX = Math.min(minX, this.originX);
+            minY = Math.min(minY, this.originY);
+            maxX = Math.max(maxX, this.originX + this.columns - 1);
+            maxY = Math.max(maxY, this.originY + this.rows - 1);
+        }
+
+        this.originX = minX;
+        this.originY = minY;
+        this.columns = maxX - minX + 1;
+        this.rows = maxY - minY + 1;
+        this.cells = new ArrayList<>(this.columns * this.rows);
+        for (int i = 0; i < this.columns * this.rows; i++) {
+            this.cells.add(null);
+        }
+
+        for (Entry other : this.entries.values()) {
+            if (other != entry) {
+                insert(other);
+            }
+        }
+    }
+
+    /**
+     * Checks if an entry was registered in the given cell.
+     *
+     * @param entry The entry to check.
+     * @param x     The x index of the cell.
+     * @param y     The y index of the cell.
+     * @return True if the entry covers the cell, false otherwise.
+     */
+    private static boolean covers(Entry entry, int x, int y) {
+        return x >= entry.minCellX && x <= entry.maxCellX && y >= entry.minCellY && y <= entry.maxCellY;
+    }
+
+    /**
+     * Returns the grid index of the cell holding the given coordinate, kept inside the grid.
+     *
+     * @param coordinate The coordinate.
+     * @param origin     The cell index of the first grid cell.
+     * @param count      The number of cells along this axis.
+     * @return The index of the cell, relative to the grid origin.
+     */
+    private int clampCell(double coordinate, int origin, int count) {
+        int cell = (int) Math.floor(coordinate / this.cellSize) - origin;
+        return Math.max(0, Math.min(count - 1, cell));
+    }
+
+    /**
+     * Returns the trajectory parameter at which the next cell border along one axis is crossed.
+     *
+     * @param start The coordinate at the start of the trajectory.
+     * @param delta The change of the coordinate along the trajectory.
+     * @param cell  The absolute index of the current cell along this axis.
+     * @return The parameter of the next crossing, or infinity if the coordinate does not change.
+     */
+    private double nextBoundary(double start, double delta, int cell) {
+        if (delta > 0) {
+            return ((cell + 1) * this.cellSize - start) / delta;
+        } else if (delta < 0) {
+            return (cell * this.cellSize - start) / delta;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
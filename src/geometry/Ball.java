@@ -7,8 +7,11 @@ import gameLogic.Game;
 import gameLogic.GameEnvironment;
 import interfaces.Collidable;
 import interfaces.HitListener;
+import interfaces.Interpolated;
 import interfaces.Sprite;
-import utilities.CollisionInfo;
+import utilities.CandidateCache;
+import utilities.ColorPalette;
+import utilities.RayHit;
 import utilities.Velocity;
 
 import java.awt.Color;
@@ -18,7 +21,10 @@ import java.util.List;
 /**
  * The geometry.Ball class represents a ball in a 2D space.
  */
-public class Ball implements Sprite {
+public class Ball implements Sprite, Interpolated {
+    // The most collisions handled in one step of continuous collision detection
+    private static final int MAX_BOUNCES = 4;
+
     // Attributes
     private Point center;  // The center point of the ball
     private int r;         // The radius of the ball
@@ -26,7 +32,19 @@ public class Ball implements Sprite {
     private Velocity v;    // The velocity of the ball
     private GameEnvironment ourGame; // The game enviroment
     private List<HitListener> hitListeners;
-    private int darkeningFactor = 75;
+    private Color drawColor; // The darker shade of the color, taken from the shared palette
+    private double previousX; // The center before the last step, for drawing between steps
+    private double previousY;
+    private RayHit hit = new RayHit(); // Reused by every collision query of this ball
+    private CandidateCache candidates = new CandidateCache(); // The static collidables near the ball
+    private boolean continuousCollision; // Sweep the whole circle instead of its center
+    private boolean planned; // The first query of the next step was already made by planStep
+    private long plannedVersion;
+    private double plannedX;
+    private double plannedY;
+    private double plannedDx;
+    private double plannedDy;
+    private double plannedRadius;
 
     /**
      * Constructor for creating a new geometry.Ball.
@@ -38,8 +56,11 @@ public class Ball implements Sprite {
      */
     public Ball(Point center, int r, java.awt.Color color, GameEnvironment ourGamr) {
         this.center = center;
+        this.previousX = center.getX();
+        this.previousY = center.getY();
         this.r = r;
         this.color = color;
+        this.drawColor = ColorPalette.DARKER.darker(color);
         this.ourGame = ourGamr;
         this.hitListeners = new ArrayList<HitListener>();
     }
@@ -90,19 +111,28 @@ public class Ball implements Sprite {
     @Override
     public void drawOn(DrawSurface surface) {
 
-        // Darken the color of the ball
-        int darkerRed = Math.max(0, color.getRed() - darkeningFactor);
-        int darkerGreen = Math.max(0, color.getGreen() - darkeningFactor);
-        int darkerBlue = Math.max(0, color.getBlue() - darkeningFactor);
-        Color darkerColor = new Color(darkerRed, darkerGreen, darkerBlue);
-
-        surface.setColor(darkerColor);
+        // The ball is drawn in a darker shade of its color
+        surface.setColor(this.drawColor);
         double ballXCord = center.getX();
         double ballYCord = center.getY();
         double ballRad = getSize();
         surface.fillCircle((int) ballXCord, (int) ballYCord, (int) ballRad);
     }
 
+    /**
+     * Draw the ball between its center before the last step and its current center.
+     *
+     * @param surface the DrawSurface to draw on
+     * @param alpha   the fraction of the way from the previous center to the current one
+     */
+    @Override
+    public void drawOn(DrawSurface surface, double alpha) {
+        double x = this.previousX + (this.center.getX() - this.previousX) * alpha;
+        double y = this.previousY + (this.center.getY() - this.previousY) * alpha;
+        surface.setColor(this.drawColor);
+        surface.fillCircle((int) x, (int) y, this.r);
+    }
+
 
     /**
      * Updates the state of the ball according to the elapsed time.
@@ -111,6 +141,8 @@ public class Ball implements Sprite {
      */
     @Override
     public void timePassed() {
+        this.previousX = this.center.getX();
+        this.previousY = this.center.getY();
         moveOneStep();
     }
 
@@ -176,35 +208,119 @@ public class Ball implements Sprite {
      * Moves the ball one step based on its current velocity. If a collision
      * with a collidable object along the trajectory
      * is detected, the ball's position and velocity are updated accordingly.
+     * A step without a collision does not create any objects.
      */
     public void moveOneStep() {
+        if (this.continuousCollision) {
+            moveOneStepContinuous();
+            return;
+        }
 
-        // Calculate the endpoint of the ball's movement
-        Point endPoint = this.v.applyToPoint(this.center);
-        Line trajectory = new Line(center, endPoint);
+        double x = this.center.getX();
+        double y = this.center.getY();
+        double dx = this.v.getDx();
+        double dy = this.v.getDy();
 
         // Check for collisions along the trajectory
-        CollisionInfo possibleCollision =
-                ourGame.getClosestCollision(trajectory);
+        if (!findClosestHit(x, y, dx, dy, 0)) {
+            // No collision, move the ball to the endpoint
+            this.center.setX(x + dx);
+            this.center.setY(y + dy);
+            return;
+        }
 
-//        possibleCollision.collisionObject().getCollisionRectangle().
+        // Handle collision with a collidable object
+        Collidable collidable = this.hit.getCollidable();
+        Point collisionPoint = new Point(this.hit.getX(), this.hit.getY());
 
-        if (possibleCollision == null) {
-            // No collision, move the ball to the endpoint
-            center = endPoint;
-        } else {
-            // Handle collision with a collidable object
-            Collidable collidable = possibleCollision.collisionObject();
-            Point collisionPoint = possibleCollision.collisionPoint();
-
-            // Move the ball to the middle of the trajectory until the collision point
-            Line trajectoryToCollision = new Line(
-                    center, collisionPoint);
-            center = trajectoryToCollision.middle();
-
-            // Update the velocity based on the collision
-            v = collidable.hit(this, collisionPoint, v);
+        // Move the ball to the middle of the trajectory until the collision point
+        this.center.setX((x + collisionPoint.getX()) / 2);
+        this.center.setY((y + collisionPoint.getY()) / 2);
+
+        // Update the velocity based on the collision
+        v = collidable.hit(this, collisionPoint, v);
+    }
+
+    /**
+     * Moves the ball one step, sweeping the whole circle along its path.
+     * The ball stops exactly where it first touches a collidable, bounces, and keeps
+     * moving with the rest of the step, for up to MAX_BOUNCES collisions in a single step.
+     */
+    private void moveOneStepContinuous() {
+        double x = this.center.getX();
+        double y = this.center.getY();
+        double remaining = 1; // The part of the step that is left
+
+        for (int bounce = 0; bounce < MAX_BOUNCES && remaining > 0; bounce++) {
+            double dx = this.v.getDx() * remaining;
+            double dy = this.v.getDy() * remaining;
+            if (!findClosestHit(x, y, dx, dy, this.r)) {
+                x += dx;
+                y += dy;
+                break;
+            }
+
+            // Move to the time of impact, then bounce
+            double time = this.hit.getTime();
+            x += dx * time;
+            y += dy * time;
+            this.center.setX(x);
+            this.center.setY(y);
+            remaining *= 1 - time;
+            v = this.hit.getCollidable().hit(this, new Point(this.hit.getX(), this.hit.getY()), v);
+        }
+        this.center.setX(x);
+        this.center.setY(y);
+    }
+
+    /**
+     * Makes the first collision query of the next step ahead of time, without changing anything.
+     * This only reads the game environment, so the balls of a game can plan their steps in parallel.
+     * The planned result is used by the next step if nothing in the environment changed in between.
+     */
+    public void planStep() {
+        this.plannedX = this.center.getX();
+        this.plannedY = this.center.getY();
+        this.plannedDx = this.v.getDx();
+        this.plannedDy = this.v.getDy();
+        this.plannedRadius = this.continuousCollision ? this.r : 0;
+        this.plannedVersion = ourGame.getVersion();
+        ourGame.getClosestHit(this.plannedX, this.plannedY, this.plannedDx, this.plannedDy,
+                this.plannedRadius, this.hit, this.candidates);
+        this.planned = true;
+    }
+
+    /**
+     * Finds the closest collision of the ball's path into the hit of this ball, reusing the planned
+     * result when it was made for the same path and the environment has not changed since.
+     *
+     * @param x      The x-coordinate of the center at the start of the path.
+     * @param y      The y-coordinate of the center at the start of the path.
+     * @param dx     The change in x along the path.
+     * @param dy     The change in y along the path.
+     * @param radius The radius to sweep, 0 for the center only.
+     * @return True if a collision was found, false otherwise.
+     */
+    private boolean findClosestHit(double x, double y, double dx, double dy, double radius) {
+        boolean usePlan = this.planned && this.plannedVersion == ourGame.getVersion()
+                && x == this.plannedX && y == this.plannedY && dx == this.plannedDx && dy == this.plannedDy
+                && radius == this.plannedRadius;
+        this.planned = false;
+        if (usePlan) {
+            return this.hit.isHit();
         }
+        return ourGame.getClosestHit(x, y, dx, dy, radius, this.hit, this.candidates);
+    }
+
+    /**
+     * Turns continuous collision detection on or off.
+     * When it is on, the radius of the ball is part of the collision test, fast balls cannot pass
+     * through thin collidables, and the rest of a step after a collision is not lost.
+     *
+     * @param enabled True to sweep the whole circle, false to move the center like a point.
+     */
+    public void setContinuousCollision(boolean enabled) {
+        this.continuousCollision = enabled;
     }
 
     /**
@@ -215,6 +331,7 @@ public class Ball implements Sprite {
     @Override
     public void addToGame(Game g) {
         g.addSprite(this);
+        g.addBall(this);
     }
 
     /**
@@ -224,6 +341,7 @@ public class Ball implements Sprite {
      */
     public void removeFromGame(Game g) {
         g.removeSprite(this);
+        g.removeBall(this);
     }
 
     /**
@@ -233,6 +351,50 @@ public class Ball implements Sprite {
      */
     public void setColor(Color newColor) {
         this.color = newColor;
+        this.drawColor = ColorPalette.DARKER.darker(newColor);
+    }
+
+    /**
+     * Returns the x-coordinate of the center before the last step.
+     *
+     * @return The x-coordinate.
+     */
+    public double getPreviousX() {
+        return this.previousX;
+    }
+
+    /**
+     * Returns the y-coordinate of the center before the last step.
+     *
+     * @return The y-coordinate.
+     */
+    public double getPreviousY() {
+        return this.previousY;
+    }
+
+    /**
+     * Puts the ball back in a saved state. Any collision query planned or cached for the old state is dropped.
+     *
+     * @param x         The x-coordinate of the center.
+     * @param y         The y-coordinate of the center.
+     * @param previousX The x-coordinate of the center before the last step.
+     * @param previousY The y-coordinate of the center before the last step.
+     * @param dx        The horizontal velocity.
+     * @param dy        The vertical velocity.
+     * @param newColor  The color.
+     */
+    public void restore(double x, double y, double previousX, double previousY, double dx, double dy,
+                        Color newColor) {
+        this.center.setX(x);
+        this.center.setY(y);
+        this.previousX = previousX;
+        this.previousY = previousY;
+        this.v = new Velocity(dx, dy);
+        if (this.color != newColor) {
+            setColor(newColor);
+        }
+        this.planned = false;
+        this.candidates.invalidate();
     }
 }
 
@@ -4,25 +4,32 @@ package geometry;
 
 import biuoop.DrawSurface;
 import gameLogic.Game;
+import gameLogic.HitEventQueue;
 import interfaces.Collidable;
 import interfaces.HitListener;
 import interfaces.HitNotifier;
 import interfaces.Sprite;
+import utilities.ColorPalette;
 import utilities.Velocity;
 
 import java.awt.Color;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * A class representing a block that can be drawn on the screen, has collision properties,
  * and can be part of the game as a sprite.
+ * The hits of a block in a game are told to its listeners when the tick ends. The listeners are kept in an array
+ * that is replaced when a listener is added or removed, so telling them about a hit needs no copy.
  */
 public class Block implements Collidable, Sprite, HitNotifier {
     private Rectangle shape;
     private Color shapeColor;
-    private static final int DARKENING_FACTOR = 75;
-    private List<HitListener> ourHitListeners;
+    private Color drawColor; // The darker shade of the color, taken from the shared palette
+    private HitListener[] ourHitListeners;
+    private HitEventQueue hitEvents; // The queue of the game the block was added to, if any
+    private boolean inGame;
 
 
     /**
@@ -34,8 +41,9 @@ public class Block implements Collidable, Sprite, HitNotifier {
     public Block(Rectangle shape, Color shapeColor) {
         this.shape = shape;
         this.shapeColor = shapeColor;
+        this.drawColor = ColorPalette.DARKER.darker(shapeColor);
 
-        this.ourHitListeners = new ArrayList<>();
+        this.ourHitListeners = new HitListener[0];
     }
 
     /**
@@ -56,13 +64,8 @@ public class Block implements Collidable, Sprite, HitNotifier {
         int drawWidth = (int) this.shape.getWidth();
         int drawHeight = (int) this.shape.getHeight();
 
-        // Darken the color of the block
-        int darkerRed = Math.max(0, this.shapeColor.getRed() - DARKENING_FACTOR);
-        int darkerGreen = Math.max(0, this.shapeColor.getGreen() - DARKENING_FACTOR);
-        int darkerBlue = Math.max(0, this.shapeColor.getBlue() - DARKENING_FACTOR);
-        Color darkerColor = new Color(darkerRed, darkerGreen, darkerBlue);
-
-        drawSurface.setColor(darkerColor);
+        // The block is drawn in a darker shade of its color
+        drawSurface.setColor(this.drawColor);
         drawSurface.fillRectangle(xCord, yCord, drawWidth, drawHeight);
 
         drawSurface.setColor(Color.black);
@@ -139,12 +142,15 @@ public class Block implements Collidable, Sprite, HitNotifier {
     }
 
     /**
-     * Adds the block to the game by adding it as both a sprite and a collidable.
+     * Adds the block to the game by adding it as both a static sprite and a collidable.
+     * From then on its hits wait in the hit queue of the game until the tick ends.
      *
      * @param g The game to which the block is added.
      */
     public void addToGame(Game g) {
-        g.addSprite(this);
+        this.hitEvents = g.getHitEvents();
+        this.inGame = true;
+        g.addStaticSprite(this);
         g.addCollidable(this);
     }
 
@@ -166,10 +172,20 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param game The game from which to remove this block.
      */
     public void removeFromGame(Game game) {
-        game.removeSprite(this);
+        this.inGame = false;
+        game.removeStaticSprite(this);
         game.removeCollidable(this);
     }
 
+    /**
+     * Checks if the block is in a game: it was added to one and not removed since.
+     *
+     * @return True if the block is in a game, false otherwise.
+     */
+    public boolean isInGame() {
+        return this.inGame;
+    }
+
     /**
      * Adds a hit listener to this block.
      *
@@ -177,7 +193,9 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void addHitListener(HitListener hl) {
-        ourHitListeners.add(hl);
+        HitListener[] grown = Arrays.copyOf(this.ourHitListeners, this.ourHitListeners.length + 1);
+        grown[grown.length - 1] = hl;
+        this.ourHitListeners = grown;
     }
 
     /**
@@ -187,18 +205,69 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void removeHitListener(HitListener hl) {
-        ourHitListeners.remove(hl);
+        for (int i = 0; i < this.ourHitListeners.length; i++) {
+            if (this.ourHitListeners[i].equals(hl)) {
+                HitListener[] shrunk = new HitListener[this.ourHitListeners.length - 1];
+                System.arraycopy(this.ourHitListeners, 0, shrunk, 0, i);
+                System.arraycopy(this.ourHitListeners, i + 1, shrunk, i, shrunk.length - i);
+                this.ourHitListeners = shrunk;
+                return;
+            }
+        }
     }
 
+    /**
+     * Returns the color of the block.
+     *
+     * @return The color.
+     */
+    public Color getColor() {
+        return this.shapeColor;
+    }
 
-    private void notifyHit(Ball hitter) {
-        // Make a copy of the hitListeners before iterating over them.
-        List<HitListener> listeners = new ArrayList<>(ourHitListeners);
-        // Notify all listeners about a hit event:
+    /**
+     * Checks if the block is drawn. Pink blocks, like the region that removes balls, are not.
+     *
+     * @return True if the block is drawn, false otherwise.
+     */
+    public boolean isVisible() {
+        return this.shapeColor != Color.pink;
+    }
+
+    /**
+     * Returns the hit listeners of this block, in the order they are notified.
+     *
+     * @return A read-only list of the hit listeners the block has now.
+     */
+    public List<HitListener> getHitListeners() {
+        return Collections.unmodifiableList(Arrays.asList(this.ourHitListeners));
+    }
+
+    /**
+     * Tells the hit listeners of this block about a hit, now.
+     * Listeners added or removed while they are told are only told about the next hit.
+     *
+     * @param hitter The ball that hit the block.
+     */
+    public void dispatchHit(Ball hitter) {
+        HitListener[] listeners = this.ourHitListeners;
         for (HitListener hl : listeners) {
             hl.hitEvent(this, hitter);
         }
     }
+
+    /**
+     * Records a hit in the hit queue of the game, or tells the listeners at once if the block is not in a game.
+     *
+     * @param hitter The ball that hit the block.
+     */
+    private void notifyHit(Ball hitter) {
+        if (this.hitEvents != null) {
+            this.hitEvents.add(this, hitter);
+        } else {
+            dispatchHit(hitter);
+        }
+    }
 }
 
 
@@ -2,6 +2,8 @@
 
 package geometry;
 
+import utilities.RayHit;
+
 import java.util.LinkedList;
 import java.util.List;
 
@@ -68,6 +70,218 @@ public class Rectangle {
         return interPoints; // return the list of the intersuctions.
     }
 
+    /**
+     * Finds where the segment from (x0, y0) to (x0 + dx, y0 + dy) first meets this rectangle.
+     * A slab test is done on each axis, so no objects are created. If the segment starts inside the
+     * rectangle, the edge it leaves through is the one that is hit, like with intersectionPoints.
+     *
+     * @param x0        The x-coordinate of the start of the segment.
+     * @param y0        The y-coordinate of the start of the segment.
+     * @param dx        The change in x along the segment.
+     * @param dy        The change in y along the segment.
+     * @param acceptTie True if a hit at exactly the time of the current hit should replace it.
+     * @param hit       The closest hit so far, updated if this rectangle is hit earlier.
+     * @return True if the hit was updated, false otherwise.
+     */
+    public boolean intersectRay(double x0, double y0, double dx, double dy, boolean acceptTie, RayHit hit) {
+        double minX = this.rectUpperLeft.getX();
+        double minY = this.rectUpperLeft.getY();
+        double maxX = minX + this.rectWidth;
+        double maxY = minY + this.rectHeight;
+
+        double nearX = Double.NEGATIVE_INFINITY;
+        double farX = Double.POSITIVE_INFINITY;
+        if (dx == 0) {
+            if (x0 < minX || x0 > maxX) {
+                return false;
+            }
+        } else {
+            nearX = ((dx > 0 ? minX : maxX) - x0) / dx;
+            farX = ((dx > 0 ? maxX : minX) - x0) / dx;
+        }
+
+        double nearY = Double.NEGATIVE_INFINITY;
+        double farY = Double.POSITIVE_INFINITY;
+        if (dy == 0) {
+            if (y0 < minY || y0 > maxY) {
+                return false;
+            }
+        } else {
+            nearY = ((dy > 0 ? minY : maxY) - y0) / dy;
+            farY = ((dy > 0 ? maxY : minY) - y0) / dy;
+        }
+
+        double enter = Math.max(nearX, nearY);
+        double exit = Math.min(farX, farY);
+        if (enter > exit) {
+            return false;
+        }
+
+        // Entering from outside, or leaving when the segment starts inside
+        double time;
+        double edgeX;
+        double edgeY;
+        if (enter >= 0) {
+            time = enter;
+            edgeX = nearX;
+            edgeY = nearY;
+        } else {
+            time = exit;
+            edgeX = farX;
+            edgeY = farY;
+        }
+        if (time < 0 || time > 1 || time > hit.getTime() || (time == hit.getTime() && !acceptTie)) {
+            return false;
+        }
+
+        // Put the hit point exactly on the edge that was hit
+        double x = x0 + dx * time;
+        double y = y0 + dy * time;
+        int side = RayHit.NONE;
+        if (time == edgeY) {
+            y = (dy > 0) == (time == nearY) ? minY : maxY;
+            side = y == minY ? RayHit.TOP : RayHit.BOTTOM;
+        }
+        if (time == edgeX) {
+            x = (dx > 0) == (time == nearX) ? minX : maxX;
+            side = x == minX ? RayHit.LEFT : RayHit.RIGHT;
+        }
+        hit.set(time, x, y, side);
+        return true;
+    }
+
+
+    /**
+     * Finds the exact time of impact of a circle whose center moves from (x0, y0) to (x0 + dx, y0 + dy).
+     * The center is swept against this rectangle grown by the radius, with rounded corners, so the
+     * contact point is on the edge or corner of the rectangle that the circle first touches.
+     * A circle that already touches the rectangle hits it at time 0 only if it moves towards it,
+     * and a circle whose center is inside the rectangle is handled like a point.
+     *
+     * @param x0        The x-coordinate of the center at the start of the step.
+     * @param y0        The y-coordinate of the center at the start of the step.
+     * @param dx        The change in x of the center along the step.
+     * @param dy        The change in y of the center along the step.
+     * @param radius    The radius of the circle, 0 for a point.
+     * @param acceptTie True if a hit at exactly the time of the current hit should replace it.
+     * @param hit       The closest hit so far, updated if this rectangle is hit earlier.
+     * @return True if the hit was updated, false otherwise.
+     */
+    public boolean sweepCircle(double x0, double y0, double dx, double dy, double radius,
+                               boolean acceptTie, RayHit hit) {
+        double minX = this.rectUpperLeft.getX();
+        double minY = this.rectUpperLeft.getY();
+        double maxX = minX + this.rectWidth;
+        double maxY = minY + this.rectHeight;
+        double closestX = Math.max(minX, Math.min(maxX, x0));
+        double closestY = Math.max(minY, Math.min(maxY, y0));
+        if (radius <= 0 || (closestX == x0 && closestY == y0)) {
+            return intersectRay(x0, y0, dx, dy, acceptTie, hit);
+        }
+
+        // Already touching: only a circle moving towards the rectangle hits it
+        double offsetX = closestX - x0;
+        double offsetY = closestY - y0;
+        if (offsetX * offsetX + offsetY * offsetY <= radius * radius) {
+            if (offsetX * dx + offsetY * dy <= 0 || !isEarlier(0, acceptTie, hit)) {
+                return false;
+            }
+            hit.set(0, closestX, closestY, sideOf(offsetX, offsetY));
+            return true;
+        }
+
+        // Slab test against the rectangle grown by the radius
+        double enter = 0;
+        double exit = 1;
+        int side = RayHit.NONE;
+        if (dx == 0) {
+            if (x0 < minX - radius || x0 > maxX + radius) {
+                return false;
+            }
+        } else {
+            double near = ((dx > 0 ? minX - radius : maxX + radius) - x0) / dx;
+            double far = ((dx > 0 ? maxX + radius : minX - radius) - x0) / dx;
+            if (near > enter) {
+                enter = near;
+                side = dx > 0 ? RayHit.LEFT : RayHit.RIGHT;
+            }
+            exit = Math.min(exit, far);
+        }
+        if (dy == 0) {
+            if (y0 < minY - radius || y0 > maxY + radius) {
+                return false;
+            }
+        } else {
+            double near = ((dy > 0 ? minY - radius : maxY + radius) - y0) / dy;
+            double far = ((dy > 0 ? maxY + radius : minY - radius) - y0) / dy;
+            if (near > enter) {
+                enter = near;
+                side = dy > 0 ? RayHit.TOP : RayHit.BOTTOM;
+            }
+            exit = Math.min(exit, far);
+        }
+        if (enter > exit || !isEarlier(enter, acceptTie, hit)) {
+            return false;
+        }
+
+        // Touching a face of the rectangle
+        double centerX = x0 + dx * enter;
+        double centerY = y0 + dy * enter;
+        if (side == RayHit.TOP || side == RayHit.BOTTOM) {
+            if (centerX >= minX && centerX <= maxX) {
+                hit.set(enter, centerX, side == RayHit.TOP ? minY : maxY, side);
+                return true;
+            }
+        } else if (side != RayHit.NONE && centerY >= minY && centerY <= maxY) {
+            hit.set(enter, side == RayHit.LEFT ? minX : maxX, centerY, side);
+            return true;
+        }
+
+        // Touching a corner: intersect the path of the center with the circle around that corner
+        double cornerX = centerX < minX ? minX : maxX;
+        double cornerY = centerY < minY ? minY : maxY;
+        double fromX = x0 - cornerX;
+        double fromY = y0 - cornerY;
+        double a = dx * dx + dy * dy;
+        double b = fromX * dx + fromY * dy;
+        double c = fromX * fromX + fromY * fromY - radius * radius;
+        double discriminant = b * b - a * c;
+        if (a == 0 || discriminant < 0) {
+            return false;
+        }
+        double time = (-b - Math.sqrt(discriminant)) / a;
+        if (time < 0 || time > 1 || !isEarlier(time, acceptTie, hit)) {
+            return false;
+        }
+        hit.set(time, cornerX, cornerY, sideOf(cornerX - (x0 + dx * time), cornerY - (y0 + dy * time)));
+        return true;
+    }
+
+    /**
+     * Checks if a hit at the given time should replace the current hit.
+     *
+     * @param time      The time of the new hit.
+     * @param acceptTie True if a hit at exactly the time of the current hit should replace it.
+     * @param hit       The closest hit so far.
+     * @return True if the new hit is earlier, false otherwise.
+     */
+    private static boolean isEarlier(double time, boolean acceptTie, RayHit hit) {
+        return time < hit.getTime() || (time == hit.getTime() && acceptTie);
+    }
+
+    /**
+     * Returns the side of the rectangle that faces a circle, given the offset from its center to the contact.
+     *
+     * @param offsetX The x offset from the center of the circle to the contact point.
+     * @param offsetY The y offset from the center of the circle to the contact point.
+     * @return The side of the rectangle that was touched.
+     */
+    private static int sideOf(double offsetX, double offsetY) {
+        if (Math.abs(offsetY) >= Math.abs(offsetX)) {
+            return offsetY > 0 ? RayHit.TOP : RayHit.BOTTOM;
+        }
+        return offsetX > 0 ? RayHit.LEFT : RayHit.RIGHT;
+    }
 
     /**
      * Returns the width of the rectangle.
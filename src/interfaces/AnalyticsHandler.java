@@ -0,0 +1,21 @@
+// Karam Ganaiem
+
+package interfaces;
+
+import analytics.AnalyticsEvent;
+
+/**
+ * The AnalyticsHandler interface represents an object that takes the gameplay events of an analytics pipeline,
+ * on a consumer thread of its own, like an aggregator or a file sink.
+ */
+public interface AnalyticsHandler {
+
+    /**
+     * Called for every event, in the order the events were published. The event is a slot of the ring buffer
+     * that is reused, so its fields must be copied if they are kept after the call.
+     *
+     * @param event      The event.
+     * @param endOfBatch True if it is the last event that is available now, a good time to flush.
+     */
+    void onEvent(AnalyticsEvent event, boolean endOfBatch);
+}
@@ -0,0 +1,68 @@
+// Karam Ganaiem
+
+package interfaces;
+
+import utilities.CandidateCache;
+import utilities.RayHit;
+
+/**
+ * The BroadPhase interface represents a spatial index of collidables that answers trajectory queries.
+ * Implementations only need to test the collidables that may lie on the trajectory.
+ */
+public interface BroadPhase {
+
+    /**
+     * Adds a collidable to the index.
+     *
+     * @param collidable The collidable to be added.
+     */
+    void add(Collidable collidable);
+
+    /**
+     * Removes a collidable from the index.
+     *
+     * @param collidable The collidable to be removed.
+     */
+    void remove(Collidable collidable);
+
+    /**
+     * Updates the index after the collision rectangle of a collidable has changed.
+     *
+     * @param collidable The collidable that moved.
+     */
+    void update(Collidable collidable);
+
+    /**
+     * Checks if the index refits a moved collidable in place, so it can hold collidables that move.
+     * An index built once for collidables that never move returns false.
+     *
+     * @return True if update() is cheap enough to call whenever a collidable moves, false otherwise.
+     */
+    boolean refitsInPlace();
+
+    /**
+     * Finds the closest collision of a circle moving from (x0, y0) to (x0 + dx, y0 + dy), without creating objects.
+     * A radius of 0 sweeps a single point. When two collidables are hit at the same time,
+     * the one that was added first wins.
+     *
+     * @param x0     The x-coordinate of the start of the segment.
+     * @param y0     The y-coordinate of the start of the segment.
+     * @param dx     The change in x along the segment.
+     * @param dy     The change in y along the segment.
+     * @param radius The radius of the moving circle.
+     * @param hit    The closest hit so far, filled with a closer collision if one is found.
+     * @return True if a collision was found, false otherwise.
+     */
+    boolean closestHit(double x0, double y0, double dx, double dy, double radius, RayHit hit);
+
+    /**
+     * Adds every collidable whose collision rectangle overlaps the given box to the cache, with its order.
+     *
+     * @param minX  The left edge of the box.
+     * @param minY  The upper edge of the box.
+     * @param maxX  The right edge of the box.
+     * @param maxY  The lower edge of the box.
+     * @param cache The cache to fill.
+     */
+    void collectOverlapping(double minX, double minY, double maxX, double maxY, CandidateCache cache);
+}
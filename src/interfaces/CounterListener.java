@@ -0,0 +1,21 @@
+// Karam Ganaiem
+
+package interfaces;
+
+import utilities.Counter;
+
+/**
+ * The CounterListener interface represents an object that is told every time a counter changes, like the
+ * analytics pipeline that logs the score as it goes.
+ */
+public interface CounterListener {
+
+    /**
+     * Called after the value of a counter changed.
+     *
+     * @param counter  The counter.
+     * @param oldValue The value before the change.
+     * @param newValue The value after the change.
+     */
+    void counterChanged(Counter counter, int oldValue, int newValue);
+}
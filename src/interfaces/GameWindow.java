@@ -0,0 +1,68 @@
+// Karam Ganaiem
+
+package interfaces;
+
+import biuoop.DrawSurface;
+import biuoop.KeyboardSensor;
+
+/**
+ * The GameWindow interface represents the place a game is shown and gets its input from.
+ * It is usually a biuoop GUI window, but can also be headless, for runs without a display.
+ */
+public interface GameWindow {
+
+    /**
+     * Returns a surface to draw the next frame on.
+     *
+     * @return The surface of the next frame.
+     */
+    DrawSurface getDrawSurface();
+
+    /**
+     * Shows a frame drawn on a surface returned by getDrawSurface().
+     *
+     * @param d The surface of the frame.
+     */
+    void show(DrawSurface d);
+
+    /**
+     * Returns the keyboard of the window.
+     *
+     * @return The keyboard sensor.
+     */
+    KeyboardSensor getKeyboardSensor();
+
+    /**
+     * Closes the window.
+     */
+    void close();
+
+    /**
+     * Opens another window of the same kind and size.
+     *
+     * @param title The title of the new window.
+     * @return The new window.
+     */
+    GameWindow open(String title);
+
+    /**
+     * Waits for the given time, or returns at once in windows that run as fast as they can.
+     *
+     * @param milliseconds The time to wait, in milliseconds.
+     */
+    void sleepFor(long milliseconds);
+
+    /**
+     * Returns the current time of the window's clock, used to pace the game.
+     *
+     * @return The time in nanoseconds, only meaningful compared with other times of the same window.
+     */
+    long nanoTime();
+
+    /**
+     * Waits until the window's clock reaches the given time.
+     *
+     * @param time The time to wait for, in nanoseconds of the window's clock.
+     */
+    void sleepUntil(long time);
+}
@@ -0,0 +1,35 @@
+// Karam Ganaiem
+
+package interfaces;
+
+import gameLogic.Game;
+
+/**
+ * The InputPolicy interface represents a player that is not a person: it decides how to move the paddle
+ * on every tick of a simulated game.
+ */
+public interface InputPolicy {
+    /**
+     * Move the paddle to the left.
+     */
+    int LEFT = -1;
+
+    /**
+     * Leave the paddle where it is.
+     */
+    int STAY = 0;
+
+    /**
+     * Move the paddle to the right.
+     */
+    int RIGHT = 1;
+
+    /**
+     * Decides how to move the paddle in the next tick.
+     *
+     * @param game The game being played.
+     * @param tick The number of the next tick, starting from 0.
+     * @return LEFT, STAY or RIGHT.
+     */
+    int chooseDirection(Game game, long tick);
+}
@@ -0,0 +1,21 @@
+// Karam Ganaiem
+
+package interfaces;
+
+import biuoop.DrawSurface;
+
+/**
+ * The Interpolated interface represents a sprite that can be drawn between its last two physics steps.
+ * When the game draws frames at a different rate than it steps its physics, moving sprites are drawn at the
+ * point between where they were before the last step and where they are now, so their motion looks smooth.
+ */
+public interface Interpolated {
+
+    /**
+     * Draws the sprite between its position before the last step and its current position.
+     *
+     * @param d     The DrawSurface to draw on.
+     * @param alpha The fraction of the way from the previous position to the current one, from 0 to 1.
+     */
+    void drawOn(DrawSurface d, double alpha);
+}
@@ -0,0 +1,28 @@
+// Karam Ganaiem
+
+package interfaces;
+
+import gameLogic.Game;
+
+/**
+ * The TickListener interface represents an object that is told when the game starts and ends each physics step,
+ * like an input recorder that samples the keyboard once per step.
+ */
+public interface TickListener {
+
+    /**
+     * Called before the sprites of a physics step are moved.
+     *
+     * @param game The game.
+     * @param tick The number of the step, starting from 0.
+     */
+    void beginTick(Game game, long tick);
+
+    /**
+     * Called after the physics step was made.
+     *
+     * @param game The game.
+     * @param tick The number of the step, starting from 0.
+     */
+    void endTick(Game game, long tick);
+}
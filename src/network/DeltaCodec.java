@@ -0,0 +1,131 @@
+// Karam Ganaiem
+
+package network;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The network.DeltaCodec class writes the difference between two views of a game, and applies it on the
+ * other side. A STATE message is laid out as:
+ * <pre>
+ *   byte STATE, long tick, long base tick,
+ *   byte flags (1: paddle follows, 2: score follows, 4: the game is over),
+ *   [float paddleX], [int score],
+ *   byte number of changed balls, and for each: byte index, byte (1: alive, 2: color follows),
+ *       float x, float y, [int color],
+ *   short number of removed blocks, short index of each,
+ *   short number of blocks back in the game, short index of each.
+ * </pre>
+ * In a usual tick only the balls and the paddle move, so a delta takes about 50 bytes.
+ */
+public class DeltaCodec {
+    private static final int PADDLE = 1;
+    private static final int SCORE = 2;
+    private static final int OVER = 4;
+    private static final int ALIVE = 1;
+    private static final int COLOR = 2;
+
+    /**
+     * Writes a STATE message with what changed from one view to another.
+     *
+     * @param base    The view the client already has, or a view of the level in which nothing is known yet.
+     * @param current The view to send.
+     * @param out     The buffer to write into.
+     */
+    public static void encode(WorldView base, WorldView current, ByteBuffer out) {
+        out.put(Protocol.STATE);
+        out.putLong(current.getTick());
+        out.putLong(base.getTick());
+
+        boolean paddle = Float.floatToIntBits(base.getPaddleX()) != Float.floatToIntBits(current.getPaddleX());
+        boolean score = base.getScore() != current.getScore();
+        out.put((byte) ((paddle ? PADDLE : 0) | (score ? SCORE : 0) | (current.isOver() ? OVER : 0)));
+        if (paddle) {
+            out.putFloat(current.getPaddleX());
+        }
+        if (score) {
+            out.putInt(current.getScore());
+        }
+
+        int countAt = out.position();
+        out.put((byte) 0);
+        int changed = 0;
+        for (int i = 0; i < current.getBallCount(); i++) {
+            if (!current.ballDiffers(i, base)) {
+                continue;
+            }
+            boolean color = current.getBallColor(i) != base.getBallColor(i);
+            out.put((byte) i);
+            out.put((byte) ((current.isBallAlive(i) ? ALIVE : 0) | (color ? COLOR : 0)));
+            out.putFloat(current.getBallX(i));
+            out.putFloat(current.getBallY(i));
+            if (color) {
+                out.putInt(current.getBallColor(i));
+            }
+            changed++;
+        }
+        out.put(countAt, (byte) changed);
+
+        writeBlocks(base, current, false, out);
+        writeBlocks(base, current, true, out);
+    }
+
+    /**
+     * Writes the indexes of the blocks that were removed, or that came back.
+     *
+     * @param base    The base view.
+     * @param current The current view.
+     * @param alive   False to write the removed blocks, true to write the blocks that came back.
+     * @param out     The buffer to write into.
+     */
+    private static void writeBlocks(WorldView base, WorldView current, boolean alive, ByteBuffer out) {
+        int countAt = out.position();
+        out.putShort((short) 0);
+        int count = 0;
+        for (int i = 0; i < current.getBlockCount(); i++) {
+            if (current.isBlockAlive(i) == alive && base.isBlockAlive(i) != alive) {
+                out.putShort((short) i);
+                count++;
+            }
+        }
+        out.putShort(countAt, (short) count);
+    }
+
+    /**
+     * Applies the body of a STATE message, after its tick and base tick, to a copy of its base view.
+     *
+     * @param in     The buffer, positioned after the base tick.
+     * @param target The view to change, holding a copy of the base view.
+     * @param tick   The tick of the message.
+     */
+    public static void apply(ByteBuffer in, WorldView target, long tick) {
+        target.setTick(tick);
+        int flags = in.get();
+        target.setOver((flags & OVER) != 0);
+        if ((flags & PADDLE) != 0) {
+            target.setPaddleX(in.getFloat());
+        }
+        if ((flags & SCORE) != 0) {
+            target.setScore(in.getInt());
+        }
+
+        int balls = in.get() & 0xFF;
+        for (int i = 0; i < balls; i++) {
+            int index = in.get() & 0xFF;
+            int ballFlags = in.get();
+            float x = in.getFloat();
+            float y = in.getFloat();
+            int color = (ballFlags & COLOR) != 0 ? in.getInt() : target.getBallColor(index);
+            target.setBall(index, (ballFlags & ALIVE) != 0, x, y, color);
+        }
+
+        int removed = in.getShort() & 0xFFFF;
+        for (int i = 0; i < removed; i++) {
+            target.setBlockAlive(in.getShort() & 0xFFFF, false);
+        }
+        int added = in.getShort() & 0xFFFF;
+        for (int i = 0; i < added; i++) {
+            target.setBlockAlive(in.getShort() & 0xFFFF, true);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+// Karam Ganaiem
+
+package network;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A thin client of a network.GameServer: it keeps the latest view of its game, built from the deltas the
+ * server sends, and sends back the keys of the player together with the tick it got last.
+ * The channel is non-blocking, so many clients can share one selector; the owner calls read() when the
+ * channel has data and sendInput() once per frame.
+ */
+public class GameClient implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SocketChannel channel;
+    private ByteBuffer in;
+    private ByteBuffer out; // In write mode, holding what was not sent yet
+    private LevelLayout layout;
+    private WorldView[] history;
+    private WorldView unknown;
+    private WorldView latest;
+    private long statesReceived;
+    private long bytesReceived;
+
+    /**
+     * Constructs a client on a connected channel, and makes the channel non-blocking.
+     *
+     * @param channel The channel.
+     * @throws IOException If the channel cannot be made non-blocking.
+     */
+    public GameClient(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        this.channel.configureBlocking(false);
+        this.in = ByteBuffer.allocate(BUFFER_SIZE);
+        this.out = ByteBuffer.allocate(256);
+    }
+
+    /**
+     * Connects to a server.
+     *
+     * @param address The address of the server.
+     * @return The client.
+     * @throws IOException If the connection fails.
+     */
+    public static GameClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        return new GameClient(channel);
+    }
+
+    /**
+     * Returns the channel of the client, to register with a selector.
+     *
+     * @return The channel.
+     */
+    public SocketChannel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * Reads what the server sent and applies it.
+     *
+     * @return The number of states applied, or -1 if the server closed the connection.
+     * @throws IOException If the channel fails.
+     */
+    public int read() throws IOException {
+        int read = this.channel.read(this.in);
+        if (read < 0) {
+            return -1;
+        }
+        this.bytesReceived += read;
+        this.in.flip();
+        int states = 0;
+        for (int length = Protocol.nextFrame(this.in); length >= 0; length = Protocol.nextFrame(this.in)) {
+            int end = this.in.position() + 2 + length;
+            this.in.getShort();
+            byte type = this.in.get();
+            if (type == Protocol.HELLO) {
+                setLayout(LevelLayout.decode(this.in));
+            } else if (type == Protocol.STATE && this.layout != null) {
+                applyState();
+                states++;
+            }
+            this.in.position(end);
+        }
+        this.in.compact();
+        this.statesReceived += states;
+        return states;
+    }
+
+    /**
+     * Keeps the layout of the level and makes the views for it.
+     *
+     * @param level The layout.
+     */
+    private void setLayout(LevelLayout level) {
+        this.layout = level;
+        this.history = new WorldView[Protocol.HISTORY];
+        for (int i = 0; i < this.history.length; i++) {
+            this.history[i] = new WorldView(level.getBlockCount(), level.getBallCount());
+        }
+        this.unknown = new WorldView(level.getBlockCount(), level.getBallCount());
+    }
+
+    /**
+     * Applies a STATE message to a copy of its base view.
+     */
+    private void applyState() {
+        long tick = this.in.getLong();
+        long baseTick = this.in.getLong();
+        WorldView base = this.unknown;
+        if (baseTick != Protocol.NO_BASE) {
+            base = this.history[(int) (baseTick % Protocol.HISTORY)];
+            if (base.getTick() != baseTick) {
+                throw new IllegalStateException("The server sent a delta against tick " + baseTick
+                        + ", which this client does not have");
+            }
+        }
+        WorldView target = this.history[(int) (tick % Protocol.HISTORY)];
+        if (target != base) {
+            target.copyFrom(base);
+        }
+        DeltaCodec.apply(this.in, target, tick);
+        if (this.latest == null || tick >= this.latest.getTick()) {
+            this.latest = target;
+        }
+    }
+
+    /**
+     * Sends the keys of the player, and acknowledges the latest tick received.
+     *
+     * @param mask The bits of the keys held down (see utilities.InputLog.KEYS).
+     * @throws IOException If the channel fails.
+     */
+    public void sendInput(int mask) throws IOException {
+        if (this.out.position() == 0) {
+            int start = Protocol.beginFrame(this.out);
+            this.out.put(Protocol.INPUT);
+            this.out.putLong(this.latest == null ? Protocol.NO_BASE : this.latest.getTick());
+            this.out.put((byte) mask);
+            Protocol.endFrame(this.out, start);
+        }
+        this.out.flip();
+        this.channel.write(this.out);
+        this.out.compact();
+    }
+
+    /**
+     * Returns the layout of the level.
+     *
+     * @return The layout, or null if the server has not sent it yet.
+     */
+    public LevelLayout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * Returns the latest view of the game.
+     *
+     * @return The view, or null if no state arrived yet.
+     */
+    public WorldView getView() {
+        return this.latest;
+    }
+
+    /**
+     * Returns the number of states received.
+     *
+     * @return The number of states.
+     */
+    public long getStatesReceived() {
+        return this.statesReceived;
+    }
+
+    /**
+     * Returns the number of bytes received.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytesReceived() {
+        return this.bytesReceived;
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @throws IOException If the channel fails to close.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,403 @@
+// Karam Ganaiem
+
+package network;
+
+import gameLogic.Game;
+import gameLogic.GameState;
+import utilities.HeadlessWindow;
+import utilities.InputLog;
+import utilities.ScriptedKeyboard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The network.GameServer class runs the games and streams them to thin clients that only draw them.
+ * Every client that connects gets its own headless game of Game.initialize(), moved by the keys the client
+ * sends. Everything runs on one thread around a non-blocking selector: the server reads input, steps all the
+ * games, and sends every client what changed since the last tick that client acknowledged.
+ * Because each delta is made against an acknowledged tick and not against the last one sent, a lost or
+ * skipped message needs no resending: the next delta simply covers more. A client that reads too slowly has
+ * ticks skipped until its connection drains.
+ */
+public class GameServer implements Closeable {
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private long tickNanos;
+    private List<Connection> connections;
+    private volatile boolean stopped;
+    private long ticks;
+    private long statesSent;
+    private long fullStatesSent;
+    private long statesSkipped;
+    private long bytesSent;
+
+    /**
+     * A connected client and its game.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer in;
+        private final ByteBuffer out; // In write mode, holding what was not sent yet
+        private final ScriptedKeyboard keyboard;
+        private final Game game;
+        private final GameState state;
+        private final WorldView[] history;
+        private final WorldView unknown;
+        private long acked = Protocol.NO_BASE;
+        private boolean overSent;
+
+        /**
+         * Sets up a new client with a new game.
+         *
+         * @param channel The channel of the client.
+         * @throws IOException If the channel cannot be registered.
+         */
+        Connection(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.key = channel.register(selector, SelectionKey.OP_READ, this);
+            this.in = ByteBuffer.allocate(BUFFER_SIZE);
+            this.out = ByteBuffer.allocate(BUFFER_SIZE);
+            this.keyboard = new ScriptedKeyboard();
+            this.game = new Game(new HeadlessWindow(SCREEN_WIDTH, SCREEN_HEIGHT, this.keyboard, false));
+            this.game.initialize();
+            this.state = new GameState();
+            int blocks = this.game.getLevelBlocks().size();
+            int balls = this.game.getLevelBalls().size();
+            this.history = new WorldView[Protocol.HISTORY];
+            for (int i = 0; i < this.history.length; i++) {
+                this.history[i] = new WorldView(blocks, balls);
+            }
+            this.unknown = new WorldView(blocks, balls);
+
+            int start = Protocol.beginFrame(this.out);
+            LevelLayout.of(this.game).encode(this.out);
+            Protocol.endFrame(this.out, start);
+            flush();
+        }
+
+        /**
+         * Reads the messages of the client. Messages of other types are skipped.
+         *
+         * @throws IOException If the channel fails, or the client sent a malformed message.
+         */
+        void read() throws IOException {
+            if (this.channel.read(this.in) < 0) {
+                close();
+                return;
+            }
+            this.in.flip();
+            for (int length = Protocol.nextFrame(this.in); length >= 0; length = Protocol.nextFrame(this.in)) {
+                int end = this.in.position() + 2 + length;
+                this.in.getShort();
+                if (length == 0) {
+                    throw new IOException("An empty message");
+                }
+                if (this.in.get() == Protocol.INPUT) {
+                    if (length != Protocol.INPUT_LENGTH) {
+                        throw new IOException("An INPUT message of " + length + " bytes");
+                    }
+                    this.acked = Math.max(this.acked, this.in.getLong());
+                    pressKeys(this.in.get());
+                }
+                this.in.position(end);
+            }
+            this.in.compact();
+            if (!this.in.hasRemaining()) {
+                throw new IOException("A message larger than the input buffer");
+            }
+        }
+
+        /**
+         * Holds down the keys the client holds, and releases the others.
+         *
+         * @param mask The bits of the keys.
+         */
+        private void pressKeys(int mask) {
+            for (int i = 0; i < InputLog.KEYS.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    this.keyboard.press(InputLog.KEYS[i]);
+                } else {
+                    this.keyboard.release(InputLog.KEYS[i]);
+                }
+            }
+        }
+
+        /**
+         * Steps the game, and sends the client what changed since its acknowledged tick.
+         *
+         * @throws IOException If the channel fails.
+         */
+        void tick() throws IOException {
+            if (this.overSent) {
+                return;
+            }
+            if (!this.game.isOver()) {
+                this.game.tick();
+            }
+            long tick = this.game.getTicks();
+            WorldView current = this.history[(int) (tick % Protocol.HISTORY)];
+            current.readFrom(this.game, this.state);
+
+            if (this.out.position() > 0) {
+                statesSkipped++; // The client has not taken the last message yet
+                return;
+            }
+            WorldView base = this.unknown;
+            if (this.acked != Protocol.NO_BASE && tick - this.acked < Protocol.HISTORY) {
+                WorldView acked = this.history[(int) (this.acked % Protocol.HISTORY)];
+                if (acked.getTick() == this.acked) {
+                    base = acked;
+                }
+            }
+            if (base == this.unknown) {
+                fullStatesSent++;
+            }
+            int start = Protocol.beginFrame(this.out);
+            DeltaCodec.encode(base, current, this.out);
+            Protocol.endFrame(this.out, start);
+            statesSent++;
+            this.overSent = current.isOver();
+            flush();
+        }
+
+        /**
+         * Sends as much of the waiting output as the channel takes, and asks to be told when it can take more.
+         *
+         * @throws IOException If the channel fails.
+         */
+        void flush() throws IOException {
+            this.out.flip();
+            bytesSent += this.channel.write(this.out);
+            this.out.compact();
+            if (this.key.isValid()) {
+                this.key.interestOps(this.out.position() > 0
+                        ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Closes the connection and drops the game.
+         *
+         * @throws IOException If the channel fails to close.
+         */
+        void close() throws IOException {
+            connections.remove(this);
+            this.key.cancel();
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Constructs a server listening on the given address.
+     *
+     * @param address  The address, for example new InetSocketAddress("127.0.0.1", 0) for any free port.
+     * @param tickRate The ticks per second, or 0 to tick as fast as possible.
+     * @throws IOException If the server cannot listen on the address.
+     */
+    public GameServer(InetSocketAddress address, double tickRate) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.server.bind(address);
+        this.server.configureBlocking(false);
+        this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.tickNanos = tickRate > 0 ? (long) (1_000_000_000 / tickRate) : 0;
+        this.connections = new ArrayList<>();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return this.server.socket().getLocalPort();
+    }
+
+    /**
+     * Serves clients until the given number of ticks passed, or until stop() is called.
+     *
+     * @param maxTicks The most ticks to run.
+     * @throws IOException If the selector fails.
+     */
+    public void serve(long maxTicks) throws IOException {
+        long nextTick = System.nanoTime();
+        while (!this.stopped && this.ticks < maxTicks) {
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) {
+                poll(Math.max(1, wait / 1_000_000));
+            } else {
+                poll(0);
+            }
+            if (System.nanoTime() - nextTick >= 0) {
+                tick();
+                nextTick += this.tickNanos;
+            }
+        }
+    }
+
+    /**
+     * Handles the network events that are ready: new clients, input, and channels that can take more output.
+     *
+     * @param timeoutMillis How long to wait for an event, or 0 not to wait.
+     * @throws IOException If the selector fails.
+     */
+    public void poll(long timeoutMillis) throws IOException {
+        if (timeoutMillis > 0) {
+            this.selector.select(timeoutMillis);
+        } else {
+            this.selector.selectNow();
+        }
+        Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            // A client that fails or sends something malformed is dropped, and the others go on
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    connection.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    connection.flush();
+                }
+            } catch (IOException | RuntimeException e) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Accepts a new client, if one is waiting, and sends it the level layout. A client that fails while it is set
+     * up is closed.
+     *
+     * @throws IOException If the server channel fails, or the channel of the client fails to close.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = this.server.accept();
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            this.connections.add(new Connection(channel));
+        } catch (IOException | RuntimeException e) {
+            channel.close(); // Also cancels the key, if it was registered
+        }
+    }
+
+    /**
+     * Steps the games of all the clients once, and sends every client its delta.
+     *
+     * @throws IOException If a channel fails to close.
+     */
+    public void tick() throws IOException {
+        for (int i = this.connections.size() - 1; i >= 0; i--) {
+            Connection connection = this.connections.get(i);
+            try {
+                connection.tick();
+            } catch (IOException | RuntimeException e) {
+                connection.close();
+            }
+        }
+        this.ticks++;
+    }
+
+    /**
+     * Makes serve() return after the current tick. Can be called from any thread.
+     */
+    public void stop() {
+        this.stopped = true;
+        this.selector.wakeup();
+    }
+
+    /**
+     * Returns the number of connected clients.
+     *
+     * @return The number of clients.
+     */
+    public int getClientCount() {
+        return this.connections.size();
+    }
+
+    /**
+     * Returns the number of ticks served.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Returns the number of STATE messages sent to all the clients.
+     *
+     * @return The number of messages.
+     */
+    public long getStatesSent() {
+        return this.statesSent;
+    }
+
+    /**
+     * Returns the number of STATE messages that held everything, because the client had no recent tick.
+     *
+     * @return The number of messages.
+     */
+    public long getFullStatesSent() {
+        return this.fullStatesSent;
+    }
+
+    /**
+     * Returns the number of times a client was skipped because it had not taken its last message yet.
+     *
+     * @return The number of skipped messages.
+     */
+    public long getStatesSkipped() {
+        return this.statesSkipped;
+    }
+
+    /**
+     * Returns the number of bytes sent to all the clients, including framing and the layouts.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytesSent() {
+        return this.bytesSent;
+    }
+
+    /**
+     * Closes all the connections and stops listening.
+     *
+     * @throws IOException If a channel fails to close.
+     */
+    @Override
+    public void close() throws IOException {
+        for (int i = this.connections.size() - 1; i >= 0; i--) {
+            this.connections.get(i).close();
+        }
+        this.server.close();
+        this.selector.close();
+    }
+}
@@ -0,0 +1,92 @@
+// Karam Ganaiem
+
+package network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The sending side of a non-blocking channel that holds every frame back for a fixed time before writing it,
+ * to try out network code on a loopback socket as if the other side were far away.
+ * Frames keep their order, like on a real connection, and holding them back creates no objects: they wait in a
+ * buffer, each behind the time it is due.
+ */
+public class LatencyLink {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SocketChannel channel;
+    private long latencyNanos;
+    private ByteBuffer delayed; // In write mode, holding a long due time before every frame
+    private ByteBuffer out;     // In write mode, holding what is due but was not written yet
+    private long bytesSent;
+
+    /**
+     * Constructs a link over a connected channel.
+     *
+     * @param channel      The channel, in non-blocking mode.
+     * @param latencyNanos The time every frame is held back, in nanoseconds. 0 sends frames at once.
+     */
+    public LatencyLink(SocketChannel channel, long latencyNanos) {
+        this.channel = channel;
+        this.latencyNanos = latencyNanos;
+        this.delayed = ByteBuffer.allocate(BUFFER_SIZE);
+        this.out = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * Queues a frame, to be written when its time comes.
+     *
+     * @param frame The frame, with its length, in read mode. It is read to its end.
+     * @throws java.nio.BufferOverflowException If too many frames are held back.
+     */
+    public void send(ByteBuffer frame) {
+        this.delayed.putLong(System.nanoTime() + this.latencyNanos);
+        this.delayed.put(frame);
+    }
+
+    /**
+     * Writes the frames whose time has come, as far as the channel takes them.
+     *
+     * @throws IOException If the channel fails.
+     */
+    public void flush() throws IOException {
+        long now = System.nanoTime();
+        this.delayed.flip();
+        while (this.delayed.remaining() >= 8 + 2) {
+            int start = this.delayed.position();
+            int length = 2 + (this.delayed.getShort(start + 8) & 0xFFFF);
+            if (this.delayed.getLong(start) - now > 0 || this.out.remaining() < length) {
+                break;
+            }
+            int end = start + 8 + length;
+            int limit = this.delayed.limit();
+            this.delayed.position(start + 8).limit(end);
+            this.out.put(this.delayed);
+            this.delayed.limit(limit);
+        }
+        this.delayed.compact();
+
+        this.out.flip();
+        this.bytesSent += this.channel.write(this.out);
+        this.out.compact();
+    }
+
+    /**
+     * Returns the number of bytes held back or waiting to be written.
+     *
+     * @return The number of bytes.
+     */
+    public int getPending() {
+        return this.delayed.position() + this.out.position();
+    }
+
+    /**
+     * Returns the number of bytes written to the channel so far.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytesSent() {
+        return this.bytesSent;
+    }
+}
@@ -0,0 +1,178 @@
+// Karam Ganaiem
+
+package network;
+
+import biuoop.DrawSurface;
+import gameLogic.Game;
+import geometry.Ball;
+import geometry.Block;
+import geometry.Rectangle;
+import utilities.ColorPalette;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * The parts of a level that never change: where the blocks are and what they look like, the size of the balls
+ * and of the paddle. The server sends it once in the HELLO message, so a client can draw the game from the
+ * views it receives without any game code of its own.
+ */
+public class LevelLayout {
+    private short[] blockBounds; // x, y, width and height of every block
+    private Color[] blockColors;
+    private boolean[] blockVisible;
+    private byte[] ballRadius;
+    private short paddleY;
+    private short paddleWidth;
+    private short paddleHeight;
+
+    /**
+     * Constructs a layout with room for the given numbers of blocks and balls.
+     *
+     * @param blocks The number of blocks.
+     * @param balls  The number of balls.
+     */
+    private LevelLayout(int blocks, int balls) {
+        this.blockBounds = new short[blocks * 4];
+        this.blockColors = new Color[blocks];
+        this.blockVisible = new boolean[blocks];
+        this.ballRadius = new byte[balls];
+    }
+
+    /**
+     * Reads the layout of an initialized game.
+     *
+     * @param game The game.
+     * @return The layout.
+     */
+    public static LevelLayout of(Game game) {
+        List<Block> blocks = game.getLevelBlocks();
+        List<Ball> balls = game.getLevelBalls();
+        LevelLayout layout = new LevelLayout(blocks.size(), balls.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            Rectangle shape = block.getCollisionRectangle();
+            layout.blockBounds[i * 4] = (short) shape.getUpperLeft().getX();
+            layout.blockBounds[i * 4 + 1] = (short) shape.getUpperLeft().getY();
+            layout.blockBounds[i * 4 + 2] = (short) shape.getWidth();
+            layout.blockBounds[i * 4 + 3] = (short) shape.getHeight();
+            layout.blockColors[i] = block.getColor();
+            layout.blockVisible[i] = block.isVisible();
+        }
+        for (int i = 0; i < balls.size(); i++) {
+            layout.ballRadius[i] = (byte) balls.get(i).getSize();
+        }
+        Rectangle paddle = game.getPaddle().getCollisionRectangle();
+        layout.paddleY = (short) paddle.getUpperLeft().getY();
+        layout.paddleWidth = (short) paddle.getWidth();
+        layout.paddleHeight = (short) paddle.getHeight();
+        return layout;
+    }
+
+    /**
+     * Writes a HELLO message with the layout.
+     *
+     * @param out The buffer to write into.
+     */
+    public void encode(ByteBuffer out) {
+        out.put(Protocol.HELLO);
+        out.putShort((short) this.blockColors.length);
+        out.put((byte) this.ballRadius.length);
+        for (int i = 0; i < this.blockColors.length; i++) {
+            for (int j = 0; j < 4; j++) {
+                out.putShort(this.blockBounds[i * 4 + j]);
+            }
+            out.putInt(this.blockColors[i].getRGB());
+            out.put((byte) (this.blockVisible[i] ? 1 : 0));
+        }
+        out.put(this.ballRadius);
+        out.putShort(this.paddleY);
+        out.putShort(this.paddleWidth);
+        out.putShort(this.paddleHeight);
+    }
+
+    /**
+     * Reads the body of a HELLO message, after its type.
+     *
+     * @param in The buffer.
+     * @return The layout.
+     */
+    public static LevelLayout decode(ByteBuffer in) {
+        int blocks = in.getShort() & 0xFFFF;
+        int balls = in.get() & 0xFF;
+        LevelLayout layout = new LevelLayout(blocks, balls);
+        for (int i = 0; i < blocks; i++) {
+            for (int j = 0; j < 4; j++) {
+                layout.blockBounds[i * 4 + j] = in.getShort();
+            }
+            layout.blockColors[i] = new Color(in.getInt());
+            layout.blockVisible[i] = in.get() != 0;
+        }
+        in.get(layout.ballRadius);
+        layout.paddleY = in.getShort();
+        layout.paddleWidth = in.getShort();
+        layout.paddleHeight = in.getShort();
+        return layout;
+    }
+
+    /**
+     * Returns the number of blocks of the level.
+     *
+     * @return The number of blocks.
+     */
+    public int getBlockCount() {
+        return this.blockColors.length;
+    }
+
+    /**
+     * Returns the number of balls of the level.
+     *
+     * @return The number of balls.
+     */
+    public int getBallCount() {
+        return this.ballRadius.length;
+    }
+
+    /**
+     * Returns the width of the paddle.
+     *
+     * @return The width.
+     */
+    public int getPaddleWidth() {
+        return this.paddleWidth;
+    }
+
+    /**
+     * Draws a view of the game the way the game draws itself.
+     *
+     * @param d    The surface to draw on.
+     * @param view The view.
+     */
+    public void drawOn(DrawSurface d, WorldView view) {
+        d.setColor(Color.gray);
+        d.fillRectangle(0, 0, d.getWidth(), d.getHeight());
+        for (int i = 0; i < this.blockColors.length; i++) {
+            if (!this.blockVisible[i] || !view.isBlockAlive(i)) {
+                continue;
+            }
+            int x = this.blockBounds[i * 4];
+            int y = this.blockBounds[i * 4 + 1];
+            int width = this.blockBounds[i * 4 + 2];
+            int height = this.blockBounds[i * 4 + 3];
+            d.setColor(ColorPalette.DARKER.darker(this.blockColors[i]));
+            d.fillRectangle(x, y, width, height);
+            d.setColor(Color.black);
+            d.drawRectangle(x, y, width, height);
+        }
+        for (int i = 0; i < this.ballRadius.length; i++) {
+            if (view.isBallAlive(i)) {
+                d.setColor(ColorPalette.DARKER.darker(new Color(view.getBallColor(i))));
+                d.fillCircle((int) view.getBallX(i), (int) view.getBallY(i), this.ballRadius[i]);
+            }
+        }
+        d.setColor(Color.black);
+        d.fillRectangle((int) view.getPaddleX(), this.paddleY, this.paddleWidth, this.paddleHeight);
+        d.drawText(375, 20, "Score: " + view.getScore(), 20);
+    }
+}
@@ -0,0 +1,94 @@
+// Karam Ganaiem
+
+package network;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The constants and framing of the game stream between a network.GameServer and its clients.
+ * Every message is a frame: an unsigned short with the length of the payload, then the payload, whose first byte
+ * is the type of the message.
+ * <pre>
+ *   HELLO (server to client): the level layout, sent once after connecting.
+ *   STATE (server to client): long tick, long base tick, then what changed since the base tick.
+ *   INPUT (client to server): long acknowledged tick, byte keys held down (bits of utilities.InputLog.KEYS).
+ *   PEER_INPUT (peer to peer): long tick, byte keys held down in that tick.
+ * </pre>
+ */
+public class Protocol {
+    /**
+     * The type of the message with the level layout.
+     */
+    public static final byte HELLO = 1;
+
+    /**
+     * The type of the message with the state of a tick.
+     */
+    public static final byte STATE = 2;
+
+    /**
+     * The type of the message with the input of a client.
+     */
+    public static final byte INPUT = 3;
+
+    /**
+     * The payload length of an INPUT message: the type, the acknowledged tick and the keys.
+     */
+    public static final int INPUT_LENGTH = 1 + 8 + 1;
+
+    /**
+     * The type of the message with the input of a network.RollbackPeer for one tick.
+     */
+    public static final byte PEER_INPUT = 4;
+
+    /**
+     * The base tick of a state that holds everything instead of a delta.
+     */
+    public static final long NO_BASE = -1;
+
+    /**
+     * The number of past ticks both sides keep, so a delta can be made against any of them.
+     */
+    public static final int HISTORY = 64;
+
+    /**
+     * The largest payload of a frame.
+     */
+    public static final int MAX_FRAME = 0xFFFF;
+
+    /**
+     * Starts a frame in a buffer, leaving room for its length.
+     *
+     * @param out The buffer, in write mode.
+     * @return The position of the frame, to pass to endFrame().
+     */
+    public static int beginFrame(ByteBuffer out) {
+        int start = out.position();
+        out.putShort((short) 0);
+        return start;
+    }
+
+    /**
+     * Ends a frame started with beginFrame(), writing its length.
+     *
+     * @param out   The buffer, in write mode.
+     * @param start The position of the frame.
+     */
+    public static void endFrame(ByteBuffer out, int start) {
+        out.putShort(start, (short) (out.position() - start - 2));
+    }
+
+    /**
+     * Returns the length of the next complete frame in a buffer, without reading it.
+     *
+     * @param in The buffer, in read mode.
+     * @return The length of the payload, or -1 if the frame has not fully arrived.
+     */
+    public static int nextFrame(ByteBuffer in) {
+        if (in.remaining() < 2) {
+            return -1;
+        }
+        int length = in.getShort(in.position()) & 0xFFFF;
+        return in.remaining() >= 2 + length ? length : -1;
+    }
+}
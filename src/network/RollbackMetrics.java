@@ -0,0 +1,166 @@
+// Karam Ganaiem
+
+package network;
+
+/**
+ * The counts a network.RollbackPeer keeps about its predictions: how often it guessed the input of the other
+ * player wrong, how far back it had to go to fix it, and how long playing the ticks again took.
+ */
+public class RollbackMetrics {
+    private long ticks;
+    private long predictedTicks;
+    private long mispredictions;
+    private long rollbacks;
+    private long totalDepth;
+    private long maxDepth;
+    private long resimulatedTicks;
+    private long resimulationNanos;
+    private long maxResimulationNanos;
+    private long stalls;
+
+    /**
+     * Counts a tick played for the first time.
+     *
+     * @param predicted True if the input of the other player was not known yet and was guessed.
+     */
+    void tick(boolean predicted) {
+        this.ticks++;
+        if (predicted) {
+            this.predictedTicks++;
+        }
+    }
+
+    /**
+     * Counts an input of the other player that differs from the one guessed for its tick.
+     */
+    void mispredicted() {
+        this.mispredictions++;
+    }
+
+    /**
+     * Counts a rollback.
+     *
+     * @param depth       The number of ticks gone back.
+     * @param resimulated The number of ticks played again.
+     * @param nanos       The time it took to go back and play the ticks again, in nanoseconds.
+     */
+    void rollback(long depth, long resimulated, long nanos) {
+        this.rollbacks++;
+        this.totalDepth += depth;
+        this.maxDepth = Math.max(this.maxDepth, depth);
+        this.resimulatedTicks += resimulated;
+        this.resimulationNanos += nanos;
+        this.maxResimulationNanos = Math.max(this.maxResimulationNanos, nanos);
+    }
+
+    /**
+     * Counts a frame in which the peer waited because it was too far ahead of the other player.
+     */
+    void stall() {
+        this.stalls++;
+    }
+
+    /**
+     * Returns the number of ticks played, not counting the ones played again.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Returns the number of ticks first played with a guessed input of the other player.
+     *
+     * @return The number of ticks.
+     */
+    public long getPredictedTicks() {
+        return this.predictedTicks;
+    }
+
+    /**
+     * Returns the number of inputs of the other player that were guessed wrong.
+     *
+     * @return The number of inputs.
+     */
+    public long getMispredictions() {
+        return this.mispredictions;
+    }
+
+    /**
+     * Returns the number of rollbacks.
+     *
+     * @return The number of rollbacks.
+     */
+    public long getRollbacks() {
+        return this.rollbacks;
+    }
+
+    /**
+     * Returns the average number of ticks gone back in a rollback.
+     *
+     * @return The average depth, or 0 if there were no rollbacks.
+     */
+    public double getAverageDepth() {
+        return this.rollbacks == 0 ? 0 : (double) this.totalDepth / this.rollbacks;
+    }
+
+    /**
+     * Returns the most ticks gone back in one rollback.
+     *
+     * @return The depth.
+     */
+    public long getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Returns the number of ticks played again in all the rollbacks.
+     *
+     * @return The number of ticks.
+     */
+    public long getResimulatedTicks() {
+        return this.resimulatedTicks;
+    }
+
+    /**
+     * Returns the average time of a rollback, going back included.
+     *
+     * @return The time in nanoseconds, or 0 if there were no rollbacks.
+     */
+    public double getAverageResimulationNanos() {
+        return this.rollbacks == 0 ? 0 : (double) this.resimulationNanos / this.rollbacks;
+    }
+
+    /**
+     * Returns the longest time a rollback took, going back included.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getMaxResimulationNanos() {
+        return this.maxResimulationNanos;
+    }
+
+    /**
+     * Returns the number of frames in which the peer waited for the other player.
+     *
+     * @return The number of frames.
+     */
+    public long getStalls() {
+        return this.stalls;
+    }
+
+    /**
+     * Returns the metrics as one line of text.
+     *
+     * @return The text.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d ticks, %d predicted, %d mispredicted, %d rollbacks (depth avg %.1f, max %d), "
+                        + "%d ticks played again (avg %.1f us, max %.1f us per rollback), %d stalls",
+                this.ticks, this.predictedTicks, this.mispredictions, this.rollbacks, getAverageDepth(),
+                this.maxDepth, this.resimulatedTicks, getAverageResimulationNanos() / 1000.0,
+                this.maxResimulationNanos / 1000.0, this.stalls);
+    }
+}
@@ -0,0 +1,297 @@
+// Karam Ganaiem
+
+package network;
+
+import gameLogic.Game;
+import utilities.HeadlessWindow;
+import utilities.InputLog;
+import utilities.ScriptedKeyboard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * One side of a two player game played over the network, where both players move their own paddle in the same
+ * field and every peer runs the whole game.
+ * The peers only send each other their keys, one message per tick. A peer does not wait for the keys of the
+ * other player: it guesses them, by assuming the other player still holds the keys of the last tick it heard
+ * about, and plays on. The state of every tick is kept, and when the real keys of a tick differ from the guess,
+ * the peer goes back to that tick and quickly plays the ticks since then again, with the keys it knows now.
+ * A peer that gets more than a window of ticks ahead of the keys it heard about waits, so both games stay in
+ * step and rolling back never needs a state that was not kept. Once both peers heard all the keys, their games
+ * are in the same state.
+ */
+public class RollbackPeer implements Closeable {
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long NONE = -1;
+
+    private Game game;
+    private ScriptedKeyboard[] keyboards;
+    private int player;
+    private int window;
+    private long maxTicks;
+    private SocketChannel channel;
+    private LatencyLink link;
+    private ByteBuffer in;
+    private ByteBuffer frame;
+    private int[] localInputs;     // The keys of this player, by tick
+    private int[] remoteInputs;    // The keys of the other player, by tick, as far as they are known
+    private int[] predictedInputs; // The keys of the other player the last play of a tick used, by tick
+    private long remoteConfirmed = NONE; // The last tick whose keys of the other player are known
+    private long firstWrong = NONE;      // The first tick played with a wrong guess, if a rollback is needed
+    private RollbackMetrics metrics;
+
+    /**
+     * Constructs a peer and sets up its game.
+     *
+     * @param player       The player of this peer: 0 for the first paddle, 1 for the second.
+     * @param channel      The connected channel to the other peer, in non-blocking mode.
+     * @param latencyNanos The time every message to the other peer is held back, to try out a slow network.
+     * @param window       The most ticks the peer plays ahead of the keys it heard about.
+     * @param maxTicks     The most ticks to play.
+     */
+    public RollbackPeer(int player, SocketChannel channel, long latencyNanos, int window, long maxTicks) {
+        this.keyboards = new ScriptedKeyboard[] {new ScriptedKeyboard(), new ScriptedKeyboard()};
+        this.game = new Game(new HeadlessWindow(SCREEN_WIDTH, SCREEN_HEIGHT, this.keyboards[0], false));
+        this.game.setSecondPlayer(this.keyboards[1]);
+        this.game.initialize();
+        this.game.enableRewind(window + 1);
+        this.player = player;
+        this.window = window;
+        this.maxTicks = maxTicks;
+        this.channel = channel;
+        this.link = new LatencyLink(channel, latencyNanos);
+        this.in = ByteBuffer.allocate(BUFFER_SIZE);
+        this.frame = ByteBuffer.allocate(16);
+        this.localInputs = new int[2 * (window + 1)];
+        this.remoteInputs = new int[2 * (window + 1)];
+        this.predictedInputs = new int[2 * (window + 1)];
+        this.metrics = new RollbackMetrics();
+    }
+
+    /**
+     * Runs one frame of the peer: reads the keys the other player sent, rolls back if a guess was wrong, and
+     * plays the next tick with the given keys of this player, unless the peer is too far ahead or finished.
+     *
+     * @param keys The keys this player holds down, as bits of utilities.InputLog.KEYS.
+     * @return True if a tick was played, false if the peer waited.
+     * @throws IOException If the channel fails.
+     */
+    public boolean advance(int keys) throws IOException {
+        receive();
+        if (this.firstWrong != NONE) {
+            rollback();
+        }
+        long tick = this.game.getTicks();
+        boolean played = false;
+        if (tick >= this.maxTicks || this.game.isOver()) {
+            // Nothing left to play, but the other peer may still need the keys that were sent
+            this.link.flush();
+            return false;
+        }
+        if (tick - this.remoteConfirmed > this.window) {
+            this.metrics.stall();
+        } else {
+            this.localInputs[slot(tick)] = keys;
+            sendInput(tick, keys);
+            this.metrics.tick(tick > this.remoteConfirmed);
+            play(tick);
+            played = true;
+        }
+        this.link.flush();
+        return played;
+    }
+
+    /**
+     * Checks if the peer finished: its game is over or all its ticks were played, and every tick was played with
+     * the real keys of the other player.
+     *
+     * @return True if the peer finished, false otherwise.
+     */
+    public boolean isFinished() {
+        long ticks = this.game.getTicks();
+        return (ticks >= this.maxTicks || this.game.isOver()) && this.remoteConfirmed >= ticks - 1
+                && this.firstWrong == NONE;
+    }
+
+    /**
+     * Returns the game of the peer.
+     *
+     * @return The game.
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * Returns the player of this peer.
+     *
+     * @return 0 for the first paddle, 1 for the second.
+     */
+    public int getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * Returns the last tick whose keys of the other player are known.
+     *
+     * @return The tick, or -1 if no keys were heard yet.
+     */
+    public long getRemoteConfirmed() {
+        return this.remoteConfirmed;
+    }
+
+    /**
+     * Returns the counts of the predictions and rollbacks of the peer.
+     *
+     * @return The metrics.
+     */
+    public RollbackMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Returns the number of bytes sent to the other peer so far.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytesSent() {
+        return this.link.getBytesSent();
+    }
+
+    /**
+     * Closes the channel to the other peer.
+     *
+     * @throws IOException If the channel fails to close.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Reads the keys the other player sent, and notes the first tick that was played with a wrong guess.
+     *
+     * @throws IOException If the channel fails or the other peer hung up.
+     */
+    private void receive() throws IOException {
+        if (this.channel.read(this.in) < 0) {
+            throw new IOException("The other peer hung up");
+        }
+        this.in.flip();
+        for (int length = Protocol.nextFrame(this.in); length >= 0; length = Protocol.nextFrame(this.in)) {
+            int end = this.in.position() + 2 + length;
+            this.in.getShort();
+            if (this.in.get() == Protocol.PEER_INPUT) {
+                long tick = this.in.getLong();
+                int keys = this.in.get();
+                if (tick != this.remoteConfirmed + 1) {
+                    throw new IOException("Expected the keys of tick " + (this.remoteConfirmed + 1)
+                            + " but got tick " + tick);
+                }
+                this.remoteInputs[slot(tick)] = keys;
+                this.remoteConfirmed = tick;
+                if (tick < this.game.getTicks() && this.predictedInputs[slot(tick)] != keys) {
+                    this.metrics.mispredicted();
+                    if (this.firstWrong == NONE) {
+                        this.firstWrong = tick;
+                    }
+                }
+            }
+            this.in.position(end);
+        }
+        this.in.compact();
+    }
+
+    /**
+     * Goes back to the first tick played with a wrong guess, and plays the ticks since then again.
+     */
+    private void rollback() {
+        long start = System.nanoTime();
+        long now = this.game.getTicks();
+        long depth = this.game.rewind(now - this.firstWrong);
+        long resimulated = 0;
+        // Stop at the end of the game, which may come earlier with the real keys than with the guessed ones
+        while (this.game.getTicks() < now && !this.game.isOver()) {
+            play(this.game.getTicks());
+            resimulated++;
+        }
+        this.firstWrong = NONE;
+        this.metrics.rollback(depth, resimulated, System.nanoTime() - start);
+    }
+
+    /**
+     * Plays a tick with the keys of this player and the real or guessed keys of the other player.
+     *
+     * @param tick The tick, which is the next tick of the game.
+     */
+    private void play(long tick) {
+        int remote = remoteKeys(tick);
+        this.predictedInputs[slot(tick)] = remote;
+        pressKeys(this.keyboards[this.player], this.localInputs[slot(tick)]);
+        pressKeys(this.keyboards[1 - this.player], remote);
+        this.game.tick();
+    }
+
+    /**
+     * Returns the keys of the other player in a tick: the real ones if they are known, or else the last ones
+     * that are known.
+     *
+     * @param tick The tick.
+     * @return The bits of the keys.
+     */
+    private int remoteKeys(long tick) {
+        if (tick <= this.remoteConfirmed) {
+            return this.remoteInputs[slot(tick)];
+        }
+        return this.remoteConfirmed == NONE ? 0 : this.remoteInputs[slot(this.remoteConfirmed)];
+    }
+
+    /**
+     * Sends the keys of this player in a tick to the other peer.
+     *
+     * @param tick The tick.
+     * @param keys The bits of the keys.
+     */
+    private void sendInput(long tick, int keys) {
+        this.frame.clear();
+        int start = Protocol.beginFrame(this.frame);
+        this.frame.put(Protocol.PEER_INPUT);
+        this.frame.putLong(tick);
+        this.frame.put((byte) keys);
+        Protocol.endFrame(this.frame, start);
+        this.frame.flip();
+        this.link.send(this.frame);
+    }
+
+    /**
+     * Returns the place of a tick in the input arrays, which hold a window of ticks on both sides of the current
+     * tick.
+     *
+     * @param tick The tick.
+     * @return The index.
+     */
+    private int slot(long tick) {
+        return (int) (tick % this.localInputs.length);
+    }
+
+    /**
+     * Holds down the keys of a mask on a keyboard, and releases the others.
+     *
+     * @param keyboard The keyboard.
+     * @param mask     The bits of the keys.
+     */
+    private static void pressKeys(ScriptedKeyboard keyboard, int mask) {
+        for (int i = 0; i < InputLog.KEYS.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                keyboard.press(InputLog.KEYS[i]);
+            } else {
+                keyboard.release(InputLog.KEYS[i]);
+            }
+        }
+    }
+}
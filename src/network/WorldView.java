@@ -0,0 +1,269 @@
+// Karam Ganaiem
+
+package network;
+
+import gameLogic.Game;
+import gameLogic.GameState;
+
+import java.util.Arrays;
+
+/**
+ * What a client needs to draw one tick of a game: the paddle, the balls, which blocks are left, and the score.
+ * Positions are kept as floats, which is plenty for drawing and halves the size of the stream.
+ * The server keeps the views of its recent ticks, and a client keeps the views it received, so both sides can
+ * work out a delta against any recent tick.
+ */
+public class WorldView {
+    private long tick;
+    private int score;
+    private boolean over;
+    private float paddleX;
+    private boolean[] blockAlive;
+    private boolean[] ballAlive;
+    private float[] ballX;
+    private float[] ballY;
+    private int[] ballColor; // RGB
+
+    /**
+     * Constructs a view of a level with the given numbers of blocks and balls, in which nothing is known yet:
+     * every block is in the game, and the positions and the score have values no real tick has.
+     * A delta against such a view holds everything.
+     *
+     * @param blocks The number of blocks.
+     * @param balls  The number of balls.
+     */
+    public WorldView(int blocks, int balls) {
+        this.tick = Protocol.NO_BASE;
+        this.score = Integer.MIN_VALUE;
+        this.paddleX = Float.NaN;
+        this.blockAlive = new boolean[blocks];
+        Arrays.fill(this.blockAlive, true);
+        this.ballAlive = new boolean[balls];
+        this.ballX = new float[balls];
+        this.ballY = new float[balls];
+        this.ballColor = new int[balls];
+        Arrays.fill(this.ballX, Float.NaN);
+        Arrays.fill(this.ballY, Float.NaN);
+    }
+
+    /**
+     * Fills the view from the current tick of a game.
+     *
+     * @param game  The game.
+     * @param state A state to save the game into, reused between calls.
+     */
+    public void readFrom(Game game, GameState state) {
+        game.saveState(state);
+        this.tick = state.getTicks();
+        this.score = state.getScore();
+        this.over = game.isOver();
+        this.paddleX = (float) state.getPaddleX();
+        for (int i = 0; i < this.blockAlive.length; i++) {
+            this.blockAlive[i] = state.isBlockAlive(i);
+        }
+        for (int i = 0; i < this.ballAlive.length; i++) {
+            this.ballAlive[i] = state.isBallAlive(i);
+            this.ballX[i] = (float) state.getBallX(i);
+            this.ballY[i] = (float) state.getBallY(i);
+            this.ballColor[i] = game.getColorAt(state.getBallColor(i)).getRGB();
+        }
+    }
+
+    /**
+     * Copies another view of the same level into this one.
+     *
+     * @param other The view to copy.
+     */
+    public void copyFrom(WorldView other) {
+        this.tick = other.tick;
+        this.score = other.score;
+        this.over = other.over;
+        this.paddleX = other.paddleX;
+        System.arraycopy(other.blockAlive, 0, this.blockAlive, 0, this.blockAlive.length);
+        System.arraycopy(other.ballAlive, 0, this.ballAlive, 0, this.ballAlive.length);
+        System.arraycopy(other.ballX, 0, this.ballX, 0, this.ballX.length);
+        System.arraycopy(other.ballY, 0, this.ballY, 0, this.ballY.length);
+        System.arraycopy(other.ballColor, 0, this.ballColor, 0, this.ballColor.length);
+    }
+
+    /**
+     * Returns the tick of the view.
+     *
+     * @return The tick, or Protocol.NO_BASE if the view holds no tick yet.
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Sets the tick of the view.
+     *
+     * @param tick The tick.
+     */
+    void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Returns the score.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Sets the score.
+     *
+     * @param score The score.
+     */
+    void setScore(int score) {
+        this.score = score;
+    }
+
+    /**
+     * Checks if the game is over.
+     *
+     * @return True if the game is over.
+     */
+    public boolean isOver() {
+        return this.over;
+    }
+
+    /**
+     * Sets if the game is over.
+     *
+     * @param over True if the game is over.
+     */
+    void setOver(boolean over) {
+        this.over = over;
+    }
+
+    /**
+     * Returns the x-coordinate of the left edge of the paddle.
+     *
+     * @return The x-coordinate.
+     */
+    public float getPaddleX() {
+        return this.paddleX;
+    }
+
+    /**
+     * Sets the x-coordinate of the left edge of the paddle.
+     *
+     * @param x The x-coordinate.
+     */
+    void setPaddleX(float x) {
+        this.paddleX = x;
+    }
+
+    /**
+     * Returns the number of blocks of the level.
+     *
+     * @return The number of blocks.
+     */
+    public int getBlockCount() {
+        return this.blockAlive.length;
+    }
+
+    /**
+     * Checks if a block is in the game.
+     *
+     * @param i The index of the block.
+     * @return True if the block is in the game.
+     */
+    public boolean isBlockAlive(int i) {
+        return this.blockAlive[i];
+    }
+
+    /**
+     * Sets if a block is in the game.
+     *
+     * @param i     The index of the block.
+     * @param alive True if the block is in the game.
+     */
+    void setBlockAlive(int i, boolean alive) {
+        this.blockAlive[i] = alive;
+    }
+
+    /**
+     * Returns the number of balls of the level.
+     *
+     * @return The number of balls.
+     */
+    public int getBallCount() {
+        return this.ballAlive.length;
+    }
+
+    /**
+     * Checks if a ball is in the game.
+     *
+     * @param i The index of the ball.
+     * @return True if the ball is in the game.
+     */
+    public boolean isBallAlive(int i) {
+        return this.ballAlive[i];
+    }
+
+    /**
+     * Returns the x-coordinate of the center of a ball.
+     *
+     * @param i The index of the ball.
+     * @return The x-coordinate.
+     */
+    public float getBallX(int i) {
+        return this.ballX[i];
+    }
+
+    /**
+     * Returns the y-coordinate of the center of a ball.
+     *
+     * @param i The index of the ball.
+     * @return The y-coordinate.
+     */
+    public float getBallY(int i) {
+        return this.ballY[i];
+    }
+
+    /**
+     * Returns the color of a ball.
+     *
+     * @param i The index of the ball.
+     * @return The color as RGB.
+     */
+    public int getBallColor(int i) {
+        return this.ballColor[i];
+    }
+
+    /**
+     * Sets the state of a ball.
+     *
+     * @param i     The index of the ball.
+     * @param alive True if the ball is in the game.
+     * @param x     The x-coordinate of the center.
+     * @param y     The y-coordinate of the center.
+     * @param color The color as RGB.
+     */
+    void setBall(int i, boolean alive, float x, float y, int color) {
+        this.ballAlive[i] = alive;
+        this.ballX[i] = x;
+        this.ballY[i] = y;
+        this.ballColor[i] = color;
+    }
+
+    /**
+     * Checks if a ball looks different in another view.
+     *
+     * @param i     The index of the ball.
+     * @param other The other view.
+     * @return True if the ball differs.
+     */
+    boolean ballDiffers(int i, WorldView other) {
+        // Compared by bits, so the NaN positions of an unknown view always differ from real ones
+        return this.ballAlive[i] != other.ballAlive[i]
+                || Float.floatToIntBits(this.ballX[i]) != Float.floatToIntBits(other.ballX[i])
+                || Float.floatToIntBits(this.ballY[i]) != Float.floatToIntBits(other.ballY[i])
+                || this.ballColor[i] != other.ballColor[i];
+    }
+}
@@ -0,0 +1,86 @@
+// Karam Ganaiem
+
+package utilities;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A counter that is safe to change from several threads at once, and whose value is always exact.
+ * Every change is a single atomic step, so a thread that decreases the counter can tell for sure whether it was
+ * the one that brought it to zero, which is what a check like "no balls are left" needs.
+ * Under heavy contention from many threads a utilities.StripedCounter is faster, but its value is only exact when
+ * nobody is changing it.
+ */
+public class AtomicCounter extends Counter {
+    private final AtomicInteger value;
+
+    /**
+     * Constructs a new counter with an initial value.
+     *
+     * @param initialValue The initial value of the counter.
+     */
+    public AtomicCounter(int initialValue) {
+        this.value = new AtomicInteger(initialValue);
+    }
+
+    /**
+     * Constructs a new counter with an initial value of 0.
+     */
+    public AtomicCounter() {
+        this(0);
+    }
+
+    /**
+     * Increases the counter by a specified number.
+     *
+     * @param number The number to increase the counter by.
+     */
+    @Override
+    public void increase(int number) {
+        int newValue = this.value.addAndGet(number);
+        changed(newValue - number, newValue);
+    }
+
+    /**
+     * Decreases the counter by a specified number.
+     *
+     * @param number The number to decrease the counter by.
+     */
+    @Override
+    public void decrease(int number) {
+        decreaseAndGet(number);
+    }
+
+    /**
+     * Decreases the counter by a specified number, and returns the value this change left it at.
+     * Of all the threads that decrease the counter, exactly one sees it reach zero.
+     *
+     * @param number The number to decrease the counter by.
+     * @return The value right after this change.
+     */
+    public int decreaseAndGet(int number) {
+        int newValue = this.value.addAndGet(-number);
+        changed(newValue + number, newValue);
+        return newValue;
+    }
+
+    /**
+     * Gets the current value of the counter.
+     *
+     * @return The current value of the counter.
+     */
+    @Override
+    public int getValue() {
+        return this.value.get();
+    }
+
+    /**
+     * Sets the counter to a specified value, for example when a saved game is restored.
+     *
+     * @param newValue The new value of the counter.
+     */
+    @Override
+    public void setValue(int newValue) {
+        changed(this.value.getAndSet(newValue), newValue);
+    }
+}
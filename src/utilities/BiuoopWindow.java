@@ -0,0 +1,118 @@
+// Karam Ganaiem
+
+package utilities;
+
+import biuoop.DrawSurface;
+import biuoop.GUI;
+import biuoop.KeyboardSensor;
+import biuoop.Sleeper;
+import interfaces.GameWindow;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A game window shown on the screen with the biuoop GUI.
+ */
+public class BiuoopWindow implements GameWindow {
+    private GUI gui;
+    private Sleeper sleeper;
+    private int width;
+    private int height;
+
+    /**
+     * Opens a new window on the screen.
+     *
+     * @param title  The title of the window.
+     * @param width  The width of the window.
+     * @param height The height of the window.
+     */
+    public BiuoopWindow(String title, int width, int height) {
+        this.gui = new GUI(title, width, height);
+        this.sleeper = new Sleeper();
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Returns a new surface of the GUI to draw the next frame on.
+     *
+     * @return The surface of the next frame.
+     */
+    @Override
+    public DrawSurface getDrawSurface() {
+        return this.gui.getDrawSurface();
+    }
+
+    /**
+     * Shows a frame on the screen.
+     *
+     * @param d The surface of the frame.
+     */
+    @Override
+    public void show(DrawSurface d) {
+        this.gui.show(d);
+    }
+
+    /**
+     * Returns the keyboard of the GUI.
+     *
+     * @return The keyboard sensor.
+     */
+    @Override
+    public KeyboardSensor getKeyboardSensor() {
+        return this.gui.getKeyboardSensor();
+    }
+
+    /**
+     * Closes the window.
+     */
+    @Override
+    public void close() {
+        this.gui.close();
+    }
+
+    /**
+     * Opens another window on the screen, with the same size.
+     *
+     * @param title The title of the new window.
+     * @return The new window.
+     */
+    @Override
+    public GameWindow open(String title) {
+        return new BiuoopWindow(title, this.width, this.height);
+    }
+
+    /**
+     * Waits for the given time.
+     *
+     * @param milliseconds The time to wait, in milliseconds.
+     */
+    @Override
+    public void sleepFor(long milliseconds) {
+        this.sleeper.sleepFor(milliseconds);
+    }
+
+    /**
+     * Returns the time of the system's precise clock.
+     *
+     * @return The time in nanoseconds.
+     */
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Waits until the system's precise clock reaches the given time.
+     *
+     * @param time The time to wait for, in nanoseconds.
+     */
+    @Override
+    public void sleepUntil(long time) {
+        long remaining = time - System.nanoTime();
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = time - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+// Karam Ganaiem
+
+package utilities;
+
+import interfaces.Collidable;
+
+/**
+ * Holds the collidables found around a ball in some region, so later queries inside that region can test
+ * only them instead of searching the whole environment again.
+ * A ball moves only a little in one frame, so the same candidates usually serve many frames in a row.
+ * The cache belongs to one ball and is not shared between threads.
+ */
+public class CandidateCache {
+    private Collidable[] collidables;
+    private int[] orders;
+    private int count;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    private long version; // The static version of the environment the candidates were collected at
+    private boolean valid;
+
+    /**
+     * Constructs an empty cache that covers no region.
+     */
+    public CandidateCache() {
+        this.collidables = new Collidable[8];
+        this.orders = new int[8];
+    }
+
+    /**
+     * Checks if the cache can answer a query whose area lies in the given box.
+     *
+     * @param x1      The left edge of the query area.
+     * @param y1      The upper edge of the query area.
+     * @param x2      The right edge of the query area.
+     * @param y2      The lower edge of the query area.
+     * @param current The current static version of the environment.
+     * @return True if the candidates are up to date and the area is inside the cached region, false otherwise.
+     */
+    public boolean covers(double x1, double y1, double x2, double y2, long current) {
+        return this.valid && this.version == current
+                && x1 >= this.minX && y1 >= this.minY && x2 <= this.maxX && y2 <= this.maxY;
+    }
+
+    /**
+     * Empties the cache and starts collecting the candidates of a new region.
+     *
+     * @param x1      The left edge of the region.
+     * @param y1      The upper edge of the region.
+     * @param x2      The right edge of the region.
+     * @param y2      The lower edge of the region.
+     * @param current The current static version of the environment.
+     */
+    public void reset(double x1, double y1, double x2, double y2, long current) {
+        for (int i = 0; i < this.count; i++) {
+            this.collidables[i] = null;
+        }
+        this.count = 0;
+        this.minX = x1;
+        this.minY = y1;
+        this.maxX = x2;
+        this.maxY = y2;
+        this.version = current;
+        this.valid = true;
+    }
+
+    /**
+     * Marks the cache as out of date, so the next query collects the candidates again.
+     */
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * Adds a candidate collidable to the cache.
+     *
+     * @param collidable The collidable.
+     * @param order      The order in which the collidable was added to its broad phase, used to break ties.
+     */
+    public void add(Collidable collidable, int order) {
+        if (this.count == this.collidables.length) {
+            Collidable[] grownCollidables = new Collidable[this.count * 2];
+            int[] grownOrders = new int[this.count * 2];
+            System.arraycopy(this.collidables, 0, grownCollidables, 0, this.count);
+            System.arraycopy(this.orders, 0, grownOrders, 0, this.count);
+            this.collidables = grownCollidables;
+            this.orders = grownOrders;
+        }
+        this.collidables[this.count] = collidable;
+        this.orders[this.count] = order;
+        this.count++;
+    }
+
+    /**
+     * Returns the number of candidates in the cache.
+     *
+     * @return The number of candidates.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Returns a candidate collidable.
+     *
+     * @param i The index of the candidate.
+     * @return The collidable.
+     */
+    public Collidable getCollidable(int i) {
+        return this.collidables[i];
+    }
+
+    /**
+     * Returns the order of a candidate collidable.
+     *
+     * @param i The index of the candidate.
+     * @return The order in which the collidable was added to its broad phase.
+     */
+    public int getOrder(int i) {
+        return this.orders[i];
+    }
+}
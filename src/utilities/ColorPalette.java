@@ -0,0 +1,61 @@
+// Karam Ganaiem
+
+package utilities;
+
+import java.awt.Color;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the darker shades of colors used to draw blocks and balls.
+ * Each shade is computed once for every distinct base color and then shared, so drawing does not create colors.
+ * The palette may be used from several threads.
+ */
+public class ColorPalette {
+    /**
+     * The palette used by blocks and balls, which darkens every channel by 75.
+     */
+    public static final ColorPalette DARKER = new ColorPalette(75);
+
+    private int darkeningFactor;
+    private ConcurrentHashMap<Color, Color> shades;
+
+    /**
+     * Constructs a palette that darkens colors by the given amount.
+     *
+     * @param darkeningFactor The amount subtracted from each of the red, green and blue channels.
+     */
+    public ColorPalette(int darkeningFactor) {
+        this.darkeningFactor = darkeningFactor;
+        this.shades = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the darker shade of a color, computing it only the first time it is asked for.
+     *
+     * @param base The base color.
+     * @return The shared darker shade of the color.
+     */
+    public Color darker(Color base) {
+        Color shade = this.shades.get(base);
+        if (shade == null) {
+            int red = Math.max(0, base.getRed() - this.darkeningFactor);
+            int green = Math.max(0, base.getGreen() - this.darkeningFactor);
+            int blue = Math.max(0, base.getBlue() - this.darkeningFactor);
+            Color computed = new Color(red, green, blue);
+            shade = this.shades.putIfAbsent(base, computed);
+            if (shade == null) {
+                shade = computed;
+            }
+        }
+        return shade;
+    }
+
+    /**
+     * Returns the number of base colors whose shades were computed so far.
+     *
+     * @return The number of cached shades.
+     */
+    public int size() {
+        return this.shades.size();
+    }
+}
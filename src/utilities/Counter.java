@@ -2,11 +2,17 @@
 
 package utilities;
 
+import interfaces.CounterListener;
+
 /**
  * The Counter class represents a simple counter that can be incremented or decremented.
+ * A counter can have one listener that is told about every change.
+ * The counter is not safe to change from several threads at once; utilities.AtomicCounter and
+ * utilities.StripedCounter are.
  */
 public class Counter {
     private int currentCounter;
+    private CounterListener listener;
 
     /**
      * Constructs a new Counter with an initial value.
@@ -31,6 +37,7 @@ public class Counter {
      */
     public void increase(int number) {
         this.currentCounter += number;
+        changed(this.currentCounter - number, this.currentCounter);
     }
 
     /**
@@ -40,6 +47,7 @@ public class Counter {
      */
     public void decrease(int number) {
         this.currentCounter -= number;
+        changed(this.currentCounter + number, this.currentCounter);
     }
 
     /**
@@ -50,4 +58,45 @@ public class Counter {
     public int getValue() {
         return currentCounter;
     }
+
+    /**
+     * Sets the counter to a specified value, for example when a saved game is restored.
+     *
+     * @param value The new value of the counter.
+     */
+    public void setValue(int value) {
+        int oldValue = this.currentCounter;
+        this.currentCounter = value;
+        changed(oldValue, value);
+    }
+
+    /**
+     * Tells the listener of the counter about a change, if it has a listener and the value really changed.
+     *
+     * @param oldValue The value before the change.
+     * @param newValue The value after the change.
+     */
+    protected void changed(int oldValue, int newValue) {
+        if (this.listener != null && oldValue != newValue) {
+            this.listener.counterChanged(this, oldValue, newValue);
+        }
+    }
+
+    /**
+     * Sets the listener that is told about every change of the counter, replacing the one it had.
+     *
+     * @param listener The listener, or null for none.
+     */
+    public void setListener(CounterListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the listener of the counter.
+     *
+     * @return The listener, or null if it has none.
+     */
+    public CounterListener getListener() {
+        return this.listener;
+    }
 }
@@ -0,0 +1,89 @@
+// Karam Ganaiem
+
+package utilities;
+
+import gameLogic.Game;
+import geometry.Ball;
+import geometry.Rectangle;
+import interfaces.InputPolicy;
+
+import java.util.List;
+
+/**
+ * A simple player that keeps the middle of the paddle under the lowest ball that is falling.
+ */
+public class FollowBallPolicy implements InputPolicy {
+    /**
+     * How far the middle of the paddle may be from the ball before the paddle moves.
+     */
+    private static final double DEAD_ZONE = 7;
+
+    private int player; // The index of the paddle that is moved
+
+    /**
+     * Constructs a policy that moves the paddle of the first player.
+     */
+    public FollowBallPolicy() {
+        this(0);
+    }
+
+    /**
+     * Constructs a policy that moves the paddle of the given player.
+     *
+     * @param player The index of the player in Game.getPaddles().
+     */
+    public FollowBallPolicy(int player) {
+        this.player = player;
+    }
+
+    /**
+     * Moves the paddle towards the lowest falling ball, or the lowest ball if none is falling.
+     *
+     * @param game The game being played.
+     * @param tick The number of the next tick, starting from 0.
+     * @return LEFT, STAY or RIGHT.
+     */
+    @Override
+    public int chooseDirection(Game game, long tick) {
+        List<Paddle> paddles = game.getPaddles();
+        List<Ball> balls = game.getBalls();
+        if (paddles.size() <= this.player || balls.isEmpty()) {
+            return STAY;
+        }
+        Paddle paddle = paddles.get(this.player);
+
+        Ball target = null;
+        for (Ball ball : balls) {
+            if (target == null || isBetterTarget(ball, target)) {
+                target = ball;
+            }
+        }
+
+        Rectangle shape = paddle.getCollisionRectangle();
+        double middle = shape.getUpperLeft().getX() + shape.getWidth() / 2;
+        double offset = target.getCenter().getX() - middle;
+        if (offset < -DEAD_ZONE) {
+            return LEFT;
+        }
+        if (offset > DEAD_ZONE) {
+            return RIGHT;
+        }
+        return STAY;
+    }
+
+    /**
+     * Checks if one ball should be followed rather than another: falling balls first, then lower balls.
+     *
+     * @param ball    The ball to check.
+     * @param current The ball followed so far.
+     * @return True if the ball should be followed instead.
+     */
+    private static boolean isBetterTarget(Ball ball, Ball current) {
+        boolean falling = ball.getVelocity().getDy() > 0;
+        boolean currentFalling = current.getVelocity().getDy() > 0;
+        if (falling != currentFalling) {
+            return falling;
+        }
+        return ball.getCenter().getY() > current.getCenter().getY();
+    }
+}
@@ -0,0 +1,160 @@
+// Karam Ganaiem
+
+package utilities;
+
+import biuoop.DrawSurface;
+import biuoop.KeyboardSensor;
+import interfaces.GameWindow;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A game window without a display, for servers, simulations and benchmarks.
+ * Frames are drawn on a surface that ignores them, or on an off-screen image that can be looked at afterwards.
+ * Input comes from a utilities.ScriptedKeyboard, and the window never waits: it keeps a simulated clock that
+ * jumps forward instead, so games run as fast as they can.
+ */
+public class HeadlessWindow implements GameWindow {
+    private int width;
+    private int height;
+    private ScriptedKeyboard keyboard;
+    private boolean offScreen;
+    private DrawSurface surface;
+    private long framesShown;
+    private boolean closed;
+    private long clock; // Simulated time, moved forward only by waiting
+
+    /**
+     * Constructs a headless window that ignores everything drawn on it.
+     *
+     * @param width  The width of the window.
+     * @param height The height of the window.
+     */
+    public HeadlessWindow(int width, int height) {
+        this(width, height, new ScriptedKeyboard(), false);
+    }
+
+    /**
+     * Constructs a headless window.
+     *
+     * @param width     The width of the window.
+     * @param height    The height of the window.
+     * @param keyboard  The keyboard that drives the game.
+     * @param offScreen True to draw the frames on an off-screen image, false to ignore them.
+     */
+    public HeadlessWindow(int width, int height, ScriptedKeyboard keyboard, boolean offScreen) {
+        this.width = width;
+        this.height = height;
+        this.keyboard = keyboard;
+        this.offScreen = offScreen;
+        this.surface = offScreen ? new ImageDrawSurface(width, height) : new NullDrawSurface(width, height);
+    }
+
+    /**
+     * Returns the surface of the window. The same surface is used for every frame.
+     *
+     * @return The surface of the next frame.
+     */
+    @Override
+    public DrawSurface getDrawSurface() {
+        return this.surface;
+    }
+
+    /**
+     * Counts a shown frame and moves the keyboard to the next frame.
+     *
+     * @param d The surface of the frame.
+     */
+    @Override
+    public void show(DrawSurface d) {
+        this.framesShown++;
+        this.keyboard.nextFrame();
+    }
+
+    /**
+     * Returns the scripted keyboard of the window.
+     *
+     * @return The keyboard sensor.
+     */
+    @Override
+    public KeyboardSensor getKeyboardSensor() {
+        return this.keyboard;
+    }
+
+    /**
+     * Marks the window as closed.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+    }
+
+    /**
+     * Opens another headless window of the same kind, with the same keyboard.
+     *
+     * @param title The title of the new window, not used.
+     * @return The new window.
+     */
+    @Override
+    public GameWindow open(String title) {
+        return new HeadlessWindow(this.width, this.height, this.keyboard, this.offScreen);
+    }
+
+    /**
+     * Returns at once: a headless window does not wait, it only moves its clock forward.
+     *
+     * @param milliseconds The time that would have been waited, in milliseconds.
+     */
+    @Override
+    public void sleepFor(long milliseconds) {
+        this.clock += Math.max(0, milliseconds) * 1_000_000;
+    }
+
+    /**
+     * Returns the simulated time of the window. It only moves when the game waits, so a game paced by this
+     * clock runs the same steps as on the screen, as fast as the machine can.
+     *
+     * @return The simulated time in nanoseconds.
+     */
+    @Override
+    public long nanoTime() {
+        return this.clock;
+    }
+
+    /**
+     * Moves the simulated clock forward to the given time, without waiting.
+     *
+     * @param time The time to move to, in nanoseconds.
+     */
+    @Override
+    public void sleepUntil(long time) {
+        this.clock = Math.max(this.clock, time);
+    }
+
+    /**
+     * Returns the off-screen image with the last frame drawn.
+     *
+     * @return The image, or null if the window ignores what is drawn on it.
+     */
+    public BufferedImage getImage() {
+        return this.offScreen ? ((ImageDrawSurface) this.surface).getImage() : null;
+    }
+
+    /**
+     * Returns the number of frames shown so far.
+     *
+     * @return The number of frames.
+     */
+    public long getFramesShown() {
+        return this.framesShown;
+    }
+
+    /**
+     * Checks if the window was closed.
+     *
+     * @return True if close() was called, false otherwise.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+}
@@ -0,0 +1,240 @@
+// Karam Ganaiem
+
+package utilities;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+
+/**
+ * A DrawSurface that draws straight into an image, the same way the biuoop GUI draws on the screen.
+ * Unlike the surfaces of the GUI, it can be drawn on again and again, and drawing can be limited to a clip.
+ */
+public class ImageDrawSurface implements DrawSurface {
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private Font font;
+
+    /**
+     * Constructs a surface that draws into the given image.
+     *
+     * @param image The image to draw into.
+     */
+    public ImageDrawSurface(BufferedImage image) {
+        this.image = image;
+        this.graphics = image.createGraphics();
+        this.font = this.graphics.getFont();
+    }
+
+    /**
+     * Constructs a surface that draws into a new image of the given size.
+     *
+     * @param width  The width of the image.
+     * @param height The height of the image.
+     */
+    public ImageDrawSurface(int width, int height) {
+        this(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    /**
+     * Returns the image this surface draws into.
+     *
+     * @return The image.
+     */
+    public BufferedImage getImage() {
+        return this.image;
+    }
+
+    /**
+     * Limits all the following drawing to the given rectangle.
+     *
+     * @param x      The x-coordinate of the upper left corner of the clip.
+     * @param y      The y-coordinate of the upper left corner of the clip.
+     * @param width  The width of the clip.
+     * @param height The height of the clip.
+     */
+    public void setClip(int x, int y, int width, int height) {
+        this.graphics.setClip(x, y, width, height);
+    }
+
+    /**
+     * Lets the following drawing reach the whole image again.
+     */
+    public void clearClip() {
+        this.graphics.setClip(null);
+    }
+
+    /**
+     * Returns the width of the image.
+     *
+     * @return The width in pixels.
+     */
+    @Override
+    public int getWidth() {
+        return this.image.getWidth();
+    }
+
+    /**
+     * Returns the height of the image.
+     *
+     * @return The height in pixels.
+     */
+    @Override
+    public int getHeight() {
+        return this.image.getHeight();
+    }
+
+    /**
+     * Sets the color of the following drawing.
+     *
+     * @param color The color.
+     */
+    @Override
+    public void setColor(Color color) {
+        this.graphics.setColor(color);
+    }
+
+    /**
+     * Draws a line.
+     *
+     * @param x1 The x-coordinate of the start.
+     * @param y1 The y-coordinate of the start.
+     * @param x2 The x-coordinate of the end.
+     * @param y2 The y-coordinate of the end.
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.graphics.drawLine(x1, y1, x2, y2);
+    }
+
+    /**
+     * Draws the outline of an oval inside the given rectangle.
+     *
+     * @param x      The x-coordinate of the upper left corner.
+     * @param y      The y-coordinate of the upper left corner.
+     * @param width  The width of the oval.
+     * @param height The height of the oval.
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        this.graphics.drawOval(x, y, width, height);
+    }
+
+    /**
+     * Fills an oval inside the given rectangle.
+     *
+     * @param x      The x-coordinate of the upper left corner.
+     * @param y      The y-coordinate of the upper left corner.
+     * @param width  The width of the oval.
+     * @param height The height of the oval.
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        this.graphics.fillOval(x, y, width, height);
+    }
+
+    /**
+     * Draws the outline of a rectangle.
+     *
+     * @param x      The x-coordinate of the upper left corner.
+     * @param y      The y-coordinate of the upper left corner.
+     * @param width  The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        this.graphics.drawRect(x, y, width, height);
+    }
+
+    /**
+     * Fills a rectangle.
+     *
+     * @param x      The x-coordinate of the upper left corner.
+     * @param y      The y-coordinate of the upper left corner.
+     * @param width  The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        this.graphics.fillRect(x, y, width, height);
+    }
+
+    /**
+     * Draws an image.
+     *
+     * @param x   The x-coordinate of the upper left corner.
+     * @param y   The y-coordinate of the upper left corner.
+     * @param img The image.
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        this.graphics.drawImage(img, x, y, null);
+    }
+
+    /**
+     * Draws the outline of a circle.
+     *
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param r The radius.
+     */
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        this.graphics.drawOval(x - r, y - r, r * 2, r * 2);
+    }
+
+    /**
+     * Fills a circle.
+     *
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param r The radius.
+     */
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        this.graphics.fillOval(x - r, y - r, r * 2, r * 2);
+    }
+
+    /**
+     * Draws a line of text.
+     *
+     * @param x        The x-coordinate of the start of the baseline.
+     * @param y        The y-coordinate of the baseline.
+     * @param text     The text.
+     * @param fontSize The size of the font.
+     */
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        // Text is drawn in the default font with the given size, like on the GUI
+        if (this.font.getSize() != fontSize) {
+            this.font = new Font(this.font.getFontName(), this.font.getStyle(), fontSize);
+        }
+        this.graphics.setFont(this.font);
+        this.graphics.drawString(text, x, y);
+    }
+
+    /**
+     * Draws the outline of a polygon.
+     *
+     * @param p The polygon.
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        this.graphics.drawPolygon(p);
+    }
+
+    /**
+     * Fills a polygon.
+     *
+     * @param p The polygon.
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        this.graphics.fillPolygon(p);
+    }
+}
@@ -0,0 +1,342 @@
+// Karam Ganaiem
+
+package utilities;
+
+import biuoop.KeyboardSensor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The keys held down in every physics step of a game, kept as runs of steps with the same keys, together with
+ * hashes of the game state taken every few steps.
+ * A player usually holds the same keys for many steps in a row, so a whole game takes only a few hundred runs.
+ * The hashes let a replay check that it is still playing the same game as the recording.
+ */
+public class InputLog {
+    /**
+     * The keys kept in the log. A key is stored as the bit of its index in this array.
+     */
+    public static final String[] KEYS = {
+        KeyboardSensor.LEFT_KEY, KeyboardSensor.RIGHT_KEY, KeyboardSensor.SPACE_KEY,
+    };
+
+    private static final int MAGIC = 0x41524B49; // "ARKI"
+    private static final short VERSION = 1;
+
+    private int[] masks;   // The keys held in each run
+    private long[] starts; // The first step of each run
+    private int runs;
+    private long length;   // The number of steps in the log
+    private int hashInterval;
+    private int[] hashes;  // Hash i is taken at the end of step (i + 1) * hashInterval - 1
+    private int hashCount;
+
+    /**
+     * Constructs an empty log.
+     *
+     * @param hashInterval The number of steps between state hashes, or 0 for no hashes.
+     */
+    public InputLog(int hashInterval) {
+        this.masks = new int[16];
+        this.starts = new long[16];
+        this.hashInterval = hashInterval;
+        this.hashes = new int[16];
+    }
+
+    /**
+     * Returns the bit of a key.
+     *
+     * @param key The key.
+     * @return The bit, or 0 if the key is not kept in the log.
+     */
+    public static int bitOf(String key) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (KEYS[i].equals(key)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the keys held down on a keyboard.
+     *
+     * @param keyboard The keyboard.
+     * @return The bits of the keys that are held down.
+     */
+    public static int sample(KeyboardSensor keyboard) {
+        int mask = 0;
+        for (int i = 0; i < KEYS.length; i++) {
+            if (keyboard.isPressed(KEYS[i])) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Adds the keys of the next step to the end of the log.
+     *
+     * @param mask The bits of the keys held down in the step.
+     */
+    public void append(int mask) {
+        appendRun(mask, 1);
+    }
+
+    /**
+     * Adds steps with the same keys to the end of the log.
+     *
+     * @param mask  The bits of the keys held down in the steps.
+     * @param steps The number of steps.
+     */
+    private void appendRun(int mask, long steps) {
+        if (steps <= 0) {
+            return;
+        }
+        if (this.runs > 0 && this.masks[this.runs - 1] == mask) {
+            this.length += steps;
+            return;
+        }
+        if (this.runs == this.masks.length) {
+            this.masks = Arrays.copyOf(this.masks, this.runs * 2);
+            this.starts = Arrays.copyOf(this.starts, this.runs * 2);
+        }
+        this.masks[this.runs] = mask;
+        this.starts[this.runs] = this.length;
+        this.runs++;
+        this.length += steps;
+    }
+
+    /**
+     * Drops the steps from the given step on, with their hashes, so the log can go on from an earlier step.
+     *
+     * @param steps The number of steps to keep.
+     */
+    public void truncate(long steps) {
+        if (steps >= this.length) {
+            return;
+        }
+        while (this.runs > 0 && this.starts[this.runs - 1] >= steps) {
+            this.runs--;
+        }
+        this.length = steps;
+        if (this.hashInterval > 0) {
+            this.hashCount = (int) Math.min(this.hashCount, steps / this.hashInterval);
+        }
+    }
+
+    /**
+     * Returns the keys held down in a step.
+     *
+     * @param step The step.
+     * @return The bits of the keys, or 0 if the step is not in the log.
+     */
+    public int maskAt(long step) {
+        int run = runAt(step);
+        return run < 0 ? 0 : this.masks[run];
+    }
+
+    /**
+     * Finds the run that holds a step.
+     *
+     * @param step The step.
+     * @return The index of the run, or -1 if the step is not in the log.
+     */
+    public int runAt(long step) {
+        if (step < 0 || step >= this.length) {
+            return -1;
+        }
+        int low = 0;
+        int high = this.runs - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (this.starts[middle] <= step) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the keys held down in a run.
+     *
+     * @param run The index of the run.
+     * @return The bits of the keys.
+     */
+    public int getRunMask(int run) {
+        return this.masks[run];
+    }
+
+    /**
+     * Returns the step after the last step of a run.
+     *
+     * @param run The index of the run.
+     * @return The first step of the next run.
+     */
+    public long getRunEnd(int run) {
+        return run + 1 < this.runs ? this.starts[run + 1] : this.length;
+    }
+
+    /**
+     * Returns the number of runs in the log.
+     *
+     * @return The number of runs.
+     */
+    public int getRuns() {
+        return this.runs;
+    }
+
+    /**
+     * Returns the number of steps in the log.
+     *
+     * @return The number of steps.
+     */
+    public long getLength() {
+        return this.length;
+    }
+
+    /**
+     * Returns the number of steps between state hashes.
+     *
+     * @return The number of steps, or 0 if the log has no hashes.
+     */
+    public int getHashInterval() {
+        return this.hashInterval;
+    }
+
+    /**
+     * Checks if a state hash is taken at the end of a step.
+     *
+     * @param step The step.
+     * @return True if a hash is taken at the end of the step.
+     */
+    public boolean isHashStep(long step) {
+        return this.hashInterval > 0 && (step + 1) % this.hashInterval == 0;
+    }
+
+    /**
+     * Adds the state hash taken at the end of a step. Hashes must be added in the order of their steps.
+     *
+     * @param step The step, for which isHashStep() is true.
+     * @param hash The hash of the game state.
+     */
+    public void addHash(long step, int hash) {
+        int index = (int) ((step + 1) / this.hashInterval) - 1;
+        if (index != this.hashCount) {
+            throw new IllegalStateException("Hashes must be added in the order of their steps");
+        }
+        if (this.hashCount == this.hashes.length) {
+            this.hashes = Arrays.copyOf(this.hashes, this.hashCount * 2);
+        }
+        this.hashes[this.hashCount++] = hash;
+    }
+
+    /**
+     * Checks if the log has the state hash of a step.
+     *
+     * @param step The step.
+     * @return True if the hash was recorded.
+     */
+    public boolean hasHash(long step) {
+        return isHashStep(step) && (step + 1) / this.hashInterval <= this.hashCount;
+    }
+
+    /**
+     * Returns the state hash taken at the end of a step.
+     *
+     * @param step The step, for which hasHash() is true.
+     * @return The hash.
+     */
+    public int getHash(long step) {
+        return this.hashes[(int) ((step + 1) / this.hashInterval) - 1];
+    }
+
+    /**
+     * Writes the log to a stream.
+     * The runs are written as a key byte and a variable-length step count, so most runs take two bytes.
+     *
+     * @param out The stream.
+     * @throws IOException If the stream fails.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(this.hashInterval);
+        out.writeInt(this.runs);
+        for (int i = 0; i < this.runs; i++) {
+            out.writeByte(this.masks[i]);
+            writeVarLong(out, getRunEnd(i) - this.starts[i]);
+        }
+        out.writeInt(this.hashCount);
+        for (int i = 0; i < this.hashCount; i++) {
+            out.writeInt(this.hashes[i]);
+        }
+    }
+
+    /**
+     * Reads a log written by writeTo().
+     *
+     * @param in The stream.
+     * @return The log.
+     * @throws IOException If the stream fails or does not hold a log of a known version.
+     */
+    public static InputLog readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an input log");
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unknown input log version " + version);
+        }
+        InputLog log = new InputLog(in.readInt());
+        int runs = in.readInt();
+        for (int i = 0; i < runs; i++) {
+            int mask = in.readUnsignedByte();
+            log.appendRun(mask, readVarLong(in));
+        }
+        int hashCount = in.readInt();
+        for (int i = 0; i < hashCount; i++) {
+            log.addHash((long) (i + 1) * log.hashInterval - 1, in.readInt());
+        }
+        return log;
+    }
+
+    /**
+     * Writes a number in 7-bit groups, with the high bit set on every byte but the last.
+     *
+     * @param out   The stream.
+     * @param value The number, not negative.
+     * @throws IOException If the stream fails.
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while (value >= 0x80) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads a number written by writeVarLong().
+     *
+     * @param in The stream.
+     * @return The number.
+     * @throws IOException If the stream fails.
+     */
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Bad step count");
+    }
+}
@@ -0,0 +1,78 @@
+// Karam Ganaiem
+
+package utilities;
+
+import biuoop.KeyboardSensor;
+import gameLogic.Game;
+import interfaces.TickListener;
+
+/**
+ * A keyboard that records the keys of a live keyboard into an input log, one sample per physics step.
+ * The keys are read once at the start of every step and kept for the whole step, so the game sees exactly the
+ * keys that were recorded, even if the player presses or releases a key in the middle of the step.
+ * Every few steps the recorder also adds a hash of the game state to the log.
+ * Only the keys in InputLog.KEYS are seen through this keyboard; the others always read as released.
+ */
+public class InputRecorder implements KeyboardSensor, TickListener {
+    private KeyboardSensor live;
+    private InputLog log;
+    private int mask; // The keys of the current step
+
+    /**
+     * Constructs a recorder.
+     *
+     * @param live The keyboard of the player.
+     * @param log  The log to record into.
+     */
+    public InputRecorder(KeyboardSensor live, InputLog log) {
+        this.live = live;
+        this.log = log;
+    }
+
+    /**
+     * Returns the log the recorder records into.
+     *
+     * @return The log.
+     */
+    public InputLog getLog() {
+        return this.log;
+    }
+
+    /**
+     * Checks if a key was held down at the start of the current step.
+     *
+     * @param key The key.
+     * @return True if the key is held down.
+     */
+    @Override
+    public boolean isPressed(String key) {
+        return (this.mask & InputLog.bitOf(key)) != 0;
+    }
+
+    /**
+     * Reads the live keyboard and records its keys. If the game was put back to an earlier step, the steps
+     * after it are dropped from the log first.
+     *
+     * @param game The game.
+     * @param tick The number of the step.
+     */
+    @Override
+    public void beginTick(Game game, long tick) {
+        this.log.truncate(tick);
+        this.mask = InputLog.sample(this.live);
+        this.log.append(this.mask);
+    }
+
+    /**
+     * Adds a hash of the game state to the log, every few steps.
+     *
+     * @param game The game.
+     * @param tick The number of the step.
+     */
+    @Override
+    public void endTick(Game game, long tick) {
+        if (this.log.isHashStep(tick)) {
+            this.log.addHash(tick, game.getStateHash());
+        }
+    }
+}
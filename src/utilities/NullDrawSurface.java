@@ -0,0 +1,181 @@
+// Karam Ganaiem
+
+package utilities;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * A DrawSurface that ignores everything drawn on it.
+ * Used to run the drawing code of a game without a window, for example in benchmarks.
+ */
+public class NullDrawSurface implements DrawSurface {
+    private int width;
+    private int height;
+
+    /**
+     * Constructs a surface of the given size.
+     *
+     * @param width  The width of the surface.
+     * @param height The height of the surface.
+     */
+    public NullDrawSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Returns the width of the surface.
+     *
+     * @return The width in pixels.
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the height of the surface.
+     *
+     * @return The height in pixels.
+     */
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param color The color.
+     */
+    @Override
+    public void setColor(Color color) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x1 The x-coordinate of the start.
+     * @param y1 The y-coordinate of the start.
+     * @param x2 The x-coordinate of the end.
+     * @param y2 The y-coordinate of the end.
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x      The x-coordinate of the upper left corner.
+     * @param y      The y-coordinate of the upper left corner.
+     * @param width  The width of the oval.
+     * @param height The height of the oval.
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x      The x-coordinate of the upper left corner.
+     * @param y      The y-coordinate of the upper left corner.
+     * @param width  The width of the oval.
+     * @param height The height of the oval.
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x      The x-coordinate of the upper left corner.
+     * @param y      The y-coordinate of the upper left corner.
+     * @param width  The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x      The x-coordinate of the upper left corner.
+     * @param y      The y-coordinate of the upper left corner.
+     * @param width  The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x   The x-coordinate of the upper left corner.
+     * @param y   The y-coordinate of the upper left corner.
+     * @param img The image.
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param r The radius.
+     */
+    @Override
+    public void drawCircle(int x, int y, int r) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param r The radius.
+     */
+    @Override
+    public void fillCircle(int x, int y, int r) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param x        The x-coordinate of the start of the baseline.
+     * @param y        The y-coordinate of the baseline.
+     * @param text     The text.
+     * @param fontSize The size of the font.
+     */
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param p The polygon.
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param p The polygon.
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+    }
+}
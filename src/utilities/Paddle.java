@@ -9,6 +9,7 @@ import geometry.Ball;
 import geometry.Point;
 import geometry.Rectangle;
 import interfaces.Collidable;
+import interfaces.Interpolated;
 import interfaces.Sprite;
 
 
@@ -17,11 +18,13 @@ import java.awt.Color;
 /**
  * The utilities.Paddle class represents a paddle in the game.
  */
-public class Paddle implements Sprite, Collidable {
+public class Paddle implements Sprite, Collidable, Interpolated {
     private KeyboardSensor keyIn;
     private Rectangle shape;
     private Color color;
     private double velocity;
+    private Game game;
+    private double previousX; // The left edge before the last step, for drawing between steps
 
 
     /**
@@ -36,6 +39,7 @@ public class Paddle implements Sprite, Collidable {
         this.color = color;
         this.keyIn = keyIn;
         this.shape = shape;
+        this.previousX = shape.getUpperLeft().getX();
         this.velocity = velocity;
     }
 
@@ -61,6 +65,7 @@ public class Paddle implements Sprite, Collidable {
      */
     @Override
     public void timePassed() {
+        this.previousX = this.shape.getUpperLeft().getX();
         if (keyIn.isPressed(KeyboardSensor.LEFT_KEY)) {
             moveLeft();
         }
@@ -85,6 +90,20 @@ public class Paddle implements Sprite, Collidable {
         d.fillRectangle(xCord, yCord, drawWidth, drawHeight);
     }
 
+    /**
+     * Draws the paddle between its position before the last step and its current position.
+     *
+     * @param d     The DrawSurface on which to draw the paddle.
+     * @param alpha The fraction of the way from the previous position to the current one.
+     */
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        double x = this.previousX + (this.shape.getUpperLeft().getX() - this.previousX) * alpha;
+        d.setColor(this.color);
+        d.fillRectangle((int) x, (int) this.shape.getUpperLeft().getY(),
+                (int) this.shape.getWidth(), (int) this.shape.getHeight());
+    }
+
     /**
      * Returns the collision rectangle representing the paddle.
      *
@@ -154,15 +173,41 @@ public class Paddle implements Sprite, Collidable {
 
 
     /**
-     * Adds the paddle to the game by registering it as a sprite and a collidable.
+     * Adds the paddle to the game by registering it as a sprite and a moving collidable.
      *
      * @param g The game to which the paddle is added.
      */
     public void addToGame(Game g) {
+        this.game = g;
         g.addSprite(this);
-        g.addCollidable(this);
+        g.addDynamicCollidable(this);
+    }
+
+    /**
+     * Returns the left edge of the paddle before the last step.
+     *
+     * @return The x-coordinate.
+     */
+    public double getPreviousX() {
+        return this.previousX;
     }
 
+    /**
+     * Puts the paddle back in a saved position, keeping its height and size.
+     *
+     * @param x         The x-coordinate of the left edge.
+     * @param previousX The left edge before the last step.
+     */
+    public void restore(double x, double previousX) {
+        this.previousX = previousX;
+        if (x != this.shape.getUpperLeft().getX()) {
+            this.shape = new Rectangle(new Point(x, this.shape.getUpperLeft().getY()),
+                    (int) this.shape.getWidth(), (int) this.shape.getHeight());
+            if (this.game != null) {
+                this.game.updateCollidable(this);
+            }
+        }
+    }
 
     /**
      * Moves the paddle horizontally based on the specified step.
@@ -184,5 +229,10 @@ public class Paddle implements Sprite, Collidable {
             // Regular movement within the screen boundaries
             this.shape = new Rectangle(new geometry.Point(newX, 560), 90, 15);
         }
+
+        // Let the game environment know the collision rectangle has moved
+        if (this.game != null) {
+            this.game.updateCollidable(this);
+        }
     }
 }
\ No newline at end of file
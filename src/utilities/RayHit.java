@@ -0,0 +1,152 @@
+// Karam Ganaiem
+
+package utilities;
+
+import interfaces.Collidable;
+
+/**
+ * Represents the closest hit found by a trajectory query.
+ * Unlike utilities.CollisionInfo, a RayHit is mutable and meant to be reused between queries,
+ * so looking for collisions does not allocate any objects.
+ */
+public class RayHit {
+    /**
+     * No side was hit.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * The upper edge of the rectangle was hit.
+     */
+    public static final int TOP = 1;
+
+    /**
+     * The lower edge of the rectangle was hit.
+     */
+    public static final int BOTTOM = 2;
+
+    /**
+     * The left edge of the rectangle was hit.
+     */
+    public static final int LEFT = 3;
+
+    /**
+     * The right edge of the rectangle was hit.
+     */
+    public static final int RIGHT = 4;
+
+    private double time;
+    private double x;
+    private double y;
+    private int side;
+    private Collidable collidable;
+    private int order;
+
+    /**
+     * Constructs a new, empty RayHit.
+     */
+    public RayHit() {
+        reset();
+    }
+
+    /**
+     * Clears the hit, so any hit along the trajectory is closer.
+     */
+    public void reset() {
+        this.time = Double.POSITIVE_INFINITY;
+        this.x = 0;
+        this.y = 0;
+        this.side = NONE;
+        this.collidable = null;
+        this.order = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Stores the position of a new closest hit.
+     *
+     * @param newTime The fraction of the trajectory travelled before the hit, between 0 and 1.
+     * @param newX    The x-coordinate of the hit point.
+     * @param newY    The y-coordinate of the hit point.
+     * @param newSide The side of the rectangle that was hit.
+     */
+    public void set(double newTime, double newX, double newY, int newSide) {
+        this.time = newTime;
+        this.x = newX;
+        this.y = newY;
+        this.side = newSide;
+    }
+
+    /**
+     * Stores the collidable of the closest hit.
+     *
+     * @param newCollidable The collidable that was hit.
+     * @param newOrder      The order in which the collidable was added, used to break ties.
+     */
+    public void setCollidable(Collidable newCollidable, int newOrder) {
+        this.collidable = newCollidable;
+        this.order = newOrder;
+    }
+
+    /**
+     * Checks if a hit was found.
+     *
+     * @return True if a collidable was hit, false otherwise.
+     */
+    public boolean isHit() {
+        return this.collidable != null;
+    }
+
+    /**
+     * Gets the fraction of the trajectory travelled before the hit.
+     *
+     * @return The time of the hit, between 0 and 1, or infinity if there is no hit.
+     */
+    public double getTime() {
+        return this.time;
+    }
+
+    /**
+     * Gets the x-coordinate of the hit point.
+     *
+     * @return The x-coordinate of the hit point.
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Gets the y-coordinate of the hit point.
+     *
+     * @return The y-coordinate of the hit point.
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * Gets the side of the rectangle that was hit.
+     *
+     * @return One of TOP, BOTTOM, LEFT, RIGHT, or NONE.
+     */
+    public int getSide() {
+        return this.side;
+    }
+
+    /**
+     * Gets the collidable that was hit.
+     *
+     * @return The collidable, or null if there is no hit.
+     */
+    public Collidable getCollidable() {
+        return this.collidable;
+    }
+
+    /**
+     * Gets the order in which the hit collidable was added.
+     *
+     * @return The order of the collidable, or Integer.MAX_VALUE if there is no hit.
+     */
+    public int getOrder() {
+        return this.order;
+    }
+}
@@ -0,0 +1,88 @@
+// Karam Ganaiem
+
+package utilities;
+
+import biuoop.KeyboardSensor;
+import gameLogic.Game;
+import interfaces.TickListener;
+
+/**
+ * A keyboard that plays back an input log, giving the game the recorded keys in every physics step.
+ * At the end of every step that has a recorded state hash, the hash of the game is checked against it, so a
+ * replay that stops following the recording is caught at the first hash that differs.
+ */
+public class ReplayKeyboard implements KeyboardSensor, TickListener {
+    private InputLog log;
+    private int run = -1; // The run of the current step
+    private int mask;     // The keys of the current step
+    private long checkedHashes;
+
+    /**
+     * Constructs a keyboard that plays back a log.
+     *
+     * @param log The log.
+     */
+    public ReplayKeyboard(InputLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Returns the number of state hashes that were checked so far.
+     *
+     * @return The number of hashes.
+     */
+    public long getCheckedHashes() {
+        return this.checkedHashes;
+    }
+
+    /**
+     * Checks if a key was held down in the current step of the recording.
+     *
+     * @param key The key.
+     * @return True if the key is held down.
+     */
+    @Override
+    public boolean isPressed(String key) {
+        return (this.mask & InputLog.bitOf(key)) != 0;
+    }
+
+    /**
+     * Looks up the keys of the step. Steps usually follow each other, so the current run is checked first.
+     * Steps after the end of the log have no keys held down.
+     *
+     * @param game The game.
+     * @param tick The number of the step.
+     */
+    @Override
+    public void beginTick(Game game, long tick) {
+        if (this.run >= 0 && this.run < this.log.getRuns() && tick < this.log.getRunEnd(this.run)
+                && (this.run == 0 || tick >= this.log.getRunEnd(this.run - 1))) {
+            return;
+        }
+        if (this.run >= 0 && this.run + 1 < this.log.getRuns() && tick == this.log.getRunEnd(this.run)) {
+            this.run++;
+        } else {
+            this.run = this.log.runAt(tick);
+        }
+        this.mask = this.run < 0 ? 0 : this.log.getRunMask(this.run);
+    }
+
+    /**
+     * Checks the game state against the recorded hash of the step, if there is one.
+     *
+     * @param game The game.
+     * @param tick The number of the step.
+     * @throws IllegalStateException If the game state differs from the recording.
+     */
+    @Override
+    public void endTick(Game game, long tick) {
+        if (!this.log.hasHash(tick)) {
+            return;
+        }
+        int hash = game.getStateHash();
+        if (hash != this.log.getHash(tick)) {
+            throw new IllegalStateException("The replay went out of sync with the recording at step " + tick);
+        }
+        this.checkedHashes++;
+    }
+}
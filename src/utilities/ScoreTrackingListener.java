@@ -50,6 +50,24 @@ public class ScoreTrackingListener implements HitListener {
         return this.currentScore.getValue();
     }
 
+    /**
+     * Returns the counter that holds the score.
+     *
+     * @return The counter.
+     */
+    public Counter getCounter() {
+        return this.currentScore;
+    }
+
+    /**
+     * Sets the current score, for example when a saved game is restored.
+     *
+     * @param value The new score.
+     */
+    public void setValue(int value) {
+        this.currentScore.setValue(value);
+    }
+
     /**
      * Increases the score by 5 when a block is hit.
      *
@@ -0,0 +1,97 @@
+// Karam Ganaiem
+
+package utilities;
+
+import biuoop.KeyboardSensor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A keyboard that is driven by code instead of a person, for runs without a display.
+ * Keys can be pressed and released directly, or held over a range of frames given in advance.
+ * The window that uses the keyboard moves it to the next frame every time a frame is shown.
+ */
+public class ScriptedKeyboard implements KeyboardSensor {
+    private Set<String> pressed;
+    private List<String> heldKeys;
+    private List<long[]> heldFrames; // The first and last frame of each held key
+    private long frame;
+
+    /**
+     * Constructs a keyboard with no keys pressed.
+     */
+    public ScriptedKeyboard() {
+        this.pressed = new HashSet<>();
+        this.heldKeys = new ArrayList<>();
+        this.heldFrames = new ArrayList<>();
+    }
+
+    /**
+     * Presses a key until it is released.
+     *
+     * @param key The key, for example KeyboardSensor.LEFT_KEY.
+     */
+    public void press(String key) {
+        this.pressed.add(key);
+    }
+
+    /**
+     * Releases a key pressed with press().
+     *
+     * @param key The key.
+     */
+    public void release(String key) {
+        this.pressed.remove(key);
+    }
+
+    /**
+     * Holds a key down from one frame to another.
+     *
+     * @param key       The key.
+     * @param fromFrame The first frame the key is down in.
+     * @param toFrame   The last frame the key is down in.
+     */
+    public void hold(String key, long fromFrame, long toFrame) {
+        this.heldKeys.add(key);
+        this.heldFrames.add(new long[] {fromFrame, toFrame});
+    }
+
+    /**
+     * Moves the keyboard to the next frame.
+     */
+    public void nextFrame() {
+        this.frame++;
+    }
+
+    /**
+     * Returns the current frame of the keyboard.
+     *
+     * @return The number of frames shown so far.
+     */
+    public long getFrame() {
+        return this.frame;
+    }
+
+    /**
+     * Checks if a key is down in the current frame.
+     *
+     * @param key The key.
+     * @return True if the key was pressed, or is held in the current frame, false otherwise.
+     */
+    @Override
+    public boolean isPressed(String key) {
+        if (this.pressed.contains(key)) {
+            return true;
+        }
+        for (int i = 0; i < this.heldKeys.size(); i++) {
+            long[] frames = this.heldFrames.get(i);
+            if (this.frame >= frames[0] && this.frame <= frames[1] && this.heldKeys.get(i).equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+// Karam Ganaiem
+
+package utilities;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter that is safe to change from several threads at once, and that stays fast when many threads change it
+ * all the time, like a score.
+ * The count is spread over several cells, so threads that add at the same moment usually touch different cells
+ * instead of fighting over one. Reading the value adds the cells up, so reads are slower than changes, and a
+ * value read while other threads are changing the counter may already be out of date. For an exact check, like
+ * "no balls are left", use a utilities.AtomicCounter.
+ * The values the listener is told about are exact only when one thread changes the counter at a time.
+ */
+public class StripedCounter extends Counter {
+    private final LongAdder cells;
+
+    /**
+     * Constructs a new counter with an initial value.
+     *
+     * @param initialValue The initial value of the counter.
+     */
+    public StripedCounter(int initialValue) {
+        this.cells = new LongAdder();
+        this.cells.add(initialValue);
+    }
+
+    /**
+     * Constructs a new counter with an initial value of 0.
+     */
+    public StripedCounter() {
+        this(0);
+    }
+
+    /**
+     * Increases the counter by a specified number.
+     *
+     * @param number The number to increase the counter by.
+     */
+    @Override
+    public void increase(int number) {
+        this.cells.add(number);
+        if (getListener() != null) {
+            int newValue = getValue();
+            changed(newValue - number, newValue);
+        }
+    }
+
+    /**
+     * Decreases the counter by a specified number.
+     *
+     * @param number The number to decrease the counter by.
+     */
+    @Override
+    public void decrease(int number) {
+        this.cells.add(-number);
+        if (getListener() != null) {
+            int newValue = getValue();
+            changed(newValue + number, newValue);
+        }
+    }
+
+    /**
+     * Gets the current value of the counter, by adding up its cells.
+     *
+     * @return The current value of the counter.
+     */
+    @Override
+    public int getValue() {
+        return (int) this.cells.sum();
+    }
+
+    /**
+     * Sets the counter to a specified value, for example when a saved game is restored.
+     * Changes made by other threads at the same moment may be lost.
+     *
+     * @param value The new value of the counter.
+     */
+    @Override
+    public void setValue(int value) {
+        int oldValue = (int) this.cells.sumThenReset();
+        this.cells.add(value);
+        changed(oldValue, value);
+    }
+}